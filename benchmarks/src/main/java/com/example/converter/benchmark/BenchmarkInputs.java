@@ -0,0 +1,49 @@
+package com.example.converter.benchmark;
+
+import com.example.converter.util.SyntheticSchemaGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Resolves benchmark input names to JSON model bytes.
+ * A name is either a path relative to schema-file/ or {@code synthetic-<entities>}.
+ */
+public class BenchmarkInputs {
+
+    private static final String SYNTHETIC_PREFIX = "synthetic-";
+    private static final int SYNTHETIC_FIELDS_PER_ENTITY = 8;
+    private static final int SYNTHETIC_RELATIONSHIPS_PER_ENTITY = 2;
+    private static final long SYNTHETIC_SEED = 42L;
+
+    /**
+     * Load or generate the JSON model for an input name
+     */
+    public static byte[] load(String input, ObjectMapper objectMapper) throws IOException {
+        if (input.startsWith(SYNTHETIC_PREFIX)) {
+            int entities = Integer.parseInt(input.substring(SYNTHETIC_PREFIX.length()));
+            return objectMapper.writeValueAsBytes(SyntheticSchemaGenerator.generate(
+                    entities, SYNTHETIC_FIELDS_PER_ENTITY, SYNTHETIC_RELATIONSHIPS_PER_ENTITY, SYNTHETIC_SEED));
+        }
+        return Files.readAllBytes(schemaDirectory().resolve(input));
+    }
+
+    /**
+     * The schema-file directory, from -Dschema.dir or found next to or above the working directory
+     */
+    static Path schemaDirectory() throws IOException {
+        String configured = System.getProperty("schema.dir");
+        if (configured != null) {
+            return Paths.get(configured);
+        }
+        for (Path candidate : new Path[]{Paths.get("schema-file"), Paths.get("../schema-file")}) {
+            if (Files.isDirectory(candidate)) {
+                return candidate;
+            }
+        }
+        throw new IOException("schema-file directory not found, set -Dschema.dir");
+    }
+}
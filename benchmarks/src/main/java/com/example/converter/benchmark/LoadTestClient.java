@@ -0,0 +1,163 @@
+package com.example.converter.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Load-test client for the conversion daemon ({@code --serve}).
+ * Each client thread posts the schema-file corpus round robin for the given duration after a
+ * warmup, then latency percentiles and throughput are reported. Rejected (503) requests are
+ * counted separately from successful ones.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.example.converter.benchmark.LoadTestClient \
+ *     --url http://127.0.0.1:8765 --concurrency 16 --duration 30 --warmup 10 --format dot
+ * </pre>
+ */
+public class LoadTestClient {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseArguments(args);
+        String url = options.getOrDefault("url", "http://127.0.0.1:8765");
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "16"));
+        long durationSeconds = Long.parseLong(options.getOrDefault("duration", "30"));
+        long warmupSeconds = Long.parseLong(options.getOrDefault("warmup", "10"));
+        String format = options.getOrDefault("format", "dot");
+        String engine = options.getOrDefault("engine", "velocity");
+
+        List<byte[]> corpus = loadCorpus();
+        URI convert = URI.create(url + "/convert?format=" + format + "&engine=" + engine);
+        System.out.printf("%d schemas, %d clients, %d s warmup, %d s measured against %s%n",
+                corpus.size(), concurrency, warmupSeconds, durationSeconds, convert);
+
+        try (HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build()) {
+            run(client, convert, corpus, concurrency, TimeUnit.SECONDS.toNanos(warmupSeconds));
+            Result result = run(client, convert, corpus, concurrency, TimeUnit.SECONDS.toNanos(durationSeconds));
+            result.print(durationSeconds);
+        }
+    }
+
+    private static Result run(HttpClient client, URI convert, List<byte[]> corpus, int concurrency, long durationNanos)
+            throws Exception {
+        long deadline = System.nanoTime() + durationNanos;
+        List<Future<Result>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                int offset = i;
+                futures.add(executor.submit(() -> {
+                    Result result = new Result();
+                    for (int n = offset; System.nanoTime() < deadline; n++) {
+                        HttpRequest request = HttpRequest.newBuilder(convert)
+                                .POST(HttpRequest.BodyPublishers.ofByteArray(corpus.get(n % corpus.size())))
+                                .build();
+                        long start = System.nanoTime();
+                        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                        result.record(response.statusCode(), System.nanoTime() - start, response.body().length);
+                    }
+                    return result;
+                }));
+            }
+        }
+
+        Result total = new Result();
+        for (Future<Result> future : futures) {
+            total.merge(future.get());
+        }
+        return total;
+    }
+
+    private static List<byte[]> loadCorpus() throws Exception {
+        Path schemaDirectory = BenchmarkInputs.schemaDirectory();
+        try (Stream<Path> files = Files.walk(schemaDirectory)) {
+            List<Path> schemaFiles = files.filter(file -> file.toString().endsWith(".json")).sorted().toList();
+            List<byte[]> corpus = new ArrayList<>();
+            for (Path file : schemaFiles) {
+                corpus.add(Files.readAllBytes(file));
+            }
+            if (corpus.isEmpty()) {
+                throw new IllegalStateException("No schemas found in " + schemaDirectory);
+            }
+            return corpus;
+        }
+    }
+
+    private static Map<String, String> parseArguments(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Expected --option value pairs, got " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+
+    /**
+     * Latencies of successful requests and counts by status code for one client or all clients
+     */
+    private static final class Result {
+
+        private long[] latencies = new long[1024];
+        private int count;
+        private long bytes;
+        private final Map<Integer, Integer> statusCounts = new TreeMap<>();
+
+        void record(int status, long latencyNanos, long responseBytes) {
+            statusCounts.merge(status, 1, Integer::sum);
+            if (status == 200) {
+                if (count == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, count * 2);
+                }
+                latencies[count++] = latencyNanos;
+                bytes += responseBytes;
+            }
+        }
+
+        void merge(Result other) {
+            if (count + other.count > latencies.length) {
+                latencies = Arrays.copyOf(latencies, count + other.count);
+            }
+            System.arraycopy(other.latencies, 0, latencies, count, other.count);
+            count += other.count;
+            bytes += other.bytes;
+            other.statusCounts.forEach((status, n) -> statusCounts.merge(status, n, Integer::sum));
+        }
+
+        void print(long durationSeconds) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            System.out.printf("Requests:   %s%n", statusCounts);
+            System.out.printf("Throughput: %.1f conversions/s, %.1f MB/s%n",
+                    (double) count / durationSeconds, bytes / 1_000_000.0 / durationSeconds);
+            if (count > 0) {
+                System.out.printf("Latency:    p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                        millis(percentile(sorted, 0.50)), millis(percentile(sorted, 0.90)),
+                        millis(percentile(sorted, 0.99)), millis(sorted[count - 1]));
+            }
+        }
+
+        private static long percentile(long[] sorted, double quantile) {
+            return sorted[Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1)];
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+    }
+}
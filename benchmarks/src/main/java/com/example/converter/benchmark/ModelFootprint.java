@@ -0,0 +1,124 @@
+package com.example.converter.benchmark;
+
+import com.example.converter.model.DiagramModel;
+import com.example.converter.model.EntityModel;
+import com.example.converter.model.RelationshipModel;
+import com.example.converter.service.DiagramService;
+import com.example.converter.util.SyntheticSchemaGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.openjdk.jol.info.GraphLayout;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Retained heap of a parsed model and the allocation of one pass over its fields, per entity.
+ * Each model is measured as parsed, with repeated strings pooled, and again after copying every
+ * string of every entity and relationship into its own instance, as parsing did before the
+ * string pool. Field rows are immutable objects built once, so the difference is the strings.
+ * A pass walks every field of every entity the way the templates and renderers do.
+ * <p>
+ * Run from the benchmarks directory:
+ * {@code java -Xmx4g -Djdk.attach.allowAttachSelf=true -cp target/benchmarks.jar
+ * com.example.converter.benchmark.ModelFootprint [entities] [fields,fields...]}.
+ * The default is 100,000 entities with 8 and 40 fields.
+ */
+public class ModelFootprint {
+
+    // Keeps the passes from being optimised away
+    private static volatile long sink;
+
+    public static void main(String[] args) throws Exception {
+        int entities = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int[] fieldCounts = args.length > 1
+                ? Arrays.stream(args[1].split(",")).mapToInt(Integer::parseInt).toArray()
+                : new int[]{8, 40};
+
+        try (ConfigurableApplicationContext context = BenchmarkApplication.start()) {
+            DiagramService diagramService = context.getBean(DiagramService.class);
+
+            System.out.printf("%d entities, 1.5 relationships and 2 special sections each, JSON tree excluded%n", entities);
+            System.out.printf("%-8s %-18s %18s %22s%n", "fields", "strings", "retained B/entity", "field pass B/entity");
+            for (int fields : fieldCounts) {
+                DiagramModel diagram = parse(diagramService, entities, fields);
+                report(fields, "pooled", diagram);
+                report(fields, "one per value", unpooled(diagram));
+            }
+        }
+    }
+
+    private static DiagramModel parse(DiagramService diagramService, int entities, int fields) {
+        JsonNode json = SyntheticSchemaGenerator.generate(
+                new SyntheticSchemaGenerator.Parameters(entities, fields, 1.5, 2, 0, 42L));
+        return diagramService.parseJsonModel(json);
+    }
+
+    /**
+     * The same model with a separate String instance for every value
+     */
+    private static DiagramModel unpooled(DiagramModel diagram) {
+        List<EntityModel> entities = new ArrayList<>();
+        for (EntityModel entity : diagram.getEntities()) {
+            List<EntityModel.Field> fields = new ArrayList<>();
+            for (EntityModel.Field field : entity.getFields()) {
+                fields.add(new EntityModel.Field(copy(field.getName()), copy(field.getType()), field.isRequired(),
+                        field.isKey(), copy(field.getDescription())));
+            }
+            List<EntityModel.SpecialSection> sections = new ArrayList<>();
+            for (EntityModel.SpecialSection section : entity.getSpecialSections() != null ? entity.getSpecialSections() : List.<EntityModel.SpecialSection>of()) {
+                sections.add(new EntityModel.SpecialSection(copy(section.getName()), copy(section.getType()),
+                        copy(section.getStyle()), section.isIs_required()));
+            }
+            entities.add(new EntityModel(copy(entity.getId()), copy(entity.getName()), copy(entity.getDomain()),
+                    copy(entity.getDescription()), fields, sections,
+                    entity.getConstraints() != null ? entity.getConstraints().stream().map(ModelFootprint::copy).toList() : null));
+        }
+        List<RelationshipModel> relationships = new ArrayList<>();
+        for (RelationshipModel relationship : diagram.getRelationships()) {
+            relationships.add(new RelationshipModel(copy(relationship.getId()), copy(relationship.getFromEntity()),
+                    copy(relationship.getToEntity()), copy(relationship.getLabel()), copy(relationship.getType()),
+                    copy(relationship.getDescription())));
+        }
+        DiagramModel copy = new DiagramModel();
+        copy.setEntities(entities);
+        copy.setRelationships(relationships);
+        return copy;
+    }
+
+    private static String copy(String value) {
+        return value != null ? new String(value) : null;
+    }
+
+    private static void report(int fields, String strings, DiagramModel diagram) {
+        int entities = diagram.getEntities().size();
+        long retained = GraphLayout.parseInstance(diagram).totalSize();
+
+        // Warm the pass up so allocation is measured on compiled code
+        for (int i = 0; i < 5; i++) {
+            sink += iterate(diagram.getEntities());
+        }
+        long iterated = allocatedBy(() -> sink += iterate(diagram.getEntities()));
+
+        System.out.printf("%-8d %-18s %18d %22d%n", fields, strings, retained / entities, iterated / entities);
+    }
+
+    private static long iterate(List<EntityModel> entities) {
+        long length = 0;
+        for (EntityModel entity : entities) {
+            for (EntityModel.Field field : entity.getFields()) {
+                length += field.getName().length() + (field.isRequired() ? 1 : 0);
+            }
+        }
+        return length;
+    }
+
+    private static long allocatedBy(Runnable pass) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        pass.run();
+        return threads.getCurrentThreadAllocatedBytes() - before;
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.converter.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipFile;
+
+/**
+ * Time-to-exit of the converter for {@code --help} and for converting schema-file/contact/schema.json,
+ * in each startup mode that has been built:
+ * <ul>
+ *     <li>jar: the plain executable jar</li>
+ *     <li>aot: the same jar with the Spring AOT context ({@code -Paot})</li>
+ *     <li>cds: the extracted jar with the class-data sharing archive ({@code -Pcds})</li>
+ *     <li>native: the GraalVM native executable ({@code -Pnative native:compile})</li>
+ * </ul>
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.example.converter.benchmark.StartupBenchmark [runs]
+ * </pre>
+ */
+public class StartupBenchmark {
+
+    private static final String JAR_NAME = "converter-0.0.1-SNAPSHOT.jar";
+    private static final String AOT_INITIALIZER = "BOOT-INF/classes/com/example/converter/ConverterApplication__ApplicationContextInitializer.class";
+
+    public static void main(String[] args) throws Exception {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        Path projectDirectory = BenchmarkInputs.schemaDirectory().toAbsolutePath().getParent();
+        Path target = projectDirectory.resolve("target");
+        Path schema = projectDirectory.resolve("schema-file/contact/schema.json");
+        Path output = Files.createTempFile("startup-", ".dot");
+
+        Map<String, List<String>> modes = modes(target);
+        if (modes.isEmpty()) {
+            throw new IllegalStateException("No converter build found in " + target + ", run ./mvnw package first");
+        }
+
+        System.out.printf("%-8s %-10s %10s %10s %10s%n", "Mode", "Workload", "Min ms", "Median ms", "Max ms");
+        for (Map.Entry<String, List<String>> mode : modes.entrySet()) {
+            Map<String, List<String>> workloads = Map.of(
+                    "help", List.of("--help"),
+                    "contact", List.of(schema.toString(), output.toString()));
+            for (String workload : List.of("help", "contact")) {
+                List<String> command = new ArrayList<>(mode.getValue());
+                command.addAll(workloads.get(workload));
+                long[] millis = time(command, projectDirectory, runs);
+                System.out.printf("%-8s %-10s %10d %10d %10d%n", mode.getKey(), workload,
+                        millis[0], millis[millis.length / 2], millis[millis.length - 1]);
+            }
+        }
+        Files.deleteIfExists(output);
+    }
+
+    /**
+     * Command prefix for each mode whose artifacts exist
+     */
+    private static Map<String, List<String>> modes(Path target) throws IOException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        Map<String, List<String>> modes = new LinkedHashMap<>();
+
+        Path jar = target.resolve(JAR_NAME);
+        boolean aotProcessed = false;
+        if (Files.exists(jar)) {
+            modes.put("jar", List.of(java, "-jar", jar.toString()));
+            try (ZipFile zip = new ZipFile(jar.toFile())) {
+                aotProcessed = zip.getEntry(AOT_INITIALIZER) != null;
+            }
+            if (aotProcessed) {
+                modes.put("aot", List.of(java, "-Dspring.aot.enabled=true", "-jar", jar.toString()));
+            }
+        }
+
+        Path archive = target.resolve("cds/converter.jsa");
+        if (Files.exists(archive)) {
+            // The archive was trained with AOT when the jar was AOT processed
+            modes.put("cds", List.of(java, "-XX:SharedArchiveFile=" + archive, "-Xlog:cds=off",
+                    "-Dspring.aot.enabled=" + aotProcessed, "-jar", target.resolve("cds").resolve(JAR_NAME).toString()));
+        }
+
+        Path nativeImage = target.resolve("json-to-dot");
+        if (Files.isExecutable(nativeImage)) {
+            modes.put("native", List.of(nativeImage.toString()));
+        }
+        return modes;
+    }
+
+    /**
+     * Wall-clock milliseconds of each run after one warmup run, sorted
+     */
+    private static long[] time(List<String> command, Path workingDirectory, int runs) throws Exception {
+        long[] millis = new long[runs];
+        for (int i = -1; i < runs; i++) {
+            ProcessBuilder builder = new ProcessBuilder(command)
+                    .directory(workingDirectory.toFile())
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD);
+            long start = System.nanoTime();
+            int exitCode = builder.start().waitFor();
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (exitCode != 0) {
+                throw new IllegalStateException(String.join(" ", command) + " exited with " + exitCode);
+            }
+            if (i >= 0) {
+                millis[i] = elapsed;
+            }
+        }
+        Arrays.sort(millis);
+        return millis;
+    }
+}
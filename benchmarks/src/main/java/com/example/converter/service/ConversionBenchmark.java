@@ -0,0 +1,112 @@
+package com.example.converter.service;
+
+import com.example.converter.benchmark.BenchmarkApplication;
+import com.example.converter.benchmark.BenchmarkInputs;
+import com.example.converter.config.DiagramProperties;
+import com.example.converter.model.DiagramModel;
+import com.example.converter.model.EntityModel;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for each stage of the conversion pipeline.
+ * Each stage gets its inputs prepared ahead of time, so only that stage is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class ConversionBenchmark {
+
+    @Param({
+            "contact/schema.json",
+            "contact/schema_level2.json",
+            "dy/schema.json",
+            "mdm/schema.json",
+            "party/schema.json",
+            "product/schema.json",
+            "rate/schema.json",
+            "synthetic-1000",
+            "synthetic-10000"
+    })
+    private String input;
+
+    private ConfigurableApplicationContext context;
+    private DiagramService diagramService;
+    private StyleService styleService;
+    private ObjectMapper objectMapper;
+
+    private byte[] json;
+    private JsonNode jsonData;
+    private DiagramModel diagram;
+    private DiagramProperties config;
+    private CompiledStyles styles;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = BenchmarkApplication.start();
+        diagramService = context.getBean(DiagramService.class);
+        styleService = context.getBean(StyleService.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+
+        json = BenchmarkInputs.load(input, objectMapper);
+        jsonData = objectMapper.readTree(json);
+        diagram = diagramService.parseJsonModel(jsonData);
+        config = diagramService.loadConfiguration(null);
+        styles = styleService.applyStyles(diagram, config);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public DiagramModel parseJsonModel() {
+        return diagramService.parseJsonModel(jsonData);
+    }
+
+    @Benchmark
+    public void styleResolution(Blackhole blackhole) {
+        for (EntityModel entity : diagram.getEntities()) {
+            blackhole.consume(styleService.getEntityStyles(entity.getId()));
+        }
+    }
+
+    @Benchmark
+    public String renderTemplate() throws Exception {
+        return diagramService.renderTemplate(diagram, config, styles);
+    }
+
+    @Benchmark
+    public String generateSimpleDot() {
+        return diagramService.generateSimpleDot(diagram, config, styles);
+    }
+
+    /**
+     * Full path from JSON bytes to DOT text
+     */
+    @Benchmark
+    public String generateDotContent() throws Exception {
+        return diagramService.generateDotContent(objectMapper.readTree(json), null);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.converter.service;
+
+import com.example.converter.benchmark.BenchmarkApplication;
+import com.example.converter.benchmark.BenchmarkInputs;
+import com.example.converter.config.DiagramProperties;
+import com.example.converter.model.DiagramModel;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sequential against parallel entity rendering with the Velocity templates, on the largest
+ * schemas and synthetic models of 1,000 to 50,000 entities. Scores are milliseconds per render.
+ * Parallel renders run on the common fork-join pool; compare thread counts with
+ * {@code -jvmArgsAppend -Djava.util.concurrent.ForkJoinPool.common.parallelism=<threads>}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class ParallelRenderBenchmark {
+
+    @Param({
+            "dy/schema.json",
+            "mdm/schema.json",
+            "synthetic-1000",
+            "synthetic-10000",
+            "synthetic-50000"
+    })
+    private String input;
+
+    @Param({"false", "true"})
+    private boolean parallel;
+
+    @Param({"16"})
+    private int chunkSize;
+
+    private ConfigurableApplicationContext context;
+    private DiagramService diagramService;
+
+    private DiagramModel diagram;
+    private DiagramProperties config;
+    private CompiledStyles styles;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = BenchmarkApplication.start();
+        diagramService = context.getBean(DiagramService.class);
+        ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+
+        diagram = diagramService.parseJsonModel(objectMapper.readTree(BenchmarkInputs.load(input, objectMapper)));
+        config = objectMapper.convertValue(diagramService.loadConfiguration(null), DiagramProperties.class);
+        config.getRendering().setParallel(parallel);
+        config.getRendering().setChunkSize(chunkSize);
+        styles = context.getBean(StyleService.class).applyStyles(diagram, config);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String renderTemplate() throws Exception {
+        return diagramService.renderTemplate(diagram, config, styles);
+    }
+}
@@ -11,7 +11,7 @@ public class ConverterApplication {
         // Disable web environment for CLI application
         System.setProperty("spring.main.web-application-type", "none");
         System.setProperty("spring.main.banner-mode", "off");
-        SpringApplication.run(ConverterApplication.class, args);
+        System.exit(SpringApplication.exit(SpringApplication.run(ConverterApplication.class, args)));
     }
 
 }
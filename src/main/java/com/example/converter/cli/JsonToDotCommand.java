@@ -1,24 +1,58 @@
 package com.example.converter.cli;
 
+import com.example.converter.config.ConfigurationLoader;
+import com.example.converter.config.DiagramProperties;
+import com.example.converter.core.DiagramConverter;
+import com.example.converter.diff.SchemaDiff;
+import com.example.converter.diff.SchemaDiffService;
+import com.example.converter.emit.EmitterService;
+import com.example.converter.focus.FocusService;
+import com.example.converter.incremental.IncrementalBuildService;
+import com.example.converter.metrics.ConversionMetrics;
+import com.example.converter.metrics.ConversionStage;
+import com.example.converter.partition.PartitionStrategy;
+import com.example.converter.partition.PartitionedDiagramService;
+import com.example.converter.server.ConversionServer;
+import com.example.converter.service.BatchConversionService;
+import com.example.converter.service.BatchConversionService.FileResult;
+import com.example.converter.service.BatchConversionService.FileTask;
 import com.example.converter.service.DiagramService;
+import com.example.converter.service.GraphvizService;
+import com.example.converter.service.RenderCache;
+import com.example.converter.service.RenderEngine;
+import com.example.converter.service.StreamingDiagramService;
+import com.example.converter.template.TemplateCache;
+import com.example.converter.util.Compression;
 import com.example.converter.util.FileUtils;
+import com.example.converter.util.SyntheticSchemaGenerator;
+import com.example.converter.watch.DiagramWatcher;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.ExitCodeGenerator;
 import org.springframework.stereotype.Component;
 import picocli.CommandLine;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Option;
 import picocli.CommandLine.Parameters;
 
-import java.io.File;
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Command-line interface for JSON to DOT conversion
@@ -30,14 +64,14 @@ import java.util.concurrent.Callable;
         mixinStandardHelpOptions = true,
         version = "1.0.0"
 )
-public class JsonToDotCommand implements CommandLineRunner, Callable<Integer> {
+public class JsonToDotCommand implements CommandLineRunner, ExitCodeGenerator, Callable<Integer> {
 
     private static final Logger logger = LoggerFactory.getLogger(JsonToDotCommand.class);
 
-    @Parameters(index = "0", description = "Input JSON file", arity = "0..1")
+    @Parameters(index = "0", description = "Input JSON file, or - for standard input", arity = "0..1")
     private String inputFile;
 
-    @Parameters(index = "1", description = "Output DOT file", arity = "0..1")
+    @Parameters(index = "1", description = "Output DOT file, or - for standard output; .gz and .zst files are compressed", arity = "0..1")
     private String outputFile;
 
     @Option(names = {"-c", "--config"}, description = "Custom configuration file (YAML)")
@@ -46,27 +80,186 @@ public class JsonToDotCommand implements CommandLineRunner, Callable<Integer> {
     @Option(names = {"--create-sample"}, description = "Create sample JSON and configuration files")
     private String samplePrefix;
 
+    @Option(names = {"--serve"}, description = "Run as a local conversion daemon instead of converting files")
+    private boolean serve;
+
+    @Option(names = {"--port"}, description = "Loopback port for --serve (0 picks a free port)", defaultValue = "8765")
+    private int port;
+
+    @Option(names = {"--serve-config-dir"}, paramLabel = "<dir>", description = "Directory of configuration files that --serve requests may name with config=<file>; without it, requests can only send config in the body")
+    private String serveConfigDir;
+
+    @Option(names = {"--watch"}, description = "Keep running and convert again when inputs, the config file or templates change")
+    private boolean watch;
+
+    @Option(names = {"--debounce"}, description = "Quiet period in milliseconds before rebuilding in watch mode", defaultValue = "200")
+    private long debounceMillis;
+
+    @Option(names = {"--template-dir"}, description = "Directory of .vm templates overriding the bundled ones by file name")
+    private String templateDir;
+
+    @Option(names = {"--incremental"}, description = "Skip inputs whose outputs are up to date, tracked by content hashes in a manifest next to the outputs")
+    private boolean incremental;
+
+    @Option(names = {"--stats"}, description = "Print a per-stage timing and counter breakdown")
+    private boolean stats;
+
+    @Option(names = {"--stats-json"}, paramLabel = "<file>", description = "Write the timing and counter breakdown as JSON")
+    private String statsJsonFile;
+
+    @Option(names = {"--generate"}, paramLabel = "<file>", description = "Write a synthetic JSON model to a file, shaped by the options below")
+    private String generateFile;
+
+    @Option(names = {"--entities"}, description = "Entities in a generated model", defaultValue = "1000")
+    private int syntheticEntities;
+
+    @Option(names = {"--fields-per-entity"}, description = "Fields per entity in a generated model", defaultValue = "8")
+    private int syntheticFields;
+
+    @Option(names = {"--relationship-density"}, description = "Average relationships per entity in a generated model", defaultValue = "1.5")
+    private double syntheticRelationshipDensity;
+
+    @Option(names = {"--special-sections"}, description = "Special sections per entity in a generated model", defaultValue = "2")
+    private int syntheticSpecialSections;
+
+    @Option(names = {"--constraints"}, description = "Constraints per entity in a generated model", defaultValue = "0")
+    private int syntheticConstraints;
+
+    @Option(names = {"--seed"}, description = "Random seed for a generated model", defaultValue = "42")
+    private long syntheticSeed;
+
     @Option(names = {"-v", "--verbose"}, description = "Enable verbose output")
     private boolean verbose;
 
-    @Option(names = {"-f", "--format"}, description = "Output format (png, svg, pdf)", defaultValue = "png")
-    private String format;
+    @Option(names = {"-f", "--format"}, split = ",", description = "Output formats, comma separated (png, svg, pdf), rendered from one layout", defaultValue = "png")
+    private List<String> formats;
+
+    @Option(names = {"--render-processes"}, description = "Maximum Graphviz processes running at once (default: available processors)")
+    private int renderProcesses = Runtime.getRuntime().availableProcessors();
+
+    @Option(names = {"--render-timeout"}, description = "Seconds a Graphviz layout may run before it is killed and retried with a faster engine, 0 for no limit", defaultValue = "300")
+    private long renderTimeout;
+
+    @Option(names = {"--layout-engine"}, description = "Graphviz layout engine (dot, neato, sfdp, auto); auto picks one from the diagram size", defaultValue = "dot")
+    private String layoutEngine;
+
+    @Option(names = {"--render-cache"}, description = "Copy images already rendered from identical DOT out of a disk cache instead of running Graphviz (off by default)")
+    private boolean renderCache;
+
+    @Option(names = {"--render-cache-dir"}, description = "Directory of the render cache (default: ${DEFAULT-VALUE})", defaultValue = "${sys:user.home}/.cache/json-to-dot/renders")
+    private String renderCacheDir;
+
+    @Option(names = {"--render-cache-size"}, description = "Maximum size of the render cache in MB before least recently used images are evicted (default: ${DEFAULT-VALUE})", defaultValue = "512")
+    private long renderCacheSizeMb;
 
     @Option(names = {"--render"}, description = "Automatically render diagram using Graphviz")
     private boolean autoRender;
 
+    @Option(names = {"--stream"}, description = "Stream entities from the input to the output without loading the whole model")
+    private boolean stream;
+
+    @Option(names = {"--partition"}, description = "Write one DOT file per part plus an index diagram, split by: ${COMPLETION-CANDIDATES}")
+    private PartitionStrategy partitionStrategy;
+
+    @Option(names = {"--max-partition-nodes"}, description = "Maximum entities per part; required with --partition size, splits larger parts otherwise", defaultValue = "0")
+    private int maxPartitionNodes;
+
+    @Option(names = {"--focus"}, split = ",", paramLabel = "<entityId>", description = "Only render the entities within --depth relationships of these entities, comma separated")
+    private List<String> focusIds = new ArrayList<>();
+
+    @Option(names = {"--depth"}, description = "Relationship hops around --focus entities or in --catalog diagrams", defaultValue = "1")
+    private int focusDepth;
+
+    @Option(names = {"--catalog"}, description = "Write one focused diagram per entity of the input into --output-dir")
+    private boolean catalog;
+
+    @Option(names = {"--emit"}, split = ",", paramLabel = "<emitter>", description = "Write these formats from one parse, in parallel, next to the output file: dot, mermaid, plantuml, graph-json")
+    private List<String> emitters = new ArrayList<>();
+
+    @Option(names = {"--diff"}, paramLabel = "<old.json>", description = "Render only what changed since this earlier version of the input, and write the change list beside the output")
+    private String diffBase;
+
+    @Option(names = {"--strict"}, description = "Fail when relationships or layout hints refer to unknown or duplicate entities, instead of logging a warning")
+    private boolean strict;
+
+    @Option(names = {"--parallel-render"}, description = "Render chunks of entities with the Velocity templates on the fork-join pool, joined in model order; the output is unchanged")
+    private boolean parallelRender;
+
+    @Option(names = {"--engine"}, description = "Rendering engine: ${COMPLETION-CANDIDATES} (default: ${DEFAULT-VALUE})", defaultValue = "velocity")
+    private RenderEngine engine;
+
+    @Option(names = {"--batch"}, paramLabel = "<dir|glob>", description = "Convert every JSON file in a directory or matching a glob (repeatable)")
+    private List<String> batchInputs = new ArrayList<>();
+
+    @Option(names = {"-o", "--output-dir"}, description = "Output root directory for batch mode")
+    private String outputDir;
+
+    @Option(names = {"-j", "--workers"}, description = "Parallel workers for batch mode, or concurrent conversions with --serve (default: available processors)")
+    private int workers = Runtime.getRuntime().availableProcessors();
+
+    @Option(names = {"--queue-size"}, description = "Maximum files waiting for a worker in batch mode, or requests waiting with --serve", defaultValue = "32")
+    private int queueSize;
+
+    @Autowired
+    private DiagramConverter diagramConverter;
+
     @Autowired
     private DiagramService diagramService;
 
+    @Autowired
+    private DiagramProperties diagramProperties;
+
+    @Autowired
+    private StreamingDiagramService streamingDiagramService;
+
+    @Autowired
+    private BatchConversionService batchConversionService;
+
+    @Autowired
+    private IncrementalBuildService incrementalBuildService;
+
+    @Autowired
+    private PartitionedDiagramService partitionedDiagramService;
+
+    @Autowired
+    private FocusService focusService;
+
+    @Autowired
+    private EmitterService emitterService;
+
+    @Autowired
+    private SchemaDiffService schemaDiffService;
+
+    @Autowired
+    private GraphvizService graphvizService;
+
+    @Autowired
+    private DiagramWatcher diagramWatcher;
+
+    @Autowired
+    private ConversionServer conversionServer;
+
+    @Autowired
+    private TemplateCache templateCache;
+
+    @Autowired
+    private ConversionMetrics conversionMetrics;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    private int exitCode;
+
     @Override
     public void run(String... args) {
-        int exitCode = new CommandLine(this).execute(args);
-        if (exitCode != 0) {
-            System.exit(exitCode);
-        }
+        exitCode = new CommandLine(this)
+                .setCaseInsensitiveEnumValuesAllowed(true)
+                .execute(args);
+    }
+
+    @Override
+    public int getExitCode() {
+        return exitCode;
     }
 
     @Override
@@ -76,13 +269,83 @@ public class JsonToDotCommand implements CommandLineRunner, Callable<Integer> {
                 return createSampleFiles(samplePrefix);
             }
 
+            if (generateFile != null) {
+                return generateSyntheticModel();
+            }
+
+            // Overrides go into a copy; the application defaults are shared and cached by identity
+            ConfigurationLoader configurationLoader = diagramService.getConfigurationLoader();
+            configurationLoader.setDefaults(strict || parallelRender
+                    ? configurationLoader.derive(diagramProperties, config -> {
+                        if (strict) {
+                            config.getValidation().setFailFast(true);
+                        }
+                        if (parallelRender) {
+                            config.getRendering().setParallel(true);
+                        }
+                    })
+                    : null);
+
+            if (templateDir != null) {
+                if (!Files.isDirectory(Paths.get(templateDir))) {
+                    System.err.println("Error: Template directory not found: " + templateDir);
+                    return 1;
+                }
+                templateCache.setTemplateDirectory(Paths.get(templateDir));
+            }
+
+            if (renderProcesses < 1) {
+                System.err.println("Error: --render-processes must be at least 1");
+                return 1;
+            }
+            if (renderTimeout < 0) {
+                System.err.println("Error: --render-timeout must not be negative");
+                return 1;
+            }
+            graphvizService.configure(new GraphvizService.Settings(renderProcesses, Duration.ofSeconds(renderTimeout), layoutEngine));
+
+            if ((autoRender || serve) && renderCache) {
+                if (renderCacheSizeMb < 1) {
+                    System.err.println("Error: --render-cache-size must be at least 1");
+                    return 1;
+                }
+                graphvizService.setRenderCache(RenderCache.open(Paths.get(renderCacheDir), renderCacheSizeMb * 1024 * 1024));
+            }
+
+            if (serve) {
+                return serve();
+            }
+
+            if (watch) {
+                return watchForChanges();
+            }
+
+            if (!batchInputs.isEmpty()) {
+                return reportStatistics(convertBatch());
+            }
+
+            if (catalog) {
+                return reportStatistics(convertCatalog());
+            }
+
             if (inputFile == null || outputFile == null) {
                 System.err.println("Error: Both input and output files must be specified");
                 CommandLine.usage(this, System.err);
                 return 1;
             }
 
-            return convertJsonToDot();
+            if (FileUtils.isStandardStream(outputFile)) {
+                // Standard output carries the DOT, so messages and logs go to standard error
+                PrintStream console = System.out;
+                System.setOut(System.err);
+                try {
+                    return reportStatistics(convertJsonToDot());
+                } finally {
+                    System.setOut(console);
+                }
+            }
+
+            return reportStatistics(convertJsonToDot());
 
         } catch (Exception e) {
             logger.error("Error during conversion", e);
@@ -92,8 +355,8 @@ public class JsonToDotCommand implements CommandLineRunner, Callable<Integer> {
     }
 
     private Integer convertJsonToDot() throws Exception {
-        // Validate input file
-        if (!FileUtils.isValidInputFile(inputFile)) {
+        // Validate input file; "-" reads standard input
+        if (!FileUtils.isStandardStream(inputFile) && !FileUtils.isValidInputFile(inputFile)) {
             System.err.println("Error: Input file not found or not readable: " + inputFile);
             return 1;
         }
@@ -106,7 +369,7 @@ public class JsonToDotCommand implements CommandLineRunner, Callable<Integer> {
         }
 
         if (verbose) {
-            System.out.println("Reading JSON from: " + FileUtils.getAbsolutePath(inputFile));
+            System.out.println("Reading JSON from: " + (FileUtils.isStandardStream(inputFile) ? "standard input" : FileUtils.getAbsolutePath(inputFile)));
             if (configFile != null) {
                 System.out.println("Using config file: " + FileUtils.getAbsolutePath(configFile));
             }
@@ -118,11 +381,41 @@ public class JsonToDotCommand implements CommandLineRunner, Callable<Integer> {
             return 1;
         }
 
-        // Read and parse JSON
-        JsonNode jsonData = objectMapper.readTree(new File(inputFile));
+        Compression compression = Compression.fromFileName(outputFile);
+        if (FileUtils.isStandardStream(inputFile) || FileUtils.isStandardStream(outputFile) || compression != Compression.NONE) {
+            return convertStreamed(compression);
+        }
+
+        if (partitionStrategy != null) {
+            return convertPartitioned();
+        }
+
+        if (diffBase != null) {
+            return convertDiff();
+        }
+
+        if (!focusIds.isEmpty()) {
+            return convertFocused();
+        }
+
+        if (!emitters.isEmpty()) {
+            return convertEmitted();
+        }
 
-        // Generate DOT content
-        String dotContent = diagramService.generateDotContent(jsonData, configFile);
+        if (incremental) {
+            return convertIncrementally();
+        }
+
+        // Read the JSON up front unless streaming, so a broken model fails before the output is opened
+        DiagramConverter converter = diagramConverter.withEngine(engine);
+        JsonNode model = null;
+        if (!stream) {
+            if (configFile != null || strict || parallelRender) {
+                converter = converter.withProperties(
+                        conversionMetrics.time(ConversionStage.LOAD_CONFIG, () -> diagramService.loadConfiguration(configFile)));
+            }
+            model = converter.readModel(Paths.get(inputFile));
+        }
 
         // Create parent directories safely
         if (!FileUtils.createParentDirectories(outputFile)) {
@@ -131,15 +424,27 @@ public class JsonToDotCommand implements CommandLineRunner, Callable<Integer> {
             }
         }
 
-        // Write the output file
+        // Write the output file; the DOT is rendered straight into it, so writing is part of the render stage
+        Path outputPath = Paths.get(outputFile);
         try {
-            Path outputPath = Paths.get(outputFile);
-            Files.write(outputPath, dotContent.getBytes());
+            try (Writer writer = Files.newBufferedWriter(outputPath, StandardCharsets.UTF_8)) {
+                if (stream) {
+                    streamingDiagramService.streamDotContent(Paths.get(inputFile), configFile, writer, engine);
+                } else {
+                    converter.convert(model, writer);
+                }
+            } catch (Exception e) {
+                // Leave no truncated file behind for a later step to pick up
+                Files.deleteIfExists(outputPath);
+                throw e;
+            }
+            conversionMetrics.recordBytesWritten(Files.size(outputPath));
             System.out.println("Successfully converted " + inputFile + " to " + outputFile);
 
             if (verbose) {
                 System.out.println("Output file size: " + Files.size(outputPath) + " bytes");
                 System.out.println("Absolute path: " + outputPath.toAbsolutePath());
+                printTemplateCacheStatistics();
             }
 
             // Auto-render if requested
@@ -148,8 +453,11 @@ public class JsonToDotCommand implements CommandLineRunner, Callable<Integer> {
             }
 
             // Show render command
-            String imageFile = FileUtils.changeFileExtension(outputFile, format);
-            System.out.println("To generate diagram, run: dot -T" + format + " " + outputFile + " -o " + imageFile);
+            StringBuilder renderCommand = new StringBuilder("dot");
+            for (String format : formats) {
+                renderCommand.append(" -T").append(format).append(" -o ").append(FileUtils.changeFileExtension(outputFile, format));
+            }
+            System.out.println("To generate diagram, run: " + renderCommand + " " + outputFile);
 
             return 0;
 
@@ -162,22 +470,491 @@ public class JsonToDotCommand implements CommandLineRunner, Callable<Integer> {
         }
     }
 
-    private Integer renderDiagram(Path dotFile) {
-        try {
-            String imageFile = dotFile.toString().replace(".dot", "." + format);
+    private Integer convertBatch() throws Exception {
+        if (outputDir == null) {
+            System.err.println("Error: --output-dir is required in batch mode");
+            return 1;
+        }
 
-            ProcessBuilder pb = new ProcessBuilder("dot", "-T" + format, dotFile.toString(), "-o", imageFile);
-            Process process = pb.start();
+        if (workers < 1) {
+            System.err.println("Error: --workers must be at least 1");
+            return 1;
+        }
 
-            int exitCode = process.waitFor();
-            if (exitCode == 0) {
-                System.out.println("Diagram rendered: " + imageFile);
-                return 0;
+        // Validate config file if provided
+        if (configFile != null && !FileUtils.isValidInputFile(configFile)) {
+            System.err.println("Error: Config file not found or not readable: " + configFile);
+            return 1;
+        }
+
+        List<FileTask> tasks = batchConversionService.resolveTasks(batchInputs, Paths.get(outputDir));
+        if (tasks.isEmpty()) {
+            System.err.println("Error: No input files matched " + batchInputs);
+            return 1;
+        }
+
+        if (verbose) {
+            System.out.println("Converting " + tasks.size() + " files with " + workers + " workers");
+        }
+
+        long start = System.nanoTime();
+        IncrementalBuildService.Session session = incremental
+                ? incrementalBuildService.open(Paths.get(outputDir), configFile, engine)
+                : null;
+        BatchConversionService.Options options = new BatchConversionService.Options(
+                configFile, stream, engine, autoRender ? formats : null, session);
+        List<FileResult> results = batchConversionService.convertAll(tasks, options, workers, queueSize, this::printBatchResult);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        long failed = results.stream().filter(result -> !result.success()).count();
+        long totalBytes = results.stream().mapToLong(FileResult::outputBytes).sum();
+        System.out.println("Converted " + (results.size() - failed) + " of " + results.size() + " files in "
+                + elapsedMillis + " ms (" + failed + " failed, " + totalBytes + " bytes written)");
+        if (session != null) {
+            finishIncremental(session);
+        }
+        if (verbose) {
+            printTemplateCacheStatistics();
+            printRenderCacheStatistics();
+        }
+
+        return failed == 0 ? 0 : 1;
+    }
+
+    /**
+     * Print and/or write the conversion statistics if requested, passing the exit code through
+     */
+    private int reportStatistics(int exitCode) {
+        if (!stats && statsJsonFile == null) {
+            return exitCode;
+        }
+
+        ConversionMetrics.Statistics statistics = conversionMetrics.getStatistics();
+        if (stats) {
+            printStatistics(statistics);
+        }
+        if (statsJsonFile != null) {
+            try {
+                Path statsPath = Paths.get(statsJsonFile);
+                FileUtils.createParentDirectories(statsPath);
+                objectMapper.writerWithDefaultPrettyPrinter().writeValue(statsPath.toFile(), statistics);
+                if (verbose) {
+                    System.out.println("Statistics written to " + statsPath);
+                }
+            } catch (Exception e) {
+                System.err.println("Error writing statistics file: " + e.getMessage());
+                return 1;
+            }
+        }
+        return exitCode;
+    }
+
+    private void printStatistics(ConversionMetrics.Statistics statistics) {
+        double totalMillis = statistics.stages().stream().mapToDouble(ConversionMetrics.StageStatistics::totalMillis).sum();
+
+        System.out.println();
+        System.out.printf("%-14s %7s %12s %10s %10s %7s%n", "Stage", "Count", "Total ms", "Mean ms", "Max ms", "Share");
+        for (ConversionMetrics.StageStatistics stage : statistics.stages()) {
+            if (stage.count() == 0) {
+                continue;
+            }
+            double share = totalMillis > 0 ? stage.totalMillis() * 100 / totalMillis : 0;
+            System.out.printf("%-14s %7d %12.1f %10.1f %10.1f %6.1f%%%n", stage.label(), stage.count(),
+                    stage.totalMillis(), stage.meanMillis(), stage.maxMillis(), share);
+        }
+        System.out.printf("%-14s %7s %12.1f%n", "Total", "", totalMillis);
+        System.out.println();
+        System.out.println("Entities: " + statistics.entities() + ", fields: " + statistics.fields()
+                + ", relationships: " + statistics.relationships() + ", bytes written: " + statistics.bytesWritten()
+                + ", template fallbacks: " + statistics.templateFallbacks());
+    }
+
+    private void printTemplateCacheStatistics() {
+        TemplateCache.Statistics statistics = templateCache.getStatistics();
+        System.out.println("Template cache: " + statistics.templates() + " templates, "
+                + statistics.hits() + " hits, " + statistics.misses() + " misses");
+        if (configFile != null) {
+            ConfigurationLoader.Statistics configStatistics = diagramService.getConfigurationLoader().getStatistics();
+            System.out.println("Configuration cache: " + configStatistics.files() + " files, "
+                    + configStatistics.hits() + " hits, " + configStatistics.misses() + " misses");
+        }
+    }
+
+    private void printRenderCacheStatistics() {
+        RenderCache renderCache = graphvizService.getRenderCache();
+        if (renderCache == null) {
+            return;
+        }
+        RenderCache.Statistics statistics = renderCache.getStatistics();
+        System.out.println("Render cache: " + statistics.hits() + " hits, " + statistics.misses() + " misses, "
+                + statistics.evictions() + " evicted, " + statistics.entries() + " images (" + statistics.bytes()
+                + " bytes) in " + renderCache.getDirectory());
+    }
+
+    private Integer serve() throws Exception {
+        if (serveConfigDir != null && !Files.isDirectory(Paths.get(serveConfigDir))) {
+            System.err.println("Error: Config directory not found: " + serveConfigDir);
+            return 1;
+        }
+        int boundPort = conversionServer.start(new ConversionServer.Settings(port, Math.max(1, workers), Math.max(0, queueSize),
+                engine, serveConfigDir != null ? Paths.get(serveConfigDir) : null));
+        System.out.println("Serving on http://127.0.0.1:" + boundPort + " (" + Math.max(1, workers)
+                + " concurrent conversions, " + Math.max(0, queueSize) + " queued), press Ctrl+C to stop");
+        System.out.println("  curl --data-binary @schema.json 'http://127.0.0.1:" + boundPort + "/convert?format=dot'");
+        conversionServer.awaitStop();
+        return 0;
+    }
+
+    private Integer watchForChanges() throws Exception {
+        DiagramWatcher.TaskResolver taskResolver;
+        if (!batchInputs.isEmpty()) {
+            if (outputDir == null) {
+                System.err.println("Error: --output-dir is required in batch mode");
+                return 1;
+            }
+            taskResolver = () -> batchConversionService.resolveTasks(batchInputs, Paths.get(outputDir));
+        } else if (inputFile != null && outputFile != null) {
+            FileTask task = new FileTask(Paths.get(inputFile), Paths.get(outputFile));
+            taskResolver = () -> List.of(task);
+        } else {
+            System.err.println("Error: Both input and output files must be specified");
+            CommandLine.usage(this, System.err);
+            return 1;
+        }
+
+        // Validate config file if provided
+        if (configFile != null && !FileUtils.isValidInputFile(configFile)) {
+            System.err.println("Error: Config file not found or not readable: " + configFile);
+            return 1;
+        }
+
+        BatchConversionService.Options options = new BatchConversionService.Options(
+                configFile, stream, engine, autoRender ? formats : null, null);
+        System.out.println("Watching for changes, press Ctrl+C to stop");
+        diagramWatcher.watch(taskResolver, options, debounceMillis, Math.max(1, workers), this::printRebuild);
+        return 0;
+    }
+
+    private void printRebuild(DiagramWatcher.Rebuild rebuild) {
+        rebuild.results().forEach(this::printBatchResult);
+        long failed = rebuild.results().stream().filter(result -> !result.success()).count();
+        System.out.println((rebuild.changedFiles().isEmpty() ? "Built " : "Rebuilt ") + rebuild.results().size()
+                + " diagrams in " + rebuild.elapsedMillis() + " ms" + (failed > 0 ? " (" + failed + " failed)" : ""));
+        if (verbose && !rebuild.changedFiles().isEmpty()) {
+            System.out.println("  Changed: " + rebuild.changedFiles());
+        }
+    }
+
+    /**
+     * Convert from standard input, or to standard output or a compressed file. The DOT is rendered
+     * straight into the output and compressed as it is written, without a temporary file or string;
+     * with --stream the model is also read as it is rendered. A failed conversion deletes the partial
+     * output file.
+     */
+    private Integer convertStreamed(Compression compression) throws Exception {
+        if (partitionStrategy != null || diffBase != null || !focusIds.isEmpty() || !emitters.isEmpty() || incremental) {
+            System.err.println("Error: Standard input, standard output and compressed output cannot be combined with "
+                    + "--partition, --diff, --focus, --emit or --incremental");
+            return 1;
+        }
+        boolean toStandardOutput = FileUtils.isStandardStream(outputFile);
+        if (autoRender && (toStandardOutput || compression != Compression.NONE)) {
+            System.err.println("Error: --render needs an uncompressed output file");
+            return 1;
+        }
+        if (!toStandardOutput && !FileUtils.createParentDirectories(outputFile) && verbose) {
+            System.out.println("Warning: Could not create parent directories for " + outputFile);
+        }
+
+        boolean fromStandardInput = FileUtils.isStandardStream(inputFile);
+        try {
+            if (stream) {
+                // Entities are written while they are rendered, so writing is part of the render stage
+                try (Writer writer = new BufferedWriter(new OutputStreamWriter(compression.open(outputFile), StandardCharsets.UTF_8))) {
+                    if (fromStandardInput) {
+                        streamingDiagramService.streamDotContent(System.in, configFile, writer, engine);
+                    } else {
+                        streamingDiagramService.streamDotContent(Paths.get(inputFile), configFile, writer, engine);
+                    }
+                }
             } else {
-                System.err.println("Error: Graphviz rendering failed with exit code " + exitCode);
+                DiagramConverter converter = diagramConverter.withEngine(engine);
+                if (configFile != null || strict || parallelRender) {
+                    converter = converter.withProperties(
+                            conversionMetrics.time(ConversionStage.LOAD_CONFIG, () -> diagramService.loadConfiguration(configFile)));
+                }
+                JsonNode model = fromStandardInput ? converter.readModel(System.in) : converter.readModel(Paths.get(inputFile));
+                // Rendered straight into the (compressing) output, so writing is counted in the render stage
+                try (Writer writer = new BufferedWriter(new OutputStreamWriter(compression.open(outputFile), StandardCharsets.UTF_8))) {
+                    converter.convert(model, writer);
+                }
+            }
+        } catch (Exception e) {
+            // Leave no truncated file behind for a later step to pick up
+            if (!toStandardOutput && Files.deleteIfExists(Paths.get(outputFile)) && verbose) {
+                System.err.println("Deleted incomplete output " + outputFile);
+            }
+            throw e;
+        }
+
+        if (!toStandardOutput) {
+            Path outputPath = Paths.get(outputFile);
+            conversionMetrics.recordBytesWritten(Files.size(outputPath));
+            System.out.println("Successfully converted " + (fromStandardInput ? "standard input" : inputFile) + " to " + outputFile
+                    + (compression != Compression.NONE ? " (" + compression.name().toLowerCase(Locale.ROOT) + ")" : ""));
+            if (verbose) {
+                System.out.println("Output file size: " + Files.size(outputPath) + " bytes");
+            }
+        }
+        if (verbose) {
+            printTemplateCacheStatistics();
+        }
+        return 0;
+    }
+
+    /**
+     * Convert only the neighbourhood of the focus entities
+     */
+    private Integer convertFocused() throws Exception {
+        if (stream || incremental) {
+            System.err.println("Error: --focus cannot be combined with --stream or --incremental");
+            return 1;
+        }
+        if (focusDepth < 0) {
+            System.err.println("Error: --depth must not be negative");
+            return 1;
+        }
+
+        FocusService.Options options = new FocusService.Options(configFile, engine, focusDepth, autoRender ? formats : null);
+        List<Path> images;
+        try {
+            images = focusService.convert(Paths.get(inputFile), Paths.get(outputFile), focusIds, options);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            return 1;
+        }
+        System.out.println("Successfully converted " + inputFile + " to " + outputFile + " (focus: "
+                + String.join(", ", focusIds) + ", depth " + focusDepth + ")");
+        for (Path imageFile : images) {
+            System.out.println("Diagram rendered: " + imageFile);
+        }
+        if (autoRender && verbose) {
+            printRenderCacheStatistics();
+        }
+        return 0;
+    }
+
+    /**
+     * Write the diagram of the changes since the --diff version and the change list; with --render the diagram is also rendered
+     */
+    private Integer convertDiff() throws Exception {
+        if (stream || incremental || !focusIds.isEmpty() || !emitters.isEmpty()) {
+            System.err.println("Error: --diff cannot be combined with --stream, --incremental, --focus or --emit");
+            return 1;
+        }
+        if (!FileUtils.isValidInputFile(diffBase)) {
+            System.err.println("Error: Input file not found or not readable: " + diffBase);
+            return 1;
+        }
+
+        SchemaDiffService.Result result;
+        try {
+            result = schemaDiffService.diff(Paths.get(diffBase), Paths.get(inputFile), Paths.get(outputFile), configFile, engine);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            return 1;
+        }
+        SchemaDiff.Changes changes = result.changes();
+        System.out.println("Successfully compared " + diffBase + " with " + inputFile + ": "
+                + changes.count(SchemaDiff.ChangeType.ADDED) + " added, "
+                + changes.count(SchemaDiff.ChangeType.REMOVED) + " removed, "
+                + changes.count(SchemaDiff.ChangeType.MODIFIED) + " modified entities, "
+                + changes.relationships().size() + " changed relationships");
+        System.out.println("Diagram written to: " + result.dotFile());
+        System.out.println("Changes written to: " + result.changesFile());
+
+        if (autoRender && !changes.isEmpty()) {
+            return renderDiagram(result.dotFile());
+        }
+        return 0;
+    }
+
+    /**
+     * Write the input in several formats from a single parse; with --render the DOT output is also rendered
+     */
+    private Integer convertEmitted() throws Exception {
+        if (stream || incremental) {
+            System.err.println("Error: --emit cannot be combined with --stream or --incremental");
+            return 1;
+        }
+
+        List<EmitterService.Output> outputs;
+        try {
+            outputs = emitterService.emit(Paths.get(inputFile), Paths.get(outputFile), emitters, configFile, engine);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            return 1;
+        }
+        for (EmitterService.Output output : outputs) {
+            System.out.println("Successfully converted " + inputFile + " to " + output.file() + " (" + output.emitter() + ")");
+        }
+
+        if (autoRender) {
+            for (EmitterService.Output output : outputs) {
+                if ("dot".equals(output.emitter())) {
+                    return renderDiagram(output.file());
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Write one focused diagram per entity of the input, generated and rendered in parallel
+     */
+    private Integer convertCatalog() throws Exception {
+        if (inputFile == null || outputDir == null) {
+            System.err.println("Error: --catalog needs an input file and --output-dir");
+            return 1;
+        }
+        if (!FileUtils.isValidInputFile(inputFile)) {
+            System.err.println("Error: Input file not found or not readable: " + inputFile);
+            return 1;
+        }
+        if (configFile != null && !FileUtils.isValidInputFile(configFile)) {
+            System.err.println("Error: Config file not found or not readable: " + configFile);
+            return 1;
+        }
+        if (workers < 1 || focusDepth < 0) {
+            System.err.println("Error: --workers must be at least 1 and --depth must not be negative");
+            return 1;
+        }
+
+        long start = System.nanoTime();
+        FocusService.Options options = new FocusService.Options(configFile, engine, focusDepth, autoRender ? formats : null);
+        List<FocusService.CatalogEntry> entries = focusService.catalog(Paths.get(inputFile), Paths.get(outputDir), options, workers,
+                entry -> {
+                    if (verbose) {
+                        printCatalogEntry(entry);
+                    }
+                });
+        System.out.println("Wrote " + entries.size() + " focused diagrams to " + outputDir + " in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+        if (autoRender && verbose) {
+            printRenderCacheStatistics();
+        }
+        return 0;
+    }
+
+    private synchronized void printCatalogEntry(FocusService.CatalogEntry entry) {
+        System.out.println("  OK    " + entry.entityId() + " -> " + entry.dotFile()
+                + (entry.imageFiles().isEmpty() ? "" : " " + entry.imageFiles()));
+    }
+
+    /**
+     * Convert one file into an index diagram and one diagram per part, rendering them in parallel
+     */
+    private Integer convertPartitioned() throws Exception {
+        if (stream || incremental || diffBase != null || !focusIds.isEmpty() || !emitters.isEmpty()) {
+            System.err.println("Error: --partition cannot be combined with --stream, --incremental, --diff, --focus or --emit");
+            return 1;
+        }
+        if (partitionStrategy == PartitionStrategy.SIZE && maxPartitionNodes < 1) {
+            System.err.println("Error: --partition size requires --max-partition-nodes");
+            return 1;
+        }
+
+        PartitionedDiagramService.Options options = new PartitionedDiagramService.Options(configFile, engine,
+                partitionStrategy, Math.max(0, maxPartitionNodes), formats.contains("svg") ? "svg" : null);
+        PartitionedDiagramService.Result result = partitionedDiagramService.convert(Paths.get(inputFile), Paths.get(outputFile), options);
+        System.out.println("Successfully converted " + inputFile + " to " + outputFile + " and "
+                + result.partFiles().size() + " parts (" + result.partitioning().links().size() + " links between parts)");
+        if (verbose) {
+            for (Path partFile : result.partFiles()) {
+                System.out.println("  Part: " + partFile);
+            }
+        }
+
+        if (autoRender) {
+            try {
+                for (Path imageFile : partitionedDiagramService.render(result, formats)) {
+                    System.out.println("Diagram rendered: " + imageFile);
+                }
+            } catch (Exception e) {
+                System.err.println("Error rendering diagram: " + e.getMessage());
                 System.err.println("Make sure Graphviz is installed and 'dot' command is available");
                 return 1;
             }
+            if (verbose) {
+                printRenderCacheStatistics();
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Convert one file through the incremental manifest in the output's directory
+     */
+    private Integer convertIncrementally() throws Exception {
+        Path outputPath = Paths.get(outputFile);
+        IncrementalBuildService.Session session = incrementalBuildService.open(
+                outputPath.toAbsolutePath().getParent(), configFile, engine);
+        BatchConversionService.Options options = new BatchConversionService.Options(
+                configFile, stream, engine, autoRender ? formats : null, session);
+
+        FileResult result = batchConversionService.convert(new FileTask(Paths.get(inputFile), outputPath), options);
+        if (!result.success()) {
+            System.err.println("Error: " + result.error());
+            return 1;
+        }
+
+        if (result.skipped()) {
+            System.out.println("Up to date: " + outputFile);
+        } else {
+            System.out.println("Successfully converted " + inputFile + " to " + outputFile);
+            if (autoRender) {
+                for (Path imageFile : GraphvizService.imageFiles(outputPath, formats)) {
+                    System.out.println("Diagram rendered: " + imageFile);
+                }
+            }
+        }
+        finishIncremental(session);
+        return 0;
+    }
+
+    /**
+     * Delete outputs of vanished inputs, save the manifest and report what was rebuilt
+     */
+    private void finishIncremental(IncrementalBuildService.Session session) throws Exception {
+        int staleOutputs = session.removeStaleOutputs();
+        session.save();
+        System.out.println("Incremental: " + session.getRebuilt() + " rebuilt, " + session.getSkipped() + " skipped, "
+                + staleOutputs + " stale outputs removed");
+    }
+
+    private synchronized void printBatchResult(FileResult result) {
+        FileTask task = result.task();
+        if (result.skipped()) {
+            if (verbose) {
+                System.out.println("  SKIP  " + task.input() + " (up to date)");
+            }
+        } else if (result.success()) {
+            System.out.println("  OK    " + task.input() + " -> " + task.output()
+                    + " (" + result.outputBytes() + " bytes, " + result.elapsedMillis() + " ms)");
+        } else {
+            System.err.println("  FAIL  " + task.input() + ": " + result.error());
+        }
+    }
+
+    private Integer renderDiagram(Path dotFile) {
+        try {
+            for (Path imageFile : graphvizService.render(dotFile, formats)) {
+                System.out.println("Diagram rendered: " + imageFile);
+            }
+            if (verbose) {
+                printRenderCacheStatistics();
+            }
+            return 0;
 
         } catch (Exception e) {
             System.err.println("Error rendering diagram: " + e.getMessage());
@@ -186,6 +963,19 @@ public class JsonToDotCommand implements CommandLineRunner, Callable<Integer> {
         }
     }
 
+    private Integer generateSyntheticModel() throws Exception {
+        SyntheticSchemaGenerator.Parameters parameters = new SyntheticSchemaGenerator.Parameters(
+                syntheticEntities, syntheticFields, syntheticRelationshipDensity,
+                syntheticSpecialSections, syntheticConstraints, syntheticSeed);
+
+        Path outputPath = Paths.get(generateFile);
+        SyntheticSchemaGenerator.write(parameters, outputPath);
+
+        System.out.println("Synthetic model written: " + outputPath + " (" + parameters.entities() + " entities, "
+                + Files.size(outputPath) + " bytes)");
+        return 0;
+    }
+
     private Integer createSampleFiles(String prefix) throws Exception {
         // Create sample JSON
         String sampleJson = """
@@ -267,8 +1057,8 @@ public class JsonToDotCommand implements CommandLineRunner, Callable<Integer> {
         String jsonFile = prefix + "_sample.json";
         String configFile = prefix + "_config.yaml";
 
-        Files.write(Paths.get(jsonFile), sampleJson.getBytes());
-        Files.write(Paths.get(configFile), sampleConfig.getBytes());
+        Files.writeString(Paths.get(jsonFile), sampleJson, StandardCharsets.UTF_8);
+        Files.writeString(Paths.get(configFile), sampleConfig, StandardCharsets.UTF_8);
 
         System.out.println("Sample files created:");
         System.out.println("  JSON model: " + jsonFile);
@@ -0,0 +1,29 @@
+package com.example.converter.config;
+
+/**
+ * Base of the configuration classes. Once frozen a section rejects changes, so a configuration
+ * shared between conversions, and cached by identity, can never change under them.
+ */
+abstract class ConfigSection {
+
+    private boolean frozen;
+
+    /**
+     * Reject changes from now on; sections holding other sections freeze those as well
+     */
+    void makeReadOnly() {
+        frozen = true;
+    }
+
+    protected void checkNotFrozen() {
+        if (frozen) {
+            throw new UnsupportedOperationException("Configuration is read-only; change a copy instead");
+        }
+    }
+
+    static void makeReadOnly(ConfigSection section) {
+        if (section != null) {
+            section.makeReadOnly();
+        }
+    }
+}
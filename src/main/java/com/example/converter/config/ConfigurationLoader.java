@@ -0,0 +1,239 @@
+package com.example.converter.config;
+
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Loads custom configuration files over the application defaults.
+ * A custom file uses the application.yaml layout, with its keys in kebab, snake or camel case.
+ * It is deep-merged into the defaults: nested settings, the node defaults and the per-entity
+ * styles are merged key by key, so a file only needs the values it changes. The merged
+ * configuration is frozen and cached by path, modification time and size, so repeated loads
+ * of an unchanged file return the same instance, and its style tables are compiled once.
+ * Overrides such as command line options go into a {@link #derive derived} copy of the
+ * defaults, never into the shared instance.
+ */
+@Component
+public class ConfigurationLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConfigurationLoader.class);
+
+    private final DiagramProperties applicationDefaults;
+    private volatile DiagramProperties defaults;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private final ObjectMapper yamlMapper = new ObjectMapper(new YAMLFactory());
+
+    private final Map<Path, Loaded> cache = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Hit and miss counts of the cache
+     */
+    public record Statistics(long hits, long misses, int files) {
+    }
+
+    private record Stamp(FileTime lastModified, long size) {
+    }
+
+    private record Loaded(Stamp stamp, DiagramProperties config) {
+    }
+
+    public ConfigurationLoader(DiagramProperties defaults) {
+        this.applicationDefaults = defaults.freeze();
+        this.defaults = applicationDefaults;
+    }
+
+    /**
+     * The configuration files are merged over, and used when there is no file
+     */
+    public DiagramProperties getDefaults() {
+        return defaults;
+    }
+
+    /**
+     * Merge files over the given configuration instead of the application defaults, or over the
+     * application defaults again with null. Files loaded over the previous defaults are forgotten.
+     */
+    public void setDefaults(DiagramProperties defaults) {
+        DiagramProperties next = defaults != null ? defaults.freeze() : applicationDefaults;
+        if (next != this.defaults) {
+            this.defaults = next;
+            cache.clear();
+        }
+    }
+
+    /**
+     * A frozen copy of a configuration with changes applied, such as command line overrides.
+     * The original is left as it is, so anything cached for it stays valid.
+     */
+    public DiagramProperties derive(DiagramProperties base, Consumer<DiagramProperties> changes) {
+        DiagramProperties copy;
+        try {
+            copy = objectMapper.treeToValue(objectMapper.valueToTree(base), DiagramProperties.class);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not copy the configuration", e);
+        }
+        changes.accept(copy);
+        return copy.freeze();
+    }
+
+    /**
+     * The effective configuration for a custom file, merged on first use and again only after the file changes.
+     * Files are merged over the current {@link #getDefaults() defaults}.
+     */
+    public DiagramProperties load(Path configFile) throws IOException {
+        Path path = configFile.toAbsolutePath().normalize();
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        Stamp stamp = new Stamp(attributes.lastModifiedTime(), attributes.size());
+
+        Loaded cached = cache.get(path);
+        if (cached != null && cached.stamp().equals(stamp)) {
+            hits.increment();
+            return cached.config();
+        }
+        try {
+            // Concurrent loads of the same file wait for one merge
+            return cache.compute(path, (key, current) -> {
+                if (current != null && current.stamp().equals(stamp)) {
+                    hits.increment();
+                    return current;
+                }
+                try {
+                    return new Loaded(stamp, merge(key));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).config();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * The effective configuration for custom settings given as a tree rather than a file, such
+     * as settings sent with a server request. Trees are not cached; every call merges again.
+     */
+    public DiagramProperties load(JsonNode custom) throws IOException {
+        if (custom == null || custom.isNull()) {
+            return defaults;
+        }
+        if (!custom.isObject()) {
+            throw new IOException("Expected an object of configuration settings");
+        }
+        return mergeOverDefaults(custom);
+    }
+
+    /**
+     * Forget all loaded files
+     */
+    public void invalidate() {
+        cache.clear();
+    }
+
+    /**
+     * Current hit and miss counts
+     */
+    public Statistics getStatistics() {
+        return new Statistics(hits.sum(), misses.sum(), cache.size());
+    }
+
+    private DiagramProperties merge(Path path) throws IOException {
+        misses.increment();
+        logger.info("Loading custom configuration from: {}", path);
+
+        JsonNode custom = yamlMapper.readTree(path.toFile());
+        if (custom == null || custom.isMissingNode() || custom.isNull()) {
+            custom = objectMapper.createObjectNode();
+        } else if (!custom.isObject()) {
+            throw new IOException("Expected a YAML mapping at the top level of " + path);
+        }
+        return mergeOverDefaults(custom);
+    }
+
+    private DiagramProperties mergeOverDefaults(JsonNode custom) throws IOException {
+        JsonNode diagramConfig = custom.has("diagram") ? custom.get("diagram") : custom;
+
+        JavaType type = objectMapper.constructType(DiagramProperties.class);
+        ObjectNode merged = objectMapper.valueToTree(defaults);
+        mergeInto(merged, canonical(diagramConfig, type, "diagram"));
+        return objectMapper.treeToValue(merged, DiagramProperties.class).freeze();
+    }
+
+    /**
+     * Rename the keys of a custom tree to the property names of the given type, leaving map keys as written
+     */
+    private JsonNode canonical(JsonNode node, JavaType type, String path) {
+        if (!node.isObject()) {
+            return node;
+        }
+        ObjectNode result = objectMapper.createObjectNode();
+        if (type.isMapLikeType()) {
+            node.fields().forEachRemaining(field -> result.set(field.getKey(),
+                    canonical(field.getValue(), type.getContentType(), path + "." + field.getKey())));
+            return result;
+        }
+
+        BeanDescription description = objectMapper.getDeserializationConfig().introspect(type);
+        Map<String, BeanPropertyDefinition> properties = new HashMap<>();
+        for (BeanPropertyDefinition property : description.findProperties()) {
+            properties.put(normalize(property.getName()), property);
+        }
+        for (Iterator<Map.Entry<String, JsonNode>> fields = node.fields(); fields.hasNext(); ) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            BeanPropertyDefinition property = properties.get(normalize(field.getKey()));
+            if (property == null) {
+                logger.warn("Ignoring unknown configuration key {}.{}", path, field.getKey());
+                continue;
+            }
+            result.set(property.getName(), canonical(field.getValue(), property.getPrimaryType(), path + "." + property.getName()));
+        }
+        return result;
+    }
+
+    /**
+     * Merge objects key by key; any other custom value replaces the default, and null keeps it
+     */
+    private static void mergeInto(ObjectNode target, JsonNode overlay) {
+        overlay.fields().forEachRemaining(field -> {
+            JsonNode current = target.get(field.getKey());
+            JsonNode value = field.getValue();
+            if (value.isNull()) {
+                return;
+            }
+            if (current instanceof ObjectNode currentObject && value.isObject()) {
+                mergeInto(currentObject, value);
+            } else {
+                target.set(field.getKey(), value);
+            }
+        });
+    }
+
+    private static String normalize(String key) {
+        return key.replace("-", "").replace("_", "").toLowerCase(Locale.ROOT);
+    }
+}
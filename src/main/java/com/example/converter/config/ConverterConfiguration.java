@@ -0,0 +1,23 @@
+package com.example.converter.config;
+
+import com.example.converter.core.DiagramConverter;
+import com.example.converter.metrics.ConversionMetrics;
+import com.example.converter.service.DiagramService;
+import com.example.converter.service.RenderEngine;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Exposes the embeddable {@link DiagramConverter} on the application's services, so the
+ * command line and the daemon share one template cache and one set of meters
+ */
+@Configuration
+public class ConverterConfiguration {
+
+    @Bean
+    public DiagramConverter diagramConverter(DiagramService diagramService, ConversionMetrics conversionMetrics,
+                                             ObjectMapper objectMapper, DiagramProperties diagramProperties) {
+        return new DiagramConverter(diagramService, conversionMetrics, objectMapper, diagramProperties, RenderEngine.VELOCITY);
+    }
+}
@@ -4,15 +4,18 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.NestedConfigurationProperty;
 import org.springframework.stereotype.Component;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
- * Configuration properties for diagram generation
+ * Configuration properties for diagram generation. The application defaults and every
+ * configuration merged from a file are frozen, and their setters throw.
  */
 @Component
 @ConfigurationProperties(prefix = "diagram")
-public class DiagramProperties {
+public class DiagramProperties extends ConfigSection {
 
     @NestedConfigurationProperty
     private Settings settings = new Settings();
@@ -23,20 +26,51 @@ public class DiagramProperties {
     @NestedConfigurationProperty
     private Styles styles = new Styles();
 
+    @NestedConfigurationProperty
+    private Validation validation = new Validation();
+
+    @NestedConfigurationProperty
+    private Rendering rendering = new Rendering();
+
     // Getters and setters
     public Settings getSettings() { return settings; }
-    public void setSettings(Settings settings) { this.settings = settings; }
+    public void setSettings(Settings settings) { checkNotFrozen(); this.settings = settings; }
 
     public Templates getTemplates() { return templates; }
-    public void setTemplates(Templates templates) { this.templates = templates; }
+    public void setTemplates(Templates templates) { checkNotFrozen(); this.templates = templates; }
 
     public Styles getStyles() { return styles; }
-    public void setStyles(Styles styles) { this.styles = styles; }
+    public void setStyles(Styles styles) { checkNotFrozen(); this.styles = styles; }
+
+    public Validation getValidation() { return validation; }
+    public void setValidation(Validation validation) { checkNotFrozen(); this.validation = validation; }
+
+    public Rendering getRendering() { return rendering; }
+    public void setRendering(Rendering rendering) { checkNotFrozen(); this.rendering = rendering; }
+
+    /**
+     * Make this configuration and everything in it read-only, returning it. Copy a frozen
+     * configuration to change it.
+     */
+    public DiagramProperties freeze() {
+        makeReadOnly();
+        return this;
+    }
+
+    @Override
+    void makeReadOnly() {
+        super.makeReadOnly();
+        makeReadOnly(settings);
+        makeReadOnly(templates);
+        makeReadOnly(styles);
+        makeReadOnly(validation);
+        makeReadOnly(rendering);
+    }
 
     /**
      * Diagram settings
      */
-    public static class Settings {
+    public static class Settings extends ConfigSection {
         private String rankdir = "TB";
         private Map<String, String> nodeDefaults = new HashMap<String, String>() {{
             put("fontname", "Arial");
@@ -45,19 +79,28 @@ public class DiagramProperties {
         private TableSettings tableSettings = new TableSettings();
 
         public String getRankdir() { return rankdir; }
-        public void setRankdir(String rankdir) { this.rankdir = rankdir; }
+        public void setRankdir(String rankdir) { checkNotFrozen(); this.rankdir = rankdir; }
 
         public Map<String, String> getNodeDefaults() { return nodeDefaults; }
-        public void setNodeDefaults(Map<String, String> nodeDefaults) { this.nodeDefaults = nodeDefaults; }
+        public void setNodeDefaults(Map<String, String> nodeDefaults) { checkNotFrozen(); this.nodeDefaults = nodeDefaults; }
 
         public TableSettings getTableSettings() { return tableSettings; }
-        public void setTableSettings(TableSettings tableSettings) { this.tableSettings = tableSettings; }
+        public void setTableSettings(TableSettings tableSettings) { checkNotFrozen(); this.tableSettings = tableSettings; }
+
+        @Override
+        void makeReadOnly() {
+            super.makeReadOnly();
+            if (nodeDefaults != null) {
+                nodeDefaults = Collections.unmodifiableMap(new LinkedHashMap<>(nodeDefaults));
+            }
+            makeReadOnly(tableSettings);
+        }
     }
 
     /**
      * Table formatting settings
      */
-    public static class TableSettings {
+    public static class TableSettings extends ConfigSection {
         private String border = "2";
         private String cellBorder = "1";
         private String cellSpacing = "0";
@@ -65,63 +108,97 @@ public class DiagramProperties {
         private String separatorHeight = "2";
 
         public String getBorder() { return border; }
-        public void setBorder(String border) { this.border = border; }
+        public void setBorder(String border) { checkNotFrozen(); this.border = border; }
 
         public String getCellBorder() { return cellBorder; }
-        public void setCellBorder(String cellBorder) { this.cellBorder = cellBorder; }
+        public void setCellBorder(String cellBorder) { checkNotFrozen(); this.cellBorder = cellBorder; }
 
         public String getCellSpacing() { return cellSpacing; }
-        public void setCellSpacing(String cellSpacing) { this.cellSpacing = cellSpacing; }
+        public void setCellSpacing(String cellSpacing) { checkNotFrozen(); this.cellSpacing = cellSpacing; }
 
         public String getCellPadding() { return cellPadding; }
-        public void setCellPadding(String cellPadding) { this.cellPadding = cellPadding; }
+        public void setCellPadding(String cellPadding) { checkNotFrozen(); this.cellPadding = cellPadding; }
 
         public String getSeparatorHeight() { return separatorHeight; }
-        public void setSeparatorHeight(String separatorHeight) { this.separatorHeight = separatorHeight; }
+        public void setSeparatorHeight(String separatorHeight) { checkNotFrozen(); this.separatorHeight = separatorHeight; }
     }
 
     /**
      * Template configuration
      */
-    public static class Templates {
+    public static class Templates extends ConfigSection {
         private String basePath = "classpath:/templates/";
-        private String entityTemplate = "entity.vm";
-        private String relationshipTemplate = "relationship.vm";
-        private String mainTemplate = "diagram.vm";
+        private String entityTemplate = "templates/entity.vm";
+        private String relationshipTemplate = "templates/relationship.vm";
+        private String mainTemplate = "templates/diagram.vm";
 
         public String getBasePath() { return basePath; }
-        public void setBasePath(String basePath) { this.basePath = basePath; }
+        public void setBasePath(String basePath) { checkNotFrozen(); this.basePath = basePath; }
 
         public String getEntityTemplate() { return entityTemplate; }
-        public void setEntityTemplate(String entityTemplate) { this.entityTemplate = entityTemplate; }
+        public void setEntityTemplate(String entityTemplate) { checkNotFrozen(); this.entityTemplate = entityTemplate; }
 
         public String getRelationshipTemplate() { return relationshipTemplate; }
-        public void setRelationshipTemplate(String relationshipTemplate) { this.relationshipTemplate = relationshipTemplate; }
+        public void setRelationshipTemplate(String relationshipTemplate) { checkNotFrozen(); this.relationshipTemplate = relationshipTemplate; }
 
         public String getMainTemplate() { return mainTemplate; }
-        public void setMainTemplate(String mainTemplate) { this.mainTemplate = mainTemplate; }
+        public void setMainTemplate(String mainTemplate) { checkNotFrozen(); this.mainTemplate = mainTemplate; }
+    }
+
+    /**
+     * Model validation settings
+     */
+    public static class Validation extends ConfigSection {
+        private boolean failFast = false;
+
+        public boolean isFailFast() { return failFast; }
+        public void setFailFast(boolean failFast) { checkNotFrozen(); this.failFast = failFast; }
+    }
+
+    /**
+     * Template rendering settings
+     */
+    public static class Rendering extends ConfigSection {
+        private boolean parallel = false;
+        private int chunkSize = 16;
+
+        public boolean isParallel() { return parallel; }
+        public void setParallel(boolean parallel) { checkNotFrozen(); this.parallel = parallel; }
+
+        public int getChunkSize() { return chunkSize; }
+        public void setChunkSize(int chunkSize) { checkNotFrozen(); this.chunkSize = chunkSize; }
     }
 
     /**
      * Style configuration
      */
-    public static class Styles {
+    public static class Styles extends ConfigSection {
         @NestedConfigurationProperty
         private StyleDefinition defaultStyles = new StyleDefinition();
 
         private Map<String, StyleDefinition> entities = new HashMap<>();
 
         public StyleDefinition getDefault() { return defaultStyles; }
-        public void setDefault(StyleDefinition defaultStyles) { this.defaultStyles = defaultStyles; }
+        public void setDefault(StyleDefinition defaultStyles) { checkNotFrozen(); this.defaultStyles = defaultStyles; }
 
         public Map<String, StyleDefinition> getEntities() { return entities; }
-        public void setEntities(Map<String, StyleDefinition> entities) { this.entities = entities; }
+        public void setEntities(Map<String, StyleDefinition> entities) { checkNotFrozen(); this.entities = entities; }
+
+        @Override
+        void makeReadOnly() {
+            super.makeReadOnly();
+            makeReadOnly(defaultStyles);
+            if (entities != null) {
+                entities.values().forEach(style -> makeReadOnly(style));
+                entities = Collections.unmodifiableMap(new LinkedHashMap<>(entities));
+            }
+        }
     }
 
     /**
      * Style definition for entities
      */
-    public static class StyleDefinition {
+    public static class StyleDefinition extends ConfigSection {
         @NestedConfigurationProperty
         private StyleSection header = new StyleSection();
 
@@ -145,31 +222,43 @@ public class DiagramProperties {
 
         // Getters and setters
         public StyleSection getHeader() { return header; }
-        public void setHeader(StyleSection header) { this.header = header; }
+        public void setHeader(StyleSection header) { checkNotFrozen(); this.header = header; }
 
         public StyleSection getBody() { return body; }
-        public void setBody(StyleSection body) { this.body = body; }
+        public void setBody(StyleSection body) { checkNotFrozen(); this.body = body; }
 
         public StyleSection getSeparator() { return separator; }
-        public void setSeparator(StyleSection separator) { this.separator = separator; }
+        public void setSeparator(StyleSection separator) { checkNotFrozen(); this.separator = separator; }
 
         public StyleSection getMandatory() { return mandatory; }
-        public void setMandatory(StyleSection mandatory) { this.mandatory = mandatory; }
+        public void setMandatory(StyleSection mandatory) { checkNotFrozen(); this.mandatory = mandatory; }
 
         public StyleSection getSpecialSection() { return specialSection; }
-        public void setSpecialSection(StyleSection specialSection) { this.specialSection = specialSection; }
+        public void setSpecialSection(StyleSection specialSection) { checkNotFrozen(); this.specialSection = specialSection; }
 
         public StyleSection getConstraint() { return constraint; }
-        public void setConstraint(StyleSection constraint) { this.constraint = constraint; }
+        public void setConstraint(StyleSection constraint) { checkNotFrozen(); this.constraint = constraint; }
 
         public StyleSection getRelationship() { return relationship; }
-        public void setRelationship(StyleSection relationship) { this.relationship = relationship; }
+        public void setRelationship(StyleSection relationship) { checkNotFrozen(); this.relationship = relationship; }
+
+        @Override
+        void makeReadOnly() {
+            super.makeReadOnly();
+            makeReadOnly(header);
+            makeReadOnly(body);
+            makeReadOnly(separator);
+            makeReadOnly(mandatory);
+            makeReadOnly(specialSection);
+            makeReadOnly(constraint);
+            makeReadOnly(relationship);
+        }
     }
 
     /**
      * Style section properties
      */
-    public static class StyleSection {
+    public static class StyleSection extends ConfigSection {
         private String bgcolor;
         private String forecolor;
         private String color;
@@ -180,24 +269,24 @@ public class DiagramProperties {
 
         // Getters and setters
         public String getBgcolor() { return bgcolor; }
-        public void setBgcolor(String bgcolor) { this.bgcolor = bgcolor; }
+        public void setBgcolor(String bgcolor) { checkNotFrozen(); this.bgcolor = bgcolor; }
 
         public String getForecolor() { return forecolor; }
-        public void setForecolor(String forecolor) { this.forecolor = forecolor; }
+        public void setForecolor(String forecolor) { checkNotFrozen(); this.forecolor = forecolor; }
 
         public String getColor() { return color; }
-        public void setColor(String color) { this.color = color; }
+        public void setColor(String color) { checkNotFrozen(); this.color = color; }
 
         public String getFont() { return font; }
-        public void setFont(String font) { this.font = font; }
+        public void setFont(String font) { checkNotFrozen(); this.font = font; }
 
         public Integer getFontSize() { return fontSize; }
-        public void setFontSize(Integer fontSize) { this.fontSize = fontSize; }
+        public void setFontSize(Integer fontSize) { checkNotFrozen(); this.fontSize = fontSize; }
 
         public Boolean getBold() { return bold; }
-        public void setBold(Boolean bold) { this.bold = bold; }
+        public void setBold(Boolean bold) { checkNotFrozen(); this.bold = bold; }
 
         public String getStyle() { return style; }
-        public void setStyle(String style) { this.style = style; }
+        public void setStyle(String style) { checkNotFrozen(); this.style = style; }
     }
 }
\ No newline at end of file
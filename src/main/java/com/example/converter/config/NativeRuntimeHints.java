@@ -0,0 +1,84 @@
+package com.example.converter.config;
+
+import com.example.converter.diff.SchemaDiff;
+import com.example.converter.incremental.BuildManifest;
+import com.example.converter.metrics.ConversionMetrics;
+import com.example.converter.model.DiagramModel;
+import com.example.converter.model.EntityModel;
+import com.example.converter.model.RelationshipModel;
+import com.example.converter.service.CompiledStyles;
+import com.example.converter.service.StyleService;
+import com.example.converter.template.MergeDirective;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reflection and resource hints for the native image.
+ * Velocity creates its loaders, parser and directives from class names and resolves template
+ * references such as {@code $entity.name} by reflection, and Jackson binds the configuration,
+ * manifest, statistics and change list classes. None of that is visible to the native-image analysis.
+ */
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+
+    // Instantiated by name from Velocity's defaults and our engine properties
+    private static final String[] VELOCITY_CLASSES = {
+            "org.apache.velocity.runtime.resource.ResourceManagerImpl",
+            "org.apache.velocity.runtime.resource.ResourceCacheImpl",
+            "org.apache.velocity.runtime.resource.loader.ClasspathResourceLoader",
+            "org.apache.velocity.runtime.resource.loader.FileResourceLoader",
+            "org.apache.velocity.runtime.ParserPoolImpl",
+            "org.apache.velocity.runtime.parser.StandardParser",
+            "org.apache.velocity.util.introspection.UberspectImpl",
+            "org.apache.velocity.util.introspection.TypeConversionHandlerImpl",
+            "org.apache.velocity.runtime.directive.Foreach",
+            "org.apache.velocity.runtime.directive.Include",
+            "org.apache.velocity.runtime.directive.Parse",
+            "org.apache.velocity.runtime.directive.Macro",
+            "org.apache.velocity.runtime.directive.Evaluate",
+            "org.apache.velocity.runtime.directive.Break",
+            "org.apache.velocity.runtime.directive.Define",
+            "org.apache.velocity.runtime.directive.Stop"
+    };
+
+    // Objects the templates call methods on
+    private static final Class<?>[] TEMPLATE_TYPES = {
+            DiagramModel.class, EntityModel.class, EntityModel.Field.class, EntityModel.SpecialSection.class,
+            RelationshipModel.class, DiagramProperties.class, DiagramProperties.Settings.class,
+            DiagramProperties.TableSettings.class, DiagramProperties.Templates.class, DiagramProperties.Styles.class,
+            DiagramProperties.StyleDefinition.class, DiagramProperties.StyleSection.class,
+            CompiledStyles.class, StyleService.class,
+            String.class, Object.class, Boolean.class, Integer.class,
+            Collection.class, List.class, Set.class, Map.class, Map.Entry.class, Iterator.class,
+            ArrayList.class, HashMap.class, LinkedHashMap.class
+    };
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        hints.resources().registerPattern("templates/*.vm");
+        hints.resources().registerPattern("org/apache/velocity/runtime/defaults/*.properties");
+
+        for (String className : VELOCITY_CLASSES) {
+            hints.reflection().registerType(TypeReference.of(className), MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        }
+        hints.reflection().registerType(MergeDirective.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+
+        for (Class<?> type : TEMPLATE_TYPES) {
+            hints.reflection().registerType(type, MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                DiagramProperties.class, BuildManifest.class, ConversionMetrics.Statistics.class, SchemaDiff.Changes.class);
+    }
+}
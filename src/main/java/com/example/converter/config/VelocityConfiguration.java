@@ -1,49 +1,42 @@
 package com.example.converter.config;
 
+import com.example.converter.template.MergeDirective;
 import org.apache.velocity.app.VelocityEngine;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
+import java.nio.file.Path;
 import java.util.Properties;
 
 /**
  * Velocity template engine configuration
- * Uses string-based properties to avoid constant compatibility issues
+ * Uses string-based properties (Velocity 2.x key names) to avoid constant compatibility issues
  */
 @Configuration
+@ImportRuntimeHints(NativeRuntimeHints.class)
 public class VelocityConfiguration {
 
     @Bean
     public VelocityEngine velocityEngine() {
-        Properties properties = new Properties();
+        return createClasspathEngine();
+    }
+
+    /**
+     * Create an engine loading the bundled templates from the classpath, cached after the first parse
+     */
+    public static VelocityEngine createClasspathEngine() {
+        Properties properties = engineProperties();
 
         // Resource loader configuration
-        properties.setProperty("resource.loader", "classpath");
-        properties.setProperty("classpath.resource.loader.class",
+        properties.setProperty("resource.loaders", "classpath");
+        properties.setProperty("resource.loader.classpath.class",
                 "org.apache.velocity.runtime.resource.loader.ClasspathResourceLoader");
-
-        // Template encoding
-        properties.setProperty("input.encoding", "UTF-8");
-        properties.setProperty("output.encoding", "UTF-8");
-
-        // Parser configuration
-        properties.setProperty("parser.pool.size", "20");
-
-        // Runtime behavior
-        properties.setProperty("runtime.references.strict", "false");
-        properties.setProperty("runtime.interpolate.string.literals", "true");
-
-        // Logging configuration - disable to avoid console spam
-        properties.setProperty("runtime.log.logsystem.class",
-                "org.apache.velocity.runtime.log.NullLogChute");
-
-        // Macro configuration
-        properties.setProperty("velocimacro.library.autoreload", "false");
-        properties.setProperty("velocimacro.permissions.allow.inline.replace.global", "false");
-
-        // Resource caching
-        properties.setProperty("resource.manager.defaultcache.size", "89");
-        properties.setProperty("resource.manager.cache.default.size", "89");
+        // Keep parsed templates: #parse of an uncached template re-parses it for every entity
+        // and the merge context holds on to each copy, so streaming would not stay bounded
+        properties.setProperty("resource.loader.classpath.cache", "true");
+        // Classpath templates cannot change while running, so never check them again
+        properties.setProperty("resource.loader.classpath.modification_check_interval", "-1");
 
         VelocityEngine velocityEngine = new VelocityEngine();
 
@@ -53,14 +46,62 @@ public class VelocityConfiguration {
         } catch (Exception e) {
             // Fallback to minimal configuration
             Properties fallbackProps = new Properties();
-            fallbackProps.setProperty("resource.loader", "classpath");
-            fallbackProps.setProperty("classpath.resource.loader.class",
+            fallbackProps.setProperty("resource.loaders", "classpath");
+            fallbackProps.setProperty("resource.loader.classpath.class",
                     "org.apache.velocity.runtime.resource.loader.ClasspathResourceLoader");
-            fallbackProps.setProperty("runtime.references.strict", "false");
+            fallbackProps.setProperty("resource.loader.classpath.cache", "true");
+            fallbackProps.setProperty("runtime.strict_mode.enable", "false");
+            fallbackProps.setProperty("runtime.custom_directives", MergeDirective.class.getName());
 
             VelocityEngine fallbackEngine = new VelocityEngine();
             fallbackEngine.init(fallbackProps);
             return fallbackEngine;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Create an engine loading templates from a file system directory.
+     * Templates are not cached by Velocity, so every load reads the current file.
+     */
+    public static VelocityEngine createDirectoryEngine(Path directory) {
+        Properties properties = engineProperties();
+        properties.setProperty("resource.loaders", "file");
+        properties.setProperty("resource.loader.file.class",
+                "org.apache.velocity.runtime.resource.loader.FileResourceLoader");
+        properties.setProperty("resource.loader.file.path", directory.toAbsolutePath().toString());
+        properties.setProperty("resource.loader.file.cache", "false");
+
+        VelocityEngine velocityEngine = new VelocityEngine();
+        velocityEngine.init(properties);
+        return velocityEngine;
+    }
+
+    /**
+     * Settings shared by every engine, independent of where templates are loaded from
+     */
+    private static Properties engineProperties() {
+        Properties properties = new Properties();
+
+        // Template encoding
+        properties.setProperty("resource.default_encoding", "UTF-8");
+
+        // Parser configuration
+        properties.setProperty("parser.pool.size", "20");
+
+        // Runtime behavior
+        properties.setProperty("runtime.strict_mode.enable", "false");
+        properties.setProperty("runtime.interpolate_string_literals", "true");
+
+        // Pre-parsed sub-templates are rendered with #merge instead of #parse
+        properties.setProperty("runtime.custom_directives", MergeDirective.class.getName());
+
+        // Macro configuration
+        properties.setProperty("velocimacro.library.autoreload", "false");
+        properties.setProperty("velocimacro.inline.replace_global", "false");
+
+        // Resource caching
+        properties.setProperty("resource.manager.cache.default_size", "89");
+
+        return properties;
+    }
+}
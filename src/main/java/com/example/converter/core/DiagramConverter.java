@@ -0,0 +1,206 @@
+package com.example.converter.core;
+
+import com.example.converter.config.ConfigurationLoader;
+import com.example.converter.config.DiagramProperties;
+import com.example.converter.config.VelocityConfiguration;
+import com.example.converter.metrics.ConversionMetrics;
+import com.example.converter.metrics.ConversionStage;
+import com.example.converter.service.DiagramService;
+import com.example.converter.service.DirectDotRenderer;
+import com.example.converter.service.RenderEngine;
+import com.example.converter.service.StyleService;
+import com.example.converter.template.TemplateCache;
+import com.example.converter.util.FileUtils;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+
+/**
+ * Converts JSON models to DOT without a Spring context, for embedding in other applications.
+ * A converter is immutable and safe to share between threads: it keeps its own copy of the
+ * configuration, every conversion builds its own model and template context, and the
+ * template and style caches it shares across calls are concurrent. Streams passed in are
+ * read or written but never closed.
+ *
+ * <pre>
+ * DiagramConverter converter = new DiagramConverter(new DiagramProperties());
+ * converter.convert(Path.of("schema.json"), Path.of("schema.dot"));
+ * String dot = converter.withEngine(RenderEngine.DIRECT).convert(jsonNode);
+ * </pre>
+ */
+public final class DiagramConverter {
+
+    private final DiagramService diagramService;
+    private final ConversionMetrics conversionMetrics;
+    private final ObjectMapper objectMapper;
+    private final DiagramProperties properties;
+    private final RenderEngine engine;
+
+    /**
+     * Create a converter rendering with the Velocity templates named in the properties
+     */
+    public DiagramConverter(DiagramProperties properties) {
+        this(properties, RenderEngine.VELOCITY, new SimpleMeterRegistry());
+    }
+
+    /**
+     * Create a converter with its own template engine and caches, registering its meters with the given registry
+     */
+    public DiagramConverter(DiagramProperties properties, RenderEngine engine, MeterRegistry registry) {
+        ObjectMapper objectMapper = new ObjectMapper();
+        DiagramProperties config = copy(properties, objectMapper);
+        TemplateCache templateCache = new TemplateCache(VelocityConfiguration.createClasspathEngine(), config);
+        templateCache.preload();
+        ConversionMetrics conversionMetrics = new ConversionMetrics(registry);
+
+        this.diagramService = new DiagramService(templateCache, new StyleService(config),
+                new ConfigurationLoader(config), new DirectDotRenderer(), conversionMetrics);
+        this.conversionMetrics = conversionMetrics;
+        this.objectMapper = objectMapper;
+        this.properties = config;
+        this.engine = engine;
+    }
+
+    /**
+     * Create a converter on existing services, sharing their template cache and metrics
+     */
+    public DiagramConverter(DiagramService diagramService, ConversionMetrics conversionMetrics, ObjectMapper objectMapper,
+                            DiagramProperties properties, RenderEngine engine) {
+        this.diagramService = diagramService;
+        this.conversionMetrics = conversionMetrics;
+        this.objectMapper = objectMapper;
+        this.properties = copy(properties, objectMapper);
+        this.engine = engine;
+    }
+
+    /**
+     * A converter with different properties, sharing this converter's template engine and caches
+     */
+    public DiagramConverter withProperties(DiagramProperties properties) {
+        return new DiagramConverter(diagramService, conversionMetrics, objectMapper, properties, engine);
+    }
+
+    /**
+     * A converter rendering with a different engine, sharing this converter's template engine and caches
+     */
+    public DiagramConverter withEngine(RenderEngine engine) {
+        return new DiagramConverter(diagramService, conversionMetrics, objectMapper, properties, engine);
+    }
+
+    public RenderEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Meters of this converter's conversions
+     */
+    public ConversionMetrics getMetrics() {
+        return conversionMetrics;
+    }
+
+    /**
+     * Read a JSON model from a stream
+     */
+    public JsonNode readModel(InputStream input) throws IOException {
+        JsonNode model = convertFailures(() -> conversionMetrics.time(ConversionStage.READ_JSON, () -> objectMapper.readTree(input)));
+        if (model == null || !model.isObject()) {
+            throw new IOException("Expected a JSON object at the top level of the model");
+        }
+        return model;
+    }
+
+    /**
+     * Read a JSON model from a file
+     */
+    public JsonNode readModel(Path input) throws IOException {
+        try (InputStream stream = Files.newInputStream(input)) {
+            return readModel(stream);
+        }
+    }
+
+    /**
+     * Convert a JSON model to DOT
+     */
+    public String convert(JsonNode model) throws IOException {
+        StringWriter writer = new StringWriter();
+        convert(model, writer);
+        return writer.toString();
+    }
+
+    /**
+     * Convert a JSON model, writing DOT to the given writer
+     */
+    public void convert(JsonNode model, Writer output) throws IOException {
+        convertFailures(() -> {
+            diagramService.writeDotContent(model, properties, engine, output);
+            return null;
+        });
+        output.flush();
+    }
+
+    /**
+     * Convert a JSON model, writing UTF-8 DOT to the given stream
+     */
+    public void convert(JsonNode model, OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        convert(model, writer);
+    }
+
+    /**
+     * Convert a JSON model read from a stream, writing DOT to the given writer
+     */
+    public void convert(InputStream input, Writer output) throws IOException {
+        convert(readModel(input), output);
+    }
+
+    /**
+     * Convert a JSON model read from a stream, writing UTF-8 DOT to the given stream
+     */
+    public void convert(InputStream input, OutputStream output) throws IOException {
+        convert(readModel(input), output);
+    }
+
+    /**
+     * Convert a JSON model file to a UTF-8 DOT file, creating parent directories as needed
+     */
+    public void convert(Path input, Path output) throws IOException {
+        String dotContent = convert(readModel(input));
+        FileUtils.createParentDirectories(output);
+        convertFailures(() -> conversionMetrics.time(ConversionStage.WRITE_OUTPUT,
+                () -> Files.writeString(output, dotContent, StandardCharsets.UTF_8)));
+        conversionMetrics.recordBytesWritten(Files.size(output));
+    }
+
+    /**
+     * Copy the properties so later changes by the caller cannot affect conversions in progress
+     */
+    private static DiagramProperties copy(DiagramProperties properties, ObjectMapper objectMapper) {
+        return objectMapper.convertValue(properties, DiagramProperties.class);
+    }
+
+    /**
+     * Run a conversion step, passing I/O and runtime failures through and wrapping anything else
+     */
+    private static <T> T convertFailures(Callable<T> step) throws IOException {
+        try {
+            return step.call();
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Conversion failed: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package com.example.converter.diff;
+
+import com.example.converter.model.DiagramGraph;
+import com.example.converter.model.DiagramModel;
+import com.example.converter.model.EntityModel;
+import com.example.converter.model.RelationshipModel;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Compares two versions of a model. Entities are matched by id and their fields by name,
+ * relationships by id or, without one, by their ends and label, each through a hash map, so a
+ * comparison is linear in the size of both models. The diagram of a comparison holds only the
+ * changed entities and their direct neighbours, so rendering it costs time in the size of the
+ * change rather than of the model.
+ */
+public final class SchemaDiff {
+
+    static final String ADDED_MARK = "+ ";
+    static final String REMOVED_MARK = "- ";
+    static final String CHANGED_MARK = "~ ";
+
+    private SchemaDiff() {
+    }
+
+    /**
+     * How an entity, field or relationship differs between the versions
+     */
+    public enum ChangeType {
+        ADDED, REMOVED, MODIFIED
+    }
+
+    /**
+     * A changed entity with the names of its added, removed and modified fields
+     */
+    public record EntityChange(String id, ChangeType type, List<String> addedFields, List<String> removedFields,
+                               List<String> modifiedFields) {
+    }
+
+    /**
+     * A changed relationship, as it is in the new version or, if removed, in the old one
+     */
+    public record RelationshipChange(String id, String from, String to, String label, ChangeType type) {
+    }
+
+    /**
+     * All differences, in model order: new version first, then what only the old version had
+     */
+    public record Changes(List<EntityChange> entities, List<RelationshipChange> relationships) {
+
+        @JsonIgnore
+        public boolean isEmpty() {
+            return entities.isEmpty() && relationships.isEmpty();
+        }
+
+        public long count(ChangeType type) {
+            return entities.stream().filter(change -> change.type() == type).count();
+        }
+    }
+
+    /**
+     * Differences between the old and the new version
+     */
+    public static Changes compare(DiagramGraph oldGraph, DiagramGraph newGraph) {
+        List<EntityChange> entityChanges = new ArrayList<>();
+        for (EntityModel entity : newGraph.entities()) {
+            EntityModel previous = oldGraph.entity(entity.getId());
+            if (previous == null) {
+                entityChanges.add(new EntityChange(entity.getId(), ChangeType.ADDED, fieldNames(entity), List.of(), List.of()));
+            } else {
+                EntityChange change = compare(previous, entity);
+                if (change != null) {
+                    entityChanges.add(change);
+                }
+            }
+        }
+        for (EntityModel entity : oldGraph.entities()) {
+            if (!newGraph.contains(entity.getId())) {
+                entityChanges.add(new EntityChange(entity.getId(), ChangeType.REMOVED, List.of(), fieldNames(entity), List.of()));
+            }
+        }
+
+        Map<String, RelationshipModel> oldRelationships = new HashMap<>();
+        for (RelationshipModel relationship : oldGraph.relationships()) {
+            oldRelationships.putIfAbsent(key(relationship), relationship);
+        }
+        List<RelationshipChange> relationshipChanges = new ArrayList<>();
+        Set<String> matched = new HashSet<>();
+        for (RelationshipModel relationship : newGraph.relationships()) {
+            String key = key(relationship);
+            RelationshipModel previous = oldRelationships.get(key);
+            if (previous == null) {
+                relationshipChanges.add(change(relationship, ChangeType.ADDED));
+            } else {
+                matched.add(key);
+                if (!sameRelationship(previous, relationship)) {
+                    relationshipChanges.add(change(relationship, ChangeType.MODIFIED));
+                }
+            }
+        }
+        for (RelationshipModel relationship : oldGraph.relationships()) {
+            String key = key(relationship);
+            if (oldRelationships.get(key) == relationship && !matched.contains(key)) {
+                relationshipChanges.add(change(relationship, ChangeType.REMOVED));
+            }
+        }
+        return new Changes(List.copyOf(entityChanges), List.copyOf(relationshipChanges));
+    }
+
+    /**
+     * The diagram of the changes: changed entities and their direct neighbours, with removed
+     * entities and relationships taken from the old version. Field names are marked with
+     * "+ ", "- " or "~ " and changed relationship labels with the kind of change.
+     */
+    public static DiagramModel diagram(DiagramGraph oldGraph, DiagramGraph newGraph, Changes changes) {
+        Map<String, EntityChange> changedEntities = new HashMap<>();
+        changes.entities().forEach(change -> changedEntities.put(change.id(), change));
+
+        // Changed entities, the ends of changed relationships, and one hop around changed entities
+        Set<String> included = new LinkedHashSet<>(changedEntities.keySet());
+        for (RelationshipChange change : changes.relationships()) {
+            included.add(change.from());
+            included.add(change.to());
+        }
+        for (EntityChange change : changes.entities()) {
+            DiagramGraph graph = change.type() == ChangeType.REMOVED ? oldGraph : newGraph;
+            for (RelationshipModel relationship : graph.outgoing(change.id())) {
+                included.add(relationship.getToEntity());
+            }
+            for (RelationshipModel relationship : graph.incoming(change.id())) {
+                included.add(relationship.getFromEntity());
+            }
+        }
+
+        List<EntityModel> entities = new ArrayList<>();
+        for (String id : included) {
+            EntityChange change = changedEntities.get(id);
+            if (change != null && change.type() == ChangeType.REMOVED) {
+                entities.add(marked(oldGraph.entity(id), REMOVED_MARK));
+            } else if (change != null && change.type() == ChangeType.ADDED) {
+                entities.add(marked(newGraph.entity(id), ADDED_MARK));
+            } else if (change != null) {
+                entities.add(modified(oldGraph.entity(id), newGraph.entity(id), change));
+            } else if (newGraph.contains(id)) {
+                entities.add(newGraph.entity(id));
+            } else if (oldGraph.contains(id)) {
+                entities.add(oldGraph.entity(id));
+            }
+        }
+        Set<String> shown = new LinkedHashSet<>();
+        entities.forEach(entity -> shown.add(entity.getId()));
+        entities.sort((a, b) -> Integer.compare(order(newGraph, oldGraph, a.getId()), order(newGraph, oldGraph, b.getId())));
+
+        Map<String, ChangeType> changedRelationships = new HashMap<>();
+        changes.relationships().forEach(change -> changedRelationships.put(change.id(), change.type()));
+        Map<String, RelationshipModel> relationships = new LinkedHashMap<>();
+        for (String id : shown) {
+            if (!newGraph.contains(id)) {
+                continue;
+            }
+            for (RelationshipModel relationship : newGraph.outgoing(id)) {
+                String key = key(relationship);
+                boolean touchesChange = changedEntities.containsKey(relationship.getFromEntity())
+                        || changedEntities.containsKey(relationship.getToEntity()) || changedRelationships.containsKey(key);
+                if (touchesChange && shown.contains(relationship.getToEntity())) {
+                    relationships.putIfAbsent(key, labelled(relationship, changedRelationships.get(key)));
+                }
+            }
+        }
+        for (RelationshipModel relationship : oldGraph.relationships()) {
+            String key = key(relationship);
+            if (changedRelationships.get(key) == ChangeType.REMOVED
+                    && shown.contains(relationship.getFromEntity()) && shown.contains(relationship.getToEntity())) {
+                relationships.putIfAbsent(REMOVED_MARK + key, labelled(relationship, ChangeType.REMOVED));
+            }
+        }
+
+        DiagramModel diagram = newGraph.getDiagram();
+        DiagramModel result = new DiagramModel();
+        result.setTitle(diagram.getTitle());
+        result.setVersion(diagram.getVersion());
+        result.setDescription("Changes: " + changes.count(ChangeType.ADDED) + " added, " + changes.count(ChangeType.REMOVED)
+                + " removed, " + changes.count(ChangeType.MODIFIED) + " modified entities, "
+                + changes.relationships().size() + " changed relationships");
+        result.setRankdir(diagram.getRankdir());
+        result.setEntities(entities);
+        result.setRelationships(new ArrayList<>(relationships.values()));
+        return result;
+    }
+
+    /**
+     * The key relationships are matched by: their id, or their ends and label without one
+     */
+    static String key(RelationshipModel relationship) {
+        if (relationship.getId() != null && !relationship.getId().isEmpty()) {
+            return relationship.getId();
+        }
+        return relationship.getFromEntity() + " -> " + relationship.getToEntity() + " : " + relationship.getLabel();
+    }
+
+    private static EntityChange compare(EntityModel previous, EntityModel current) {
+        Map<String, EntityModel.Field> oldFields = fieldsByName(previous);
+        Map<String, EntityModel.Field> newFields = fieldsByName(current);
+        List<String> added = new ArrayList<>();
+        List<String> modified = new ArrayList<>();
+        for (EntityModel.Field field : newFields.values()) {
+            EntityModel.Field old = oldFields.get(field.getName());
+            if (old == null) {
+                added.add(field.getName());
+            } else if (!sameField(old, field)) {
+                modified.add(field.getName());
+            }
+        }
+        List<String> removed = new ArrayList<>();
+        for (String name : oldFields.keySet()) {
+            if (!newFields.containsKey(name)) {
+                removed.add(name);
+            }
+        }
+
+        boolean entityChanged = !Objects.equals(previous.getName(), current.getName())
+                || !Objects.equals(previous.getDescription(), current.getDescription())
+                || !Objects.equals(previous.getDomain(), current.getDomain())
+                || !sections(previous).equals(sections(current))
+                || !Objects.equals(constraints(previous), constraints(current));
+        if (!entityChanged && added.isEmpty() && removed.isEmpty() && modified.isEmpty()) {
+            return null;
+        }
+        return new EntityChange(current.getId(), ChangeType.MODIFIED, List.copyOf(added), List.copyOf(removed), List.copyOf(modified));
+    }
+
+    private static boolean sameField(EntityModel.Field a, EntityModel.Field b) {
+        return Objects.equals(a.getType(), b.getType()) && a.isRequired() == b.isRequired() && a.isKey() == b.isKey()
+                && Objects.equals(a.getDescription(), b.getDescription());
+    }
+
+    private static boolean sameRelationship(RelationshipModel a, RelationshipModel b) {
+        return Objects.equals(a.getFromEntity(), b.getFromEntity()) && Objects.equals(a.getToEntity(), b.getToEntity())
+                && Objects.equals(a.getLabel(), b.getLabel()) && Objects.equals(a.getType(), b.getType())
+                && Objects.equals(a.getDescription(), b.getDescription());
+    }
+
+    private static RelationshipChange change(RelationshipModel relationship, ChangeType type) {
+        return new RelationshipChange(key(relationship), relationship.getFromEntity(), relationship.getToEntity(),
+                relationship.getLabel(), type);
+    }
+
+    private static Map<String, EntityModel.Field> fieldsByName(EntityModel entity) {
+        Map<String, EntityModel.Field> fields = new LinkedHashMap<>();
+        List<EntityModel.Field> entityFields = entity.getFields();
+        if (entityFields != null) {
+            for (EntityModel.Field field : entityFields) {
+                fields.putIfAbsent(field.getName(), field);
+            }
+        }
+        return fields;
+    }
+
+    private static List<String> fieldNames(EntityModel entity) {
+        return List.copyOf(fieldsByName(entity).keySet());
+    }
+
+    private static List<List<Object>> sections(EntityModel entity) {
+        List<List<Object>> sections = new ArrayList<>();
+        if (entity.getSpecialSections() != null) {
+            for (EntityModel.SpecialSection section : entity.getSpecialSections()) {
+                sections.add(Arrays.asList(section.getName(), section.getType(), section.getStyle(), section.isIs_required()));
+            }
+        }
+        return sections;
+    }
+
+    private static List<String> constraints(EntityModel entity) {
+        return entity.getConstraints() != null ? entity.getConstraints() : List.of();
+    }
+
+    /**
+     * New entities in new model order, then removed ones in old model order
+     */
+    private static int order(DiagramGraph newGraph, DiagramGraph oldGraph, String id) {
+        return newGraph.contains(id) ? newGraph.position(id) : newGraph.entities().size() + oldGraph.position(id);
+    }
+
+    /**
+     * A copy of an entity with every field name marked
+     */
+    private static EntityModel marked(EntityModel entity, String mark) {
+        List<EntityModel.Field> fields = new ArrayList<>();
+        for (EntityModel.Field field : fieldsByName(entity).values()) {
+            fields.add(field.withName(mark + field.getName()));
+        }
+        return entity.withFields(fields);
+    }
+
+    /**
+     * The new version of an entity with added and modified fields marked, followed by its removed fields
+     */
+    private static EntityModel modified(EntityModel previous, EntityModel current, EntityChange change) {
+        Set<String> added = Set.copyOf(change.addedFields());
+        Set<String> modified = Set.copyOf(change.modifiedFields());
+        List<EntityModel.Field> fields = new ArrayList<>();
+        for (EntityModel.Field field : fieldsByName(current).values()) {
+            String mark = added.contains(field.getName()) ? ADDED_MARK : modified.contains(field.getName()) ? CHANGED_MARK : "";
+            fields.add(field.withName(mark + field.getName()));
+        }
+        Map<String, EntityModel.Field> oldFields = fieldsByName(previous);
+        for (String name : change.removedFields()) {
+            EntityModel.Field removed = oldFields.get(name);
+            fields.add(removed.withName(REMOVED_MARK + removed.getName()));
+        }
+        return current.withFields(fields);
+    }
+
+    private static RelationshipModel labelled(RelationshipModel relationship, ChangeType type) {
+        if (type == null) {
+            return relationship;
+        }
+        return relationship.withLabel(relationship.getLabel() + " (" + type.name().toLowerCase(Locale.ROOT) + ")");
+    }
+}
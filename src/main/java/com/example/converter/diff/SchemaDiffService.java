@@ -0,0 +1,120 @@
+package com.example.converter.diff;
+
+import com.example.converter.config.DiagramProperties;
+import com.example.converter.core.DiagramConverter;
+import com.example.converter.metrics.ConversionMetrics;
+import com.example.converter.metrics.ConversionStage;
+import com.example.converter.model.DiagramGraph;
+import com.example.converter.model.DiagramModel;
+import com.example.converter.service.DiagramService;
+import com.example.converter.service.RenderEngine;
+import com.example.converter.util.FileUtils;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Service for diagrams of what changed between two versions of a model.
+ * Writes the changed entities and their direct neighbours, coloured by kind of change, and
+ * the list of changes as JSON next to the diagram for review tools and pipelines.
+ */
+@Service
+public class SchemaDiffService {
+
+    static final String ADDED_COLOR = "#15803D";
+    static final String REMOVED_COLOR = "#B91C1C";
+    static final String MODIFIED_COLOR = "#B45309";
+    static final String CONTEXT_COLOR = "#9CA3AF";
+
+    @Autowired
+    private DiagramConverter diagramConverter;
+
+    @Autowired
+    private DiagramService diagramService;
+
+    @Autowired
+    private ConversionMetrics conversionMetrics;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * The changes and the files they were written to
+     */
+    public record Result(SchemaDiff.Changes changes, Path dotFile, Path changesFile) {
+    }
+
+    /**
+     * Compare two versions of a model, writing the diagram of the changes to the output and the
+     * change list beside it, with .changes.json in place of the output's extension
+     */
+    public Result diff(Path oldInput, Path newInput, Path output, String configFile, RenderEngine engine) throws Exception {
+        DiagramProperties config = conversionMetrics.time(ConversionStage.LOAD_CONFIG, () -> diagramService.loadConfiguration(configFile));
+        DiagramGraph oldGraph = parse(oldInput, config);
+        DiagramGraph newGraph = parse(newInput, config);
+
+        SchemaDiff.Changes changes = SchemaDiff.compare(oldGraph, newGraph);
+        DiagramModel diagram = SchemaDiff.diagram(oldGraph, newGraph, changes);
+
+        FileUtils.createParentDirectories(output);
+        try (Writer writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            diagramService.writeDotContent(diagram, styled(config, diagram, changes), engine, writer);
+        }
+        conversionMetrics.recordBytesWritten(Files.size(output));
+
+        Path changesFile = changesFile(output);
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(changesFile.toFile(), changes);
+        return new Result(changes, output, changesFile);
+    }
+
+    /**
+     * The change list file for a diagram file
+     */
+    public static Path changesFile(Path output) {
+        String fileName = output.getFileName().toString();
+        int dot = fileName.lastIndexOf('.');
+        return output.resolveSibling((dot > 0 ? fileName.substring(0, dot) : fileName) + ".changes.json");
+    }
+
+    private DiagramGraph parse(Path input, DiagramProperties config) throws Exception {
+        JsonNode model = diagramConverter.readModel(input);
+        return conversionMetrics.time(ConversionStage.PARSE_MODEL,
+                () -> diagramService.validate(diagramService.parseJsonModel(model), config));
+    }
+
+    /**
+     * A copy of the configuration with a header colour for each entity of the diagram: one per
+     * kind of change, and grey for the unchanged neighbours shown for context
+     */
+    private DiagramProperties styled(DiagramProperties config, DiagramModel diagram, SchemaDiff.Changes changes) {
+        DiagramProperties copy = objectMapper.convertValue(config, DiagramProperties.class);
+        Map<String, String> colors = new LinkedHashMap<>();
+        diagram.getEntities().forEach(entity -> colors.put(entity.getId(), CONTEXT_COLOR));
+        for (SchemaDiff.EntityChange change : changes.entities()) {
+            colors.put(change.id(), switch (change.type()) {
+                case ADDED -> ADDED_COLOR;
+                case REMOVED -> REMOVED_COLOR;
+                case MODIFIED -> MODIFIED_COLOR;
+            });
+        }
+
+        Map<String, DiagramProperties.StyleDefinition> entityStyles = new LinkedHashMap<>(copy.getStyles().getEntities());
+        colors.forEach((id, color) -> {
+            DiagramProperties.StyleDefinition style = entityStyles.getOrDefault(id, new DiagramProperties.StyleDefinition());
+            style.getHeader().setBgcolor(color);
+            style.getHeader().setForecolor("white");
+            style.getSeparator().setColor(color);
+            entityStyles.put(id, style);
+        });
+        copy.getStyles().setEntities(entityStyles);
+        return copy;
+    }
+}
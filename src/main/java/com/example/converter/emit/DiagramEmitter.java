@@ -0,0 +1,38 @@
+package com.example.converter.emit;
+
+import com.example.converter.config.DiagramProperties;
+import com.example.converter.model.DiagramModel;
+import com.example.converter.service.CompiledStyles;
+import com.example.converter.service.RenderEngine;
+
+import java.io.Writer;
+
+/**
+ * Writes a parsed diagram in one output format.
+ * Emitters are Spring beans found by {@link EmitterService}; adding one is a matter of
+ * declaring another {@code @Component}. Several emitters run at once on the same input, so
+ * they must not modify it and must keep any state per call.
+ */
+public interface DiagramEmitter {
+
+    /**
+     * Everything an emitter may use: the model, its configuration and styles compiled once for all emitters
+     */
+    record Input(DiagramModel diagram, DiagramProperties config, CompiledStyles styles, RenderEngine engine) {
+    }
+
+    /**
+     * Name used to select the emitter, for example on the command line
+     */
+    String name();
+
+    /**
+     * File extension of the output, without the dot
+     */
+    String extension();
+
+    /**
+     * Write the diagram to the writer
+     */
+    void emit(Input input, Writer out) throws Exception;
+}
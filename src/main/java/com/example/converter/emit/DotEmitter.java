@@ -0,0 +1,34 @@
+package com.example.converter.emit;
+
+import com.example.converter.service.DiagramService;
+import org.springframework.stereotype.Component;
+
+import java.io.Writer;
+
+/**
+ * Graphviz DOT, written by the configured rendering engine
+ */
+@Component
+public class DotEmitter implements DiagramEmitter {
+
+    private final DiagramService diagramService;
+
+    public DotEmitter(DiagramService diagramService) {
+        this.diagramService = diagramService;
+    }
+
+    @Override
+    public String name() {
+        return "dot";
+    }
+
+    @Override
+    public String extension() {
+        return "dot";
+    }
+
+    @Override
+    public void emit(Input input, Writer out) throws Exception {
+        diagramService.renderDot(input.diagram(), input.config(), input.styles(), input.engine(), out);
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.converter.emit;
+
+import com.example.converter.config.DiagramProperties;
+import com.example.converter.core.DiagramConverter;
+import com.example.converter.metrics.ConversionMetrics;
+import com.example.converter.metrics.ConversionStage;
+import com.example.converter.model.DiagramModel;
+import com.example.converter.service.CompiledStyles;
+import com.example.converter.service.DiagramService;
+import com.example.converter.service.RenderEngine;
+import com.example.converter.service.StyleService;
+import com.example.converter.util.FileUtils;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Service for writing one model in several formats at once.
+ * The model is read, parsed, validated and styled once; the selected emitters then run in
+ * parallel over the shared, read-only model, each writing its own file. If any emitter fails,
+ * the files of all of them are deleted, so a run leaves either every output or none.
+ */
+@Service
+public class EmitterService {
+
+    private final Map<String, DiagramEmitter> emitters = new LinkedHashMap<>();
+    private final DiagramConverter diagramConverter;
+    private final DiagramService diagramService;
+    private final StyleService styleService;
+    private final ConversionMetrics conversionMetrics;
+
+    public EmitterService(List<DiagramEmitter> emitters, DiagramConverter diagramConverter, DiagramService diagramService,
+                          StyleService styleService, ConversionMetrics conversionMetrics) {
+        for (DiagramEmitter emitter : emitters) {
+            if (this.emitters.putIfAbsent(emitter.name(), emitter) != null) {
+                throw new IllegalStateException("Two emitters are named " + emitter.name());
+            }
+        }
+        this.diagramConverter = diagramConverter;
+        this.diagramService = diagramService;
+        this.styleService = styleService;
+        this.conversionMetrics = conversionMetrics;
+    }
+
+    /**
+     * One written output
+     */
+    public record Output(String emitter, Path file) {
+    }
+
+    /**
+     * Names of the available emitters
+     */
+    public List<String> names() {
+        return List.copyOf(emitters.keySet());
+    }
+
+    /**
+     * Convert a model with the named emitters. Each output is the output base with the emitter's
+     * extension in place of its own, so schema.dot with dot and mermaid gives schema.dot and schema.mmd.
+     */
+    public List<Output> emit(Path input, Path outputBase, List<String> emitterNames, String configFile,
+                             RenderEngine engine) throws Exception {
+        List<DiagramEmitter> selected = select(emitterNames);
+
+        DiagramProperties config = conversionMetrics.time(ConversionStage.LOAD_CONFIG, () -> diagramService.loadConfiguration(configFile));
+        JsonNode model = diagramConverter.readModel(input);
+        DiagramModel diagram = conversionMetrics.time(ConversionStage.PARSE_MODEL, () -> {
+            DiagramModel parsed = diagramService.parseJsonModel(model);
+            diagramService.validate(parsed, config);
+            return parsed;
+        });
+        CompiledStyles styles = styleService.compile(config);
+        DiagramEmitter.Input shared = new DiagramEmitter.Input(diagram, config, styles, engine);
+
+        List<Path> files = new ArrayList<>();
+        List<Future<Output>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (DiagramEmitter emitter : selected) {
+                Path file = outputFile(outputBase, emitter);
+                files.add(file);
+                futures.add(executor.submit(() -> write(emitter, shared, file)));
+            }
+        }
+        // All emitters have finished here; one failure discards every output, not only the failed one
+        List<Output> outputs = new ArrayList<>();
+        Exception failure = null;
+        for (Future<Output> future : futures) {
+            try {
+                outputs.add(future.get());
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof Exception cause ? cause : e;
+                }
+            }
+        }
+        if (failure != null) {
+            for (Path file : files) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    failure.addSuppressed(e);
+                }
+            }
+            throw failure;
+        }
+        return outputs;
+    }
+
+    /**
+     * The output file of an emitter for an output base
+     */
+    public Path outputFile(Path outputBase, DiagramEmitter emitter) {
+        String fileName = outputBase.getFileName().toString();
+        int dot = fileName.lastIndexOf('.');
+        String baseName = dot > 0 ? fileName.substring(0, dot) : fileName;
+        return outputBase.resolveSibling(baseName + "." + emitter.extension());
+    }
+
+    private List<DiagramEmitter> select(List<String> emitterNames) {
+        List<DiagramEmitter> selected = new ArrayList<>();
+        for (String name : emitterNames) {
+            DiagramEmitter emitter = emitters.get(name);
+            if (emitter == null) {
+                throw new IllegalArgumentException("Unknown emitter: " + name + " (available: " + String.join(", ", emitters.keySet()) + ")");
+            }
+            if (!selected.contains(emitter)) {
+                selected.add(emitter);
+            }
+        }
+        return selected;
+    }
+
+    private Output write(DiagramEmitter emitter, DiagramEmitter.Input input, Path file) throws Exception {
+        FileUtils.createParentDirectories(file);
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            conversionMetrics.run(ConversionStage.RENDER, () -> emitter.emit(input, writer));
+        }
+        conversionMetrics.recordBytesWritten(Files.size(file));
+        return new Output(emitter.name(), file);
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.converter.emit;
+
+import com.example.converter.model.DiagramModel;
+import com.example.converter.model.EntityModel;
+import com.example.converter.model.RelationshipModel;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Node and edge JSON for web viewers. Nodes carry the entity with its fields and compiled
+ * style table, edges the relationships, in model order. Written with a streaming generator,
+ * so large models are not built up as a tree first.
+ */
+@Component
+public class GraphJsonEmitter implements DiagramEmitter {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    @Override
+    public String name() {
+        return "graph-json";
+    }
+
+    @Override
+    public String extension() {
+        return "graph.json";
+    }
+
+    @Override
+    public void emit(Input input, Writer out) throws Exception {
+        DiagramModel diagram = input.diagram();
+        // The writer belongs to the caller
+        try (JsonGenerator json = JSON.createGenerator(out).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            json.writeStartObject();
+            writeString(json, "title", diagram.getTitle());
+            writeString(json, "version", diagram.getVersion());
+            writeString(json, "description", diagram.getDescription());
+            writeString(json, "rankdir", diagram.getRankdir());
+
+            json.writeArrayFieldStart("nodes");
+            if (diagram.getEntities() != null) {
+                for (EntityModel entity : diagram.getEntities()) {
+                    writeNode(json, entity, input.styles().getEntityStyles(entity.getId()));
+                }
+            }
+            json.writeEndArray();
+
+            json.writeArrayFieldStart("edges");
+            if (diagram.getRelationships() != null) {
+                for (RelationshipModel relationship : diagram.getRelationships()) {
+                    json.writeStartObject();
+                    writeString(json, "id", relationship.getId());
+                    json.writeStringField("source", relationship.getFromEntity());
+                    json.writeStringField("target", relationship.getToEntity());
+                    writeString(json, "label", relationship.getLabel());
+                    writeString(json, "type", relationship.getType());
+                    writeString(json, "description", relationship.getDescription());
+                    json.writeEndObject();
+                }
+            }
+            json.writeEndArray();
+
+            json.writeArrayFieldStart("sameRankGroups");
+            if (diagram.getSameRankGroups() != null) {
+                for (List<String> group : diagram.getSameRankGroups()) {
+                    writeStrings(json, group);
+                }
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+        out.write("\n");
+    }
+
+    private static void writeNode(JsonGenerator json, EntityModel entity, Map<String, String> styles) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("id", entity.getId());
+        writeString(json, "name", entity.getName());
+        writeString(json, "domain", entity.getDomain());
+        writeString(json, "description", entity.getDescription());
+
+        json.writeArrayFieldStart("fields");
+        if (entity.getFields() != null) {
+            for (EntityModel.Field field : entity.getFields()) {
+                json.writeStartObject();
+                json.writeStringField("name", field.getName());
+                writeString(json, "type", field.getType());
+                json.writeBooleanField("required", field.isRequired());
+                json.writeBooleanField("key", field.isKey());
+                writeString(json, "description", field.getDescription());
+                json.writeEndObject();
+            }
+        }
+        json.writeEndArray();
+
+        json.writeArrayFieldStart("specialSections");
+        if (entity.getSpecialSections() != null) {
+            for (EntityModel.SpecialSection section : entity.getSpecialSections()) {
+                json.writeStartObject();
+                json.writeStringField("name", section.getName());
+                writeString(json, "type", section.getType());
+                writeString(json, "style", section.getStyle());
+                json.writeEndObject();
+            }
+        }
+        json.writeEndArray();
+
+        json.writeFieldName("constraints");
+        writeStrings(json, entity.getConstraints() != null ? entity.getConstraints() : List.of());
+
+        json.writeObjectFieldStart("style");
+        for (Map.Entry<String, String> style : styles.entrySet()) {
+            json.writeStringField(style.getKey(), style.getValue());
+        }
+        json.writeEndObject();
+        json.writeEndObject();
+    }
+
+    private static void writeStrings(JsonGenerator json, List<String> values) throws IOException {
+        json.writeStartArray();
+        for (String value : values) {
+            json.writeString(value);
+        }
+        json.writeEndArray();
+    }
+
+    private static void writeString(JsonGenerator json, String name, String value) throws IOException {
+        if (value != null) {
+            json.writeStringField(name, value);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.converter.emit;
+
+import com.example.converter.model.DiagramModel;
+import com.example.converter.model.EntityModel;
+import com.example.converter.model.RelationshipModel;
+import org.springframework.stereotype.Component;
+
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Mermaid entity relationship diagram, for wikis and Markdown renderers.
+ * Entities become tables of their fields and special sections, keys are marked PK, and
+ * relationship types map to crow's foot cardinalities.
+ */
+@Component
+public class MermaidEmitter implements DiagramEmitter {
+
+    // Mermaid identifiers and attribute types allow letters, digits, '_' and '-', and types also brackets
+    private static final Pattern INVALID_NAME = Pattern.compile("[^A-Za-z0-9_-]");
+    private static final Pattern INVALID_TYPE = Pattern.compile("[^A-Za-z0-9_\\-\\[\\]()]");
+
+    @Override
+    public String name() {
+        return "mermaid";
+    }
+
+    @Override
+    public String extension() {
+        return "mmd";
+    }
+
+    @Override
+    public void emit(Input input, Writer out) throws Exception {
+        DiagramModel diagram = input.diagram();
+        if (diagram.getTitle() != null && !diagram.getTitle().isEmpty()) {
+            out.write("---\ntitle: " + quote(diagram.getTitle()) + "\n---\n");
+        }
+        out.write("erDiagram\n");
+
+        EntityNames names = new EntityNames();
+        if (diagram.getEntities() != null) {
+            for (EntityModel entity : diagram.getEntities()) {
+                writeEntity(entity, names.of(entity.getId()), out);
+            }
+        }
+        if (diagram.getRelationships() != null) {
+            for (RelationshipModel relationship : diagram.getRelationships()) {
+                out.write("    " + names.of(relationship.getFromEntity()) + " " + cardinality(relationship.getType()) + " "
+                        + names.of(relationship.getToEntity()) + " : " + quote(relationship.getLabel()) + "\n");
+            }
+        }
+    }
+
+    private void writeEntity(EntityModel entity, String entityName, Writer out) throws Exception {
+        out.write("    " + entityName + " {\n");
+        if (entity.getFields() != null) {
+            for (EntityModel.Field field : entity.getFields()) {
+                out.write("        " + type(field.getType()) + " " + name(field.getName()) + (field.isKey() ? " PK" : ""));
+                if (field.getDescription() != null && !field.getDescription().isEmpty()) {
+                    out.write(" " + quote(field.getDescription()));
+                }
+                out.write("\n");
+            }
+        }
+        if (entity.getSpecialSections() != null) {
+            for (EntityModel.SpecialSection section : entity.getSpecialSections()) {
+                out.write("        " + type(section.getType()) + " " + name(section.getName()) + " \"special section\"\n");
+            }
+        }
+        out.write("    }\n");
+    }
+
+    static String cardinality(String relationshipType) {
+        if (relationshipType == null) {
+            return "||--o{";
+        }
+        return switch (relationshipType) {
+            case "one_to_one" -> "||--||";
+            case "many_to_one" -> "}o--||";
+            case "many_to_many" -> "}o--o{";
+            default -> "||--o{";
+        };
+    }
+
+    private static String name(String value) {
+        String name = INVALID_NAME.matcher(value != null ? value : "").replaceAll("_");
+        return name.isEmpty() ? "_" : name;
+    }
+
+    /**
+     * Mermaid names of the entities of one diagram. Ids that sanitize to the same name, such as
+     * a.b and a_b, would merge into one entity, so later ones get a numeric suffix.
+     */
+    private static final class EntityNames {
+        private final Map<String, String> byId = new HashMap<>();
+        private final Set<String> taken = new HashSet<>();
+
+        String of(String id) {
+            return byId.computeIfAbsent(id != null ? id : "", key -> {
+                String base = name(key);
+                String unique = base;
+                for (int suffix = 2; !taken.add(unique); suffix++) {
+                    unique = base + "_" + suffix;
+                }
+                return unique;
+            });
+        }
+    }
+
+    private static String type(String value) {
+        String type = INVALID_TYPE.matcher(value != null ? value : "").replaceAll("_");
+        return type.isEmpty() || !Character.isLetter(type.charAt(0)) ? "t_" + type : type;
+    }
+
+    private static String quote(String value) {
+        return "\"" + (value != null ? value.replace("\"", "'").replace("\n", " ") : "") + "\"";
+    }
+}
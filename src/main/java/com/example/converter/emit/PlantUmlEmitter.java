@@ -0,0 +1,108 @@
+package com.example.converter.emit;
+
+import com.example.converter.model.DiagramModel;
+import com.example.converter.model.EntityModel;
+import com.example.converter.model.RelationshipModel;
+import org.springframework.stereotype.Component;
+
+import java.io.Writer;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * PlantUML entity diagram in information engineering notation.
+ * Keys are listed above a separator, required fields are starred, and each entity takes the
+ * header colour of its compiled style, so the diagram matches the Graphviz output.
+ */
+@Component
+public class PlantUmlEmitter implements DiagramEmitter {
+
+    private static final Pattern INVALID_ALIAS = Pattern.compile("[^A-Za-z0-9_]");
+    private static final Pattern COLOR = Pattern.compile("#?[A-Za-z0-9]+");
+
+    @Override
+    public String name() {
+        return "plantuml";
+    }
+
+    @Override
+    public String extension() {
+        return "puml";
+    }
+
+    @Override
+    public void emit(Input input, Writer out) throws Exception {
+        DiagramModel diagram = input.diagram();
+        out.write("@startuml\n");
+        if (diagram.getTitle() != null && !diagram.getTitle().isEmpty()) {
+            out.write("title " + text(diagram.getTitle()) + "\n");
+        }
+        if ("LR".equals(diagram.getRankdir()) || "RL".equals(diagram.getRankdir())) {
+            out.write("left to right direction\n");
+        }
+        out.write("hide circle\nskinparam linetype ortho\n\n");
+
+        if (diagram.getEntities() != null) {
+            for (EntityModel entity : diagram.getEntities()) {
+                writeEntity(entity, input.styles().getEntityStyles(entity.getId()), out);
+            }
+        }
+        if (diagram.getRelationships() != null) {
+            for (RelationshipModel relationship : diagram.getRelationships()) {
+                out.write(alias(relationship.getFromEntity()) + " " + MermaidEmitter.cardinality(relationship.getType()) + " "
+                        + alias(relationship.getToEntity()));
+                if (relationship.getLabel() != null && !relationship.getLabel().isEmpty()) {
+                    out.write(" : " + text(relationship.getLabel()));
+                }
+                out.write("\n");
+            }
+        }
+        out.write("@enduml\n");
+    }
+
+    private void writeEntity(EntityModel entity, Map<String, String> styles, Writer out) throws Exception {
+        out.write("entity \"" + text(entity.getName() != null ? entity.getName() : entity.getId()) + "\" as " + alias(entity.getId()));
+        String color = styles.get("header_bg");
+        if (color != null && COLOR.matcher(color).matches()) {
+            out.write(" " + (color.startsWith("#") ? color : "#" + color));
+        }
+        out.write(" {\n");
+
+        if (entity.getFields() != null) {
+            boolean keys = false;
+            for (EntityModel.Field field : entity.getFields()) {
+                if (field.isKey()) {
+                    writeField(field, out);
+                    keys = true;
+                }
+            }
+            if (keys) {
+                out.write("  --\n");
+            }
+            for (EntityModel.Field field : entity.getFields()) {
+                if (!field.isKey()) {
+                    writeField(field, out);
+                }
+            }
+        }
+        if (entity.getSpecialSections() != null && !entity.getSpecialSections().isEmpty()) {
+            out.write("  ..\n");
+            for (EntityModel.SpecialSection section : entity.getSpecialSections()) {
+                out.write("  " + text(section.getName()) + " : " + text(section.getType()) + "\n");
+            }
+        }
+        out.write("}\n\n");
+    }
+
+    private static void writeField(EntityModel.Field field, Writer out) throws Exception {
+        out.write("  " + (field.isRequired() ? "* " : "") + text(field.getName()) + " : " + text(field.getType()) + "\n");
+    }
+
+    private static String alias(String id) {
+        return INVALID_ALIAS.matcher(id != null ? id : "").replaceAll("_");
+    }
+
+    private static String text(String value) {
+        return value != null ? value.replace("\"", "'").replace("\n", " ") : "";
+    }
+}
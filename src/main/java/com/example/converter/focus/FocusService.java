@@ -0,0 +1,145 @@
+package com.example.converter.focus;
+
+import com.example.converter.config.DiagramProperties;
+import com.example.converter.core.DiagramConverter;
+import com.example.converter.metrics.ConversionMetrics;
+import com.example.converter.metrics.ConversionStage;
+import com.example.converter.model.DiagramGraph;
+import com.example.converter.model.DiagramModel;
+import com.example.converter.service.DiagramService;
+import com.example.converter.service.GraphvizService;
+import com.example.converter.service.RenderEngine;
+import com.example.converter.util.FileUtils;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Service for diagrams of the neighbourhood of focus entities.
+ * A catalog writes one focused diagram per entity of a model. The model is parsed and
+ * indexed once, and the diagrams are generated and rendered on a pool of workers.
+ */
+@Service
+public class FocusService {
+
+    @Autowired
+    private DiagramConverter diagramConverter;
+
+    @Autowired
+    private DiagramService diagramService;
+
+    @Autowired
+    private GraphvizService graphvizService;
+
+    @Autowired
+    private ConversionMetrics conversionMetrics;
+
+    /**
+     * Configuration, engine and neighbourhood depth, and the formats to render (empty for none)
+     */
+    public record Options(String configFile, RenderEngine engine, int depth, List<String> renderFormats) {
+
+        public Options {
+            renderFormats = renderFormats != null ? List.copyOf(renderFormats) : List.of();
+        }
+    }
+
+    /**
+     * One catalog diagram, with its images if rendered
+     */
+    public record CatalogEntry(String entityId, Path dotFile, List<Path> imageFiles) {
+    }
+
+    /**
+     * Write the diagram of everything within the depth of the focus entities, returning the images if rendered
+     */
+    public List<Path> convert(Path input, Path output, List<String> focusIds, Options options) throws Exception {
+        DiagramProperties config = loadConfiguration(options);
+        NeighborhoodExtractor extractor = new NeighborhoodExtractor(parse(input, config));
+        return write(extractor.extract(focusIds, options.depth()), config, output, options);
+    }
+
+    /**
+     * Write one focused diagram per entity into a directory, named after the entity id
+     * (numbered if two ids reduce to the same file name)
+     */
+    public List<CatalogEntry> catalog(Path input, Path outputDirectory, Options options, int workers,
+                                      Consumer<CatalogEntry> listener) throws Exception {
+        DiagramProperties config = loadConfiguration(options);
+        NeighborhoodExtractor extractor = new NeighborhoodExtractor(parse(input, config));
+        Files.createDirectories(outputDirectory);
+
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try {
+            List<Future<CatalogEntry>> futures = new ArrayList<>();
+            Set<String> usedNames = new HashSet<>();
+            for (String entityId : extractor.entityIds()) {
+                Path dotFile = outputDirectory.resolve(uniqueFileName(entityId, usedNames) + ".dot");
+                futures.add(executor.submit(() -> {
+                    List<Path> images = write(extractor.extract(List.of(entityId), options.depth()), config, dotFile, options);
+                    CatalogEntry entry = new CatalogEntry(entityId, dotFile, images);
+                    listener.accept(entry);
+                    return entry;
+                }));
+            }
+            List<CatalogEntry> entries = new ArrayList<>();
+            for (Future<CatalogEntry> future : futures) {
+                try {
+                    entries.add(future.get());
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof Exception cause ? cause : e;
+                }
+            }
+            return entries;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private DiagramProperties loadConfiguration(Options options) throws Exception {
+        return conversionMetrics.time(ConversionStage.LOAD_CONFIG, () -> diagramService.loadConfiguration(options.configFile()));
+    }
+
+    private DiagramGraph parse(Path input, DiagramProperties config) throws Exception {
+        JsonNode model = diagramConverter.readModel(input);
+        return conversionMetrics.time(ConversionStage.PARSE_MODEL,
+                () -> diagramService.validate(diagramService.parseJsonModel(model), config));
+    }
+
+    private List<Path> write(DiagramModel extract, DiagramProperties config, Path output, Options options) throws Exception {
+        FileUtils.createParentDirectories(output);
+        try (Writer writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            diagramService.writeDotContent(extract, config, options.engine(), writer);
+        }
+        conversionMetrics.recordBytesWritten(Files.size(output));
+        return options.renderFormats().isEmpty() ? List.of() : graphvizService.render(output, options.renderFormats());
+    }
+
+    /**
+     * File name for an entity id reduced to safe characters, numbered when an earlier id already
+     * has it. Names are compared ignoring case, so they stay distinct on case-insensitive file systems.
+     */
+    private static String uniqueFileName(String entityId, Set<String> usedNames) {
+        String name = entityId.replaceAll("[^A-Za-z0-9_.-]", "_");
+        String unique = name;
+        for (int n = 2; !usedNames.add(unique.toLowerCase(Locale.ROOT)); n++) {
+            unique = name + "-" + n;
+        }
+        return unique;
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.converter.focus;
+
+import com.example.converter.model.DiagramGraph;
+import com.example.converter.model.DiagramModel;
+import com.example.converter.model.EntityModel;
+import com.example.converter.model.RelationshipModel;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Extracts the entities within a number of relationship hops of one or more focus entities.
+ * Works on a {@link DiagramGraph} built once per diagram, so a catalog of one extract per
+ * entity does not rescan the relationships. An extract costs time linear in the entities and
+ * relationships it reaches. Relationships leaving the extract are collapsed into a single
+ * summary node that lists the entities on the other side.
+ */
+public final class NeighborhoodExtractor {
+
+    static final String SUMMARY_ID = "outside_focus";
+    static final int SUMMARY_ROWS = 20;
+
+    private final DiagramGraph graph;
+
+    public NeighborhoodExtractor(DiagramGraph graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Ids of all entities, in model order
+     */
+    public List<String> entityIds() {
+        return graph.entities().stream().map(EntityModel::getId).toList();
+    }
+
+    /**
+     * The diagram of everything within depth hops of the focus entities, in either direction
+     */
+    public DiagramModel extract(Collection<String> focusIds, int depth) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("Focus depth must not be negative");
+        }
+
+        // Breadth-first, recording each reached entity's distance
+        Map<String, Integer> distances = new HashMap<>();
+        ArrayDeque<String> queue = new ArrayDeque<>();
+        for (String focusId : focusIds) {
+            if (!graph.contains(focusId)) {
+                throw new IllegalArgumentException("Unknown focus entity: " + focusId);
+            }
+            if (distances.putIfAbsent(focusId, 0) == null) {
+                queue.add(focusId);
+            }
+        }
+        while (!queue.isEmpty()) {
+            String id = queue.poll();
+            int distance = distances.get(id);
+            if (distance == depth) {
+                continue;
+            }
+            for (RelationshipModel relationship : incident(id)) {
+                String other = otherEnd(relationship, id);
+                if (graph.contains(other) && distances.putIfAbsent(other, distance + 1) == null) {
+                    queue.add(other);
+                }
+            }
+        }
+
+        // Induced subgraph, walking only the relationships of reached entities, kept in model order
+        List<String> reached = new ArrayList<>(distances.keySet());
+        reached.sort(Comparator.comparingInt(graph::position));
+        List<EntityModel> included = new ArrayList<>();
+        List<RelationshipModel> inside = new ArrayList<>();
+        Map<String, Integer> outsideCounts = new LinkedHashMap<>();
+        Map<String, Integer> leavingCounts = new LinkedHashMap<>();
+        for (String id : reached) {
+            included.add(graph.entity(id));
+            for (RelationshipModel relationship : incident(id)) {
+                String other = otherEnd(relationship, id);
+                if (distances.containsKey(other)) {
+                    // Each inside relationship is reached from both ends; keep it once, from its source
+                    if (relationship.getFromEntity().equals(id)) {
+                        inside.add(relationship);
+                    }
+                } else if (graph.contains(other)) {
+                    outsideCounts.merge(other, 1, Integer::sum);
+                    leavingCounts.merge(id, 1, Integer::sum);
+                }
+            }
+        }
+        inside.sort(Comparator.comparingInt(graph::position));
+
+        DiagramModel diagram = graph.getDiagram();
+        DiagramModel extract = new DiagramModel();
+        extract.setTitle(diagram.getTitle());
+        extract.setVersion(diagram.getVersion());
+        extract.setDescription("Entities within " + depth + (depth == 1 ? " hop" : " hops") + " of " + String.join(", ", focusIds));
+        extract.setRankdir(diagram.getRankdir());
+        if (!outsideCounts.isEmpty()) {
+            String summaryId = summaryId();
+            included.add(summaryEntity(summaryId, outsideCounts));
+            leavingCounts.forEach((id, count) -> inside.add(summaryRelationship(id, summaryId, count)));
+        }
+        extract.setEntities(included);
+        extract.setRelationships(inside);
+        if (diagram.getSameRankGroups() != null) {
+            List<List<String>> groups = new ArrayList<>();
+            for (List<String> group : diagram.getSameRankGroups()) {
+                List<String> members = group.stream().filter(distances::containsKey).toList();
+                if (!members.isEmpty()) {
+                    groups.add(members);
+                }
+            }
+            extract.setSameRankGroups(groups);
+        }
+        return extract;
+    }
+
+    /**
+     * Relationships from and to an entity, each self-relationship once
+     */
+    private List<RelationshipModel> incident(String id) {
+        List<RelationshipModel> incoming = graph.incoming(id);
+        List<RelationshipModel> relationships = new ArrayList<>(graph.outgoing(id));
+        for (RelationshipModel relationship : incoming) {
+            if (!relationship.getFromEntity().equals(id)) {
+                relationships.add(relationship);
+            }
+        }
+        return relationships;
+    }
+
+    private static String otherEnd(RelationshipModel relationship, String id) {
+        return relationship.getFromEntity().equals(id) ? relationship.getToEntity() : relationship.getFromEntity();
+    }
+
+    private String summaryId() {
+        String id = SUMMARY_ID;
+        for (int n = 2; graph.contains(id); n++) {
+            id = SUMMARY_ID + "_" + n;
+        }
+        return id;
+    }
+
+    /**
+     * An entity listing the entities outside the extract, with the number of relationships to each
+     */
+    private EntityModel summaryEntity(String id, Map<String, Integer> outsideCounts) {
+        List<EntityModel.Field> rows = new ArrayList<>();
+        outsideCounts.forEach((entityId, count) -> {
+            if (rows.size() < SUMMARY_ROWS) {
+                rows.add(new EntityModel.Field(graph.entity(entityId).getName(),
+                        count + (count == 1 ? " relationship" : " relationships"), false, false, ""));
+            }
+        });
+        if (outsideCounts.size() > SUMMARY_ROWS) {
+            rows.add(new EntityModel.Field("and " + (outsideCounts.size() - SUMMARY_ROWS) + " more", "", false, false, ""));
+        }
+        String name = outsideCounts.size() + (outsideCounts.size() == 1 ? " related entity" : " related entities") + " not shown";
+        return new EntityModel(id, name, null, "", rows, null, null);
+    }
+
+    private static RelationshipModel summaryRelationship(String fromId, String summaryId, int count) {
+        return new RelationshipModel(fromId + "_" + summaryId, fromId, summaryId, count + " more", "one_to_many", "");
+    }
+}
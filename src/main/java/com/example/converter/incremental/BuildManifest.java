@@ -0,0 +1,49 @@
+package com.example.converter.incremental;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * On-disk record of what each output was built from, kept next to the outputs.
+ * Input and output paths are relative to the manifest's directory, so a tree can be
+ * moved or checked out elsewhere without invalidating it.
+ */
+public class BuildManifest {
+
+    public static final int FORMAT_VERSION = 1;
+
+    private int version = FORMAT_VERSION;
+
+    // Keyed by input path
+    private Map<String, Entry> entries = new TreeMap<>();
+
+    public int getVersion() { return version; }
+    public void setVersion(int version) { this.version = version; }
+
+    public Map<String, Entry> getEntries() { return entries; }
+    public void setEntries(Map<String, Entry> entries) { this.entries = entries; }
+
+    /**
+     * Hashes of one input and the fingerprint each of its outputs was built from
+     */
+    public static class Entry {
+        private String inputHash;
+        private String configHash;
+        private String templateHash;
+
+        // Output path to the fingerprint it was built from
+        private Map<String, String> outputs = new TreeMap<>();
+
+        public String getInputHash() { return inputHash; }
+        public void setInputHash(String inputHash) { this.inputHash = inputHash; }
+
+        public String getConfigHash() { return configHash; }
+        public void setConfigHash(String configHash) { this.configHash = configHash; }
+
+        public String getTemplateHash() { return templateHash; }
+        public void setTemplateHash(String templateHash) { this.templateHash = templateHash; }
+
+        public Map<String, String> getOutputs() { return outputs; }
+        public void setOutputs(Map<String, String> outputs) { this.outputs = outputs; }
+    }
+}
@@ -0,0 +1,246 @@
+package com.example.converter.incremental;
+
+import com.example.converter.config.DiagramProperties;
+import com.example.converter.service.DiagramService;
+import com.example.converter.service.RenderEngine;
+import com.example.converter.template.TemplateCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Service for incremental conversion.
+ * An output is up to date when the manifest records it as built from the current
+ * fingerprint: the SHA-256 of the input file, of the effective merged configuration and
+ * of the template sources, together with the rendering engine. Up-to-date outputs skip
+ * both DOT generation and Graphviz rendering.
+ */
+@Service
+public class IncrementalBuildService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IncrementalBuildService.class);
+
+    public static final String MANIFEST_FILE_NAME = ".json-to-dot-manifest.json";
+
+    @Autowired
+    private DiagramService diagramService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TemplateCache templateCache;
+
+    /**
+     * Hashes identifying what an output is built from
+     */
+    public record Fingerprint(String inputHash, String value) {
+    }
+
+    /**
+     * Open the manifest in a directory for one run with the given configuration and engine
+     */
+    public Session open(Path directory, String configFile, RenderEngine engine) throws Exception {
+        DiagramProperties config = diagramService.loadConfiguration(configFile);
+        Path baseDirectory = directory.toAbsolutePath().normalize();
+        return new Session(baseDirectory, loadManifest(baseDirectory.resolve(MANIFEST_FILE_NAME)),
+                configHash(config), templateHash(config), engine);
+    }
+
+    private BuildManifest loadManifest(Path manifestFile) {
+        if (!Files.exists(manifestFile)) {
+            return new BuildManifest();
+        }
+        try {
+            BuildManifest manifest = objectMapper.readValue(manifestFile.toFile(), BuildManifest.class);
+            if (manifest.getVersion() == BuildManifest.FORMAT_VERSION) {
+                return manifest;
+            }
+            logger.info("Manifest {} has format version {}, rebuilding everything", manifestFile, manifest.getVersion());
+        } catch (IOException e) {
+            logger.warn("Could not read manifest {}, rebuilding everything: {}", manifestFile, e.getMessage());
+        }
+        return new BuildManifest();
+    }
+
+    private String configHash(DiagramProperties config) throws IOException {
+        // Sorted map keys keep the hash stable for equal configurations
+        byte[] json = objectMapper.copy()
+                .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true)
+                .writeValueAsBytes(config);
+        MessageDigest digest = newDigest();
+        digest.update(json);
+        // A new converter release may render the same configuration differently
+        digest.update(String.valueOf(DiagramService.class.getPackage().getImplementationVersion()).getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private String templateHash(DiagramProperties config) throws IOException {
+        DiagramProperties.Templates templates = config.getTemplates();
+        MessageDigest digest = newDigest();
+        for (String name : List.of(templates.getMainTemplate(), templates.getEntityTemplate(), templates.getRelationshipTemplate())) {
+            digest.update(name.getBytes(StandardCharsets.UTF_8));
+            byte[] source = templateCache.readSource(name);
+            if (source != null) {
+                digest.update(source);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static String fileHash(Path file) throws IOException {
+        MessageDigest digest = newDigest();
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * One incremental run against a manifest. Safe for concurrent use by batch workers
+     * as long as each input is converted by one worker at a time.
+     */
+    public final class Session {
+
+        private final Path baseDirectory;
+        private final String configHash;
+        private final String templateHash;
+        private final RenderEngine engine;
+        private final Map<String, BuildManifest.Entry> entries;
+        private final LongAdder skipped = new LongAdder();
+        private final LongAdder rebuilt = new LongAdder();
+
+        private Session(Path baseDirectory, BuildManifest manifest, String configHash, String templateHash, RenderEngine engine) {
+            this.baseDirectory = baseDirectory;
+            this.configHash = configHash;
+            this.templateHash = templateHash;
+            this.engine = engine;
+            this.entries = new ConcurrentHashMap<>(manifest.getEntries());
+        }
+
+        /**
+         * Hash an input together with this run's configuration, templates and engine
+         */
+        public Fingerprint fingerprint(Path input) throws IOException {
+            String inputHash = fileHash(input);
+            MessageDigest digest = newDigest();
+            for (String part : List.of(inputHash, configHash, templateHash, engine.name())) {
+                digest.update(part.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            }
+            return new Fingerprint(inputHash, HexFormat.of().formatHex(digest.digest()));
+        }
+
+        /**
+         * Whether an output exists and was last built from this fingerprint
+         */
+        public boolean isUpToDate(Path input, Path output, Fingerprint fingerprint) {
+            BuildManifest.Entry entry = entries.get(key(input));
+            return entry != null
+                    && fingerprint.value().equals(entry.getOutputs().get(key(output)))
+                    && Files.exists(output);
+        }
+
+        /**
+         * Record that an output was built from this fingerprint
+         */
+        public void recordOutput(Path input, Path output, Fingerprint fingerprint) {
+            BuildManifest.Entry entry = entries.computeIfAbsent(key(input), k -> new BuildManifest.Entry());
+            entry.setInputHash(fingerprint.inputHash());
+            entry.setConfigHash(configHash);
+            entry.setTemplateHash(templateHash);
+            entry.getOutputs().put(key(output), fingerprint.value());
+        }
+
+        public void recordSkipped() {
+            skipped.increment();
+        }
+
+        public void recordRebuilt() {
+            rebuilt.increment();
+        }
+
+        public long getSkipped() {
+            return skipped.sum();
+        }
+
+        public long getRebuilt() {
+            return rebuilt.sum();
+        }
+
+        /**
+         * Delete the outputs of inputs that no longer exist and forget them.
+         * Returns the number of files deleted.
+         */
+        public int removeStaleOutputs() throws IOException {
+            int deleted = 0;
+            for (Iterator<Map.Entry<String, BuildManifest.Entry>> iterator = entries.entrySet().iterator(); iterator.hasNext(); ) {
+                Map.Entry<String, BuildManifest.Entry> entry = iterator.next();
+                if (Files.exists(baseDirectory.resolve(entry.getKey()))) {
+                    continue;
+                }
+                for (String output : entry.getValue().getOutputs().keySet()) {
+                    if (Files.deleteIfExists(baseDirectory.resolve(output))) {
+                        logger.debug("Deleted stale output {}", output);
+                        deleted++;
+                    }
+                }
+                iterator.remove();
+            }
+            return deleted;
+        }
+
+        /**
+         * Write the manifest atomically
+         */
+        public void save() throws IOException {
+            BuildManifest manifest = new BuildManifest();
+            manifest.setEntries(entries);
+
+            Path manifestFile = baseDirectory.resolve(MANIFEST_FILE_NAME);
+            Files.createDirectories(baseDirectory);
+            Path tempFile = Files.createTempFile(baseDirectory, MANIFEST_FILE_NAME, ".tmp");
+            try {
+                objectMapper.writer(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+                        .withDefaultPrettyPrinter()
+                        .writeValue(tempFile.toFile(), manifest);
+                Files.move(tempFile, manifestFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+        }
+
+        private String key(Path path) {
+            // Forward slashes keep manifests portable between platforms
+            return baseDirectory.relativize(path.toAbsolutePath().normalize()).toString().replace('\\', '/');
+        }
+    }
+}
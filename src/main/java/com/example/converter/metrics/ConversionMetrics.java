@@ -0,0 +1,154 @@
+package com.example.converter.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer timers and counters for conversions.
+ * Meters are registered with the application's {@link MeterRegistry} when there is one, so
+ * embedders see them alongside their own metrics; otherwise a private simple registry is used.
+ * Every timed stage is also emitted as a {@link ConversionStageEvent} for JFR recordings.
+ */
+@Component
+public class ConversionMetrics {
+
+    public static final String STAGE_TIMER = "converter.stage";
+    public static final String ENTITIES = "converter.entities";
+    public static final String FIELDS = "converter.fields";
+    public static final String RELATIONSHIPS = "converter.relationships";
+    public static final String BYTES_WRITTEN = "converter.bytes.written";
+    public static final String TEMPLATE_FALLBACKS = "converter.template.fallbacks";
+
+    private final MeterRegistry registry;
+    private final Map<ConversionStage, Timer> stageTimers = new EnumMap<>(ConversionStage.class);
+    private final Counter entities;
+    private final Counter fields;
+    private final Counter relationships;
+    private final Counter bytesWritten;
+    private final Counter templateFallbacks;
+
+    /**
+     * A stage action without a result
+     */
+    @FunctionalInterface
+    public interface StageAction {
+        void run() throws Exception;
+    }
+
+    /**
+     * Totals of one stage timer
+     */
+    public record StageStatistics(String stage, String label, long count, double totalMillis, double meanMillis, double maxMillis) {
+    }
+
+    /**
+     * Point-in-time totals of all stage timers and counters
+     */
+    public record Statistics(List<StageStatistics> stages, long entities, long fields, long relationships,
+                             long bytesWritten, long templateFallbacks) {
+    }
+
+    @Autowired
+    public ConversionMetrics(ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        this(meterRegistryProvider.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    /**
+     * Register the converter's meters with the given registry
+     */
+    public ConversionMetrics(MeterRegistry registry) {
+        this.registry = registry;
+
+        for (ConversionStage stage : ConversionStage.values()) {
+            stageTimers.put(stage, Timer.builder(STAGE_TIMER)
+                    .description("Time spent in each conversion stage")
+                    .tag("stage", stage.getTag())
+                    .register(registry));
+        }
+        entities = Counter.builder(ENTITIES).description("Entities parsed").register(registry);
+        fields = Counter.builder(FIELDS).description("Entity fields parsed").register(registry);
+        relationships = Counter.builder(RELATIONSHIPS).description("Relationships parsed").register(registry);
+        bytesWritten = Counter.builder(BYTES_WRITTEN).description("DOT output written").baseUnit("bytes").register(registry);
+        templateFallbacks = Counter.builder(TEMPLATE_FALLBACKS)
+                .description("Renders that fell back to simple generation after a template failure")
+                .register(registry);
+    }
+
+    /**
+     * The registry holding the converter's meters
+     */
+    public MeterRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Time a stage that produces a result
+     */
+    public <T> T time(ConversionStage stage, Callable<T> action) throws Exception {
+        ConversionStageEvent event = new ConversionStageEvent();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            return action.call();
+        } finally {
+            stageTimers.get(stage).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (event.shouldCommit()) {
+                event.stage = stage.getTag();
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Time a stage without a result
+     */
+    public void run(ConversionStage stage, StageAction action) throws Exception {
+        time(stage, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public void recordEntity(int fieldCount) {
+        entities.increment();
+        fields.increment(fieldCount);
+    }
+
+    public void recordRelationship() {
+        relationships.increment();
+    }
+
+    public void recordBytesWritten(long bytes) {
+        bytesWritten.increment(bytes);
+    }
+
+    public void recordTemplateFallback() {
+        templateFallbacks.increment();
+    }
+
+    /**
+     * Current totals, with stages in pipeline order
+     */
+    public Statistics getStatistics() {
+        List<StageStatistics> stages = new ArrayList<>();
+        for (Map.Entry<ConversionStage, Timer> entry : stageTimers.entrySet()) {
+            Timer timer = entry.getValue();
+            stages.add(new StageStatistics(entry.getKey().getTag(), entry.getKey().getLabel(), timer.count(),
+                    timer.totalTime(TimeUnit.MILLISECONDS), timer.mean(TimeUnit.MILLISECONDS), timer.max(TimeUnit.MILLISECONDS)));
+        }
+        return new Statistics(stages, (long) entities.count(), (long) fields.count(), (long) relationships.count(),
+                (long) bytesWritten.count(), (long) templateFallbacks.count());
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.converter.metrics;
+
+/**
+ * Timed stages of a conversion, in pipeline order
+ */
+public enum ConversionStage {
+
+    /** Reading the input file into a JSON tree (or the streamed document header) */
+    READ_JSON("read_json", "Read JSON"),
+
+    /** Loading and merging the diagram configuration */
+    LOAD_CONFIG("load_config", "Load config"),
+
+    /** Building the diagram model from the JSON tree */
+    PARSE_MODEL("parse_model", "Parse model"),
+
+    /** Rendering DOT text; when streaming this also parses and writes the entities */
+    RENDER("render", "Render"),
+
+    /** Writing the DOT file */
+    WRITE_OUTPUT("write_output", "Write output"),
+
+    /** Running the Graphviz dot process */
+    GRAPHVIZ("graphviz", "Graphviz");
+
+    private final String tag;
+    private final String label;
+
+    ConversionStage(String tag, String label) {
+        this.tag = tag;
+        this.label = label;
+    }
+
+    /**
+     * Value of the {@code stage} tag on the stage timer
+     */
+    public String getTag() {
+        return tag;
+    }
+
+    /**
+     * Human readable name for reports
+     */
+    public String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.converter.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event spanning one conversion stage, so stages can be lined up against GC and
+ * other JVM events in a recording. Costs next to nothing when no recording is active.
+ */
+@Name("com.example.converter.ConversionStage")
+@Label("Conversion Stage")
+@Category("JSON to DOT Converter")
+@Description("One stage of a JSON to DOT conversion")
+@StackTrace(false)
+class ConversionStageEvent extends jdk.jfr.Event {
+
+    @Label("Stage")
+    String stage;
+}
@@ -0,0 +1,168 @@
+package com.example.converter.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index over a diagram's entities and relationships, built once per diagram.
+ * Gives the entity for an id, the relationships leaving and entering each entity, and the
+ * model order of both, for any feature that walks the relationship graph. Relationships are
+ * indexed under their ids as written, so those referring to unknown entities are still
+ * visible to {@link #validate()}.
+ */
+public final class DiagramGraph {
+
+    private final DiagramModel diagram;
+    private final Map<String, EntityModel> entities = new LinkedHashMap<>();
+    private final Map<String, Integer> positions = new HashMap<>();
+    private final Map<RelationshipModel, Integer> relationshipPositions = new IdentityHashMap<>();
+    private final Map<String, List<RelationshipModel>> outgoing = new HashMap<>();
+    private final Map<String, List<RelationshipModel>> incoming = new HashMap<>();
+    private final List<String> duplicateIds = new ArrayList<>();
+
+    /**
+     * How serious a validation problem is. Errors make Graphviz invent nodes or drop entities;
+     * warnings are legal but often unintended.
+     */
+    public enum Severity {
+        ERROR, WARNING
+    }
+
+    /**
+     * One problem found by {@link #validate()}
+     */
+    public record Problem(Severity severity, String message) {
+    }
+
+    private DiagramGraph(DiagramModel diagram) {
+        this.diagram = diagram;
+        for (EntityModel entity : diagram.getEntities() != null ? diagram.getEntities() : List.<EntityModel>of()) {
+            if (entities.putIfAbsent(entity.getId(), entity) == null) {
+                positions.put(entity.getId(), positions.size());
+            } else {
+                duplicateIds.add(entity.getId());
+            }
+        }
+        for (RelationshipModel relationship : relationships()) {
+            relationshipPositions.put(relationship, relationshipPositions.size());
+            outgoing.computeIfAbsent(relationship.getFromEntity(), id -> new ArrayList<>()).add(relationship);
+            incoming.computeIfAbsent(relationship.getToEntity(), id -> new ArrayList<>()).add(relationship);
+        }
+    }
+
+    /**
+     * Index a diagram. Later changes to the diagram's lists are not reflected.
+     */
+    public static DiagramGraph of(DiagramModel diagram) {
+        return new DiagramGraph(diagram);
+    }
+
+    public DiagramModel getDiagram() {
+        return diagram;
+    }
+
+    /**
+     * Entities in model order; of entities sharing an id, only the first
+     */
+    public Collection<EntityModel> entities() {
+        return Collections.unmodifiableCollection(entities.values());
+    }
+
+    public List<RelationshipModel> relationships() {
+        return diagram.getRelationships() != null ? diagram.getRelationships() : List.of();
+    }
+
+    public boolean contains(String id) {
+        return entities.containsKey(id);
+    }
+
+    /**
+     * The entity with an id, or null if there is none
+     */
+    public EntityModel entity(String id) {
+        return entities.get(id);
+    }
+
+    /**
+     * Index of an entity in model order
+     */
+    public int position(String id) {
+        return positions.get(id);
+    }
+
+    /**
+     * Index of a relationship in model order
+     */
+    public int position(RelationshipModel relationship) {
+        return relationshipPositions.get(relationship);
+    }
+
+    /**
+     * Relationships from an entity, in model order
+     */
+    public List<RelationshipModel> outgoing(String id) {
+        return outgoing.getOrDefault(id, List.of());
+    }
+
+    /**
+     * Relationships to an entity, in model order
+     */
+    public List<RelationshipModel> incoming(String id) {
+        return incoming.getOrDefault(id, List.of());
+    }
+
+    public int outDegree(String id) {
+        return outgoing(id).size();
+    }
+
+    public int inDegree(String id) {
+        return incoming(id).size();
+    }
+
+    /**
+     * Check every reference in one pass over the entities, relationships and layout hints:
+     * duplicate entity ids and relationship or same-rank references to unknown entities are
+     * errors, self-relationships are warnings
+     */
+    public List<Problem> validate() {
+        List<Problem> problems = new ArrayList<>();
+        for (String id : duplicateIds) {
+            problems.add(new Problem(Severity.ERROR, "Duplicate entity id '" + id + "'; only the first definition is used"));
+        }
+        for (RelationshipModel relationship : relationships()) {
+            String from = relationship.getFromEntity();
+            String to = relationship.getToEntity();
+            String name = describe(relationship);
+            if (!contains(from)) {
+                problems.add(new Problem(Severity.ERROR, name + " starts at unknown entity '" + from + "'"));
+            }
+            if (!contains(to)) {
+                problems.add(new Problem(Severity.ERROR, name + " ends at unknown entity '" + to + "'"));
+            }
+            if (from.equals(to)) {
+                problems.add(new Problem(Severity.WARNING, name + " relates entity '" + from + "' to itself"));
+            }
+        }
+        if (diagram.getSameRankGroups() != null) {
+            for (List<String> group : diagram.getSameRankGroups()) {
+                for (String id : group) {
+                    if (!contains(id)) {
+                        problems.add(new Problem(Severity.ERROR, "Same-rank group " + group + " refers to unknown entity '" + id + "'"));
+                    }
+                }
+            }
+        }
+        return problems;
+    }
+
+    private static String describe(RelationshipModel relationship) {
+        String id = relationship.getId() != null && !relationship.getId().isEmpty() ? "'" + relationship.getId() + "' " : "";
+        return "Relationship " + id + "(" + relationship.getFromEntity() + " -> " + relationship.getToEntity() + ")";
+    }
+}
@@ -2,76 +2,153 @@
 package com.example.converter.model;
 
 import java.util.List;
+import java.util.Objects;
+
+/**
+ * A parsed entity. Immutable: its lists are read-only and its fields and special sections are
+ * values, so a model can be shared by concurrent renders and rows can be kept as they are.
+ * Derived diagrams, such as a focus extract or a schema diff, build changed copies.
+ */
+public final class EntityModel {
+    private final String id;
+    private final String name;
+    private final String domain;
+    private final String description;
+    private final List<Field> fields;
+    private final List<SpecialSection> specialSections;
+    private final List<String> constraints;
+
+    /**
+     * An entity; null lists stay null, others are copied into read-only lists unless already read-only copies
+     */
+    public EntityModel(String id, String name, String domain, String description, List<Field> fields,
+                       List<SpecialSection> specialSections, List<String> constraints) {
+        this.id = id;
+        this.name = name;
+        this.domain = domain;
+        this.description = description;
+        this.fields = fields != null ? List.copyOf(fields) : null;
+        this.specialSections = specialSections != null ? List.copyOf(specialSections) : null;
+        this.constraints = constraints != null ? List.copyOf(constraints) : null;
+    }
 
-public class EntityModel {
-    private String id;
-    private String name;
-    private String description;
-    private List<Field> fields;
-    private List<SpecialSection> specialSections;
-    private List<String> constraints;
-
-    // Getters and setters
+    // Getters
     public String getId() { return id; }
-    public void setId(String id) { this.id = id; }
 
     public String getName() { return name; }
-    public void setName(String name) { this.name = name; }
+
+    public String getDomain() { return domain; }
 
     public String getDescription() { return description; }
-    public void setDescription(String description) { this.description = description; }
 
     public List<Field> getFields() { return fields; }
-    public void setFields(List<Field> fields) { this.fields = fields; }
 
     public List<SpecialSection> getSpecialSections() { return specialSections; }
-    public void setSpecialSections(List<SpecialSection> specialSections) { this.specialSections = specialSections; }
 
     public List<String> getConstraints() { return constraints; }
-    public void setConstraints(List<String> constraints) { this.constraints = constraints; }
+
+    /**
+     * A copy of this entity with other fields
+     */
+    public EntityModel withFields(List<Field> fields) {
+        return new EntityModel(id, name, domain, description, fields, specialSections, constraints);
+    }
 
     // Inner classes
-    public static class Field {
-        private String name;
-        private String type;
-        private boolean required;
-        private boolean key;
-        private String description;
-
-        // Getters and setters
+
+    /**
+     * One row of an entity's field table, with the required and key flags packed into a byte
+     */
+    public static final class Field {
+        private static final byte REQUIRED = 1;
+        private static final byte KEY = 2;
+
+        private final String name;
+        private final String type;
+        private final String description;
+        private final byte flags;
+
+        public Field(String name, String type, boolean required, boolean key, String description) {
+            this.name = name;
+            this.type = type;
+            this.description = description;
+            this.flags = (byte) ((required ? REQUIRED : 0) | (key ? KEY : 0));
+        }
+
+        // Getters
         public String getName() { return name; }
-        public void setName(String name) { this.name = name; }
 
         public String getType() { return type; }
-        public void setType(String type) { this.type = type; }
 
-        public boolean isRequired() { return required; }
-        public void setRequired(boolean required) { this.required = required; }
+        public boolean isRequired() { return (flags & REQUIRED) != 0; }
 
-        public boolean isKey() { return key; }
-        public void setKey(boolean key) { this.key = key; }
+        public boolean isKey() { return (flags & KEY) != 0; }
 
         public String getDescription() { return description; }
-        public void setDescription(String description) { this.description = description; }
-    }
 
-    public static class SpecialSection {
-        private String name;
-        private String type;
-        private String style;
-        private boolean is_required;
+        /**
+         * A copy of this field under another name
+         */
+        public Field withName(String name) {
+            return new Field(name, type, isRequired(), isKey(), description);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Field other && flags == other.flags && Objects.equals(name, other.name)
+                    && Objects.equals(type, other.type) && Objects.equals(description, other.description);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, type, flags, description);
+        }
+
+        @Override
+        public String toString() {
+            return name + " " + type + (isKey() ? " key" : "") + (isRequired() ? " required" : "");
+        }
+    }
 
-        // Getters and setters
+    /**
+     * A highlighted row below the fields, such as an audit column
+     */
+    public static final class SpecialSection {
+        private final String name;
+        private final String type;
+        private final String style;
+        private final boolean is_required;
+
+        public SpecialSection(String name, String type, String style, boolean is_required) {
+            this.name = name;
+            this.type = type;
+            this.style = style;
+            this.is_required = is_required;
+        }
+
+        // Getters; the odd name matches the JSON key that templates refer to as $section.is_required
         public String getName() { return name; }
-        public void setName(String name) { this.name = name; }
 
         public String getType() { return type; }
-        public void setType(String type) { this.type = type; }
 
         public String getStyle() { return style; }
-        public void setStyle(String style) { this.style = style; }
 
         public boolean isIs_required() { return is_required; }
-        public void setIs_required(boolean is_required) { this.is_required = is_required; }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof SpecialSection other && is_required == other.is_required && Objects.equals(name, other.name)
+                    && Objects.equals(type, other.type) && Objects.equals(style, other.style);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, type, style, is_required);
+        }
+
+        @Override
+        public String toString() {
+            return name + " " + type;
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,59 +1,54 @@
 package com.example.converter.model;
 
-public class RelationshipModel {
-    private String id;
-    private String fromEntity;
-    private String toEntity;
-    private String label;
-    private String type;
-    private String description;
-
-    // Getters and setters
-    public String getId() {
-        return id;
+/**
+ * A parsed relationship between two entities. Immutable, like {@link EntityModel}.
+ */
+public final class RelationshipModel {
+    private final String id;
+    private final String fromEntity;
+    private final String toEntity;
+    private final String label;
+    private final String type;
+    private final String description;
+
+    public RelationshipModel(String id, String fromEntity, String toEntity, String label, String type, String description) {
+        this.id = id;
+        this.fromEntity = fromEntity;
+        this.toEntity = toEntity;
+        this.label = label;
+        this.type = type;
+        this.description = description;
     }
 
-    public void setId(String id) {
-        this.id = id;
+    // Getters
+    public String getId() {
+        return id;
     }
 
     public String getFromEntity() {
         return fromEntity;
     }
 
-    public void setFromEntity(String fromEntity) {
-        this.fromEntity = fromEntity;
-    }
-
     public String getToEntity() {
         return toEntity;
     }
 
-    public void setToEntity(String toEntity) {
-        this.toEntity = toEntity;
-    }
-
     public String getLabel() {
         return label;
     }
 
-    public void setLabel(String label) {
-        this.label = label;
-    }
-
     public String getType() {
         return type;
     }
 
-    public void setType(String type) {
-        this.type = type;
-    }
-
     public String getDescription() {
         return description;
     }
 
-    public void setDescription(String description) {
-        this.description = description;
+    /**
+     * A copy of this relationship with another label
+     */
+    public RelationshipModel withLabel(String label) {
+        return new RelationshipModel(id, fromEntity, toEntity, label, type, description);
     }
 }
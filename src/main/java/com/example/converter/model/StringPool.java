@@ -0,0 +1,49 @@
+package com.example.converter.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Dictionary of the strings of one parsed model. Values that repeat across a model, such as
+ * field names and types, audit sections, relationship labels and the entity ids relationships
+ * refer to, are kept once instead of once per occurrence. Not thread-safe; use one pool per parse.
+ */
+public final class StringPool {
+
+    private static final StringPool UNPOOLED = new StringPool(null);
+
+    private final Map<String, String> strings;
+
+    public StringPool() {
+        this(new HashMap<>());
+    }
+
+    private StringPool(Map<String, String> strings) {
+        this.strings = strings;
+    }
+
+    /**
+     * A pool that keeps every string as given, for entities that are discarded once rendered
+     */
+    public static StringPool unpooled() {
+        return UNPOOLED;
+    }
+
+    /**
+     * The pooled instance equal to a value, adding the value if it is new
+     */
+    public String intern(String value) {
+        if (strings == null || value == null) {
+            return value;
+        }
+        String existing = strings.putIfAbsent(value, value);
+        return existing != null ? existing : value;
+    }
+
+    /**
+     * Number of distinct strings in the pool
+     */
+    public int size() {
+        return strings != null ? strings.size() : 0;
+    }
+}
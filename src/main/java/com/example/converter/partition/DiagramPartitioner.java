@@ -0,0 +1,212 @@
+package com.example.converter.partition;
+
+import com.example.converter.model.DiagramGraph;
+import com.example.converter.model.DiagramModel;
+import com.example.converter.model.EntityModel;
+import com.example.converter.model.RelationshipModel;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Splits a diagram model into parts that Graphviz can lay out independently.
+ * Relationships inside a part stay in its diagram; relationships between parts are
+ * collected as links between the parts, for the index diagram that stitches them together.
+ */
+public final class DiagramPartitioner {
+
+    static final String OTHER_DOMAIN = "Other";
+    static final String UNCONNECTED = "unconnected";
+
+    private DiagramPartitioner() {
+    }
+
+    /**
+     * One part of the diagram, as a diagram of its own
+     */
+    public record Partition(String name, DiagramModel diagram) {
+    }
+
+    /**
+     * The relationships from one part to another, in model order
+     */
+    public record Link(String from, String to, List<String> labels) {
+    }
+
+    /**
+     * The parts of a diagram and the links between them
+     */
+    public record Partitioning(DiagramModel source, List<Partition> partitions, List<Link> links) {
+    }
+
+    /**
+     * Partition a diagram. A positive maxNodes also splits any part larger than that;
+     * the size strategy requires it.
+     */
+    public static Partitioning partition(DiagramGraph graph, PartitionStrategy strategy, int maxNodes) {
+        if (strategy == PartitionStrategy.SIZE && maxNodes < 1) {
+            throw new IllegalArgumentException("Partitioning by size needs a maximum node count");
+        }
+        DiagramModel diagram = graph.getDiagram();
+        List<EntityModel> entities = List.copyOf(graph.entities());
+
+        Map<String, List<EntityModel>> groups = switch (strategy) {
+            case DOMAIN -> byDomain(entities);
+            case COMPONENT -> byComponent(entities, graph);
+            case SIZE -> Map.of("part", entities);
+        };
+        if (maxNodes > 0) {
+            groups = split(groups, maxNodes, graph);
+        }
+
+        Map<String, String> partitionOf = new HashMap<>();
+        groups.forEach((name, members) -> members.forEach(entity -> partitionOf.put(entity.getId(), name)));
+
+        Map<String, List<RelationshipModel>> internal = new LinkedHashMap<>();
+        Map<List<String>, List<String>> crossing = new LinkedHashMap<>();
+        for (RelationshipModel relationship : graph.relationships()) {
+            String from = partitionOf.get(relationship.getFromEntity());
+            String to = partitionOf.get(relationship.getToEntity());
+            if (from == null || to == null) {
+                continue;
+            }
+            if (from.equals(to)) {
+                internal.computeIfAbsent(from, name -> new ArrayList<>()).add(relationship);
+            } else {
+                crossing.computeIfAbsent(List.of(from, to), pair -> new ArrayList<>()).add(relationship.getLabel());
+            }
+        }
+
+        List<Partition> partitions = new ArrayList<>();
+        groups.forEach((name, members) -> partitions.add(
+                new Partition(name, subDiagram(diagram, name, members, internal.getOrDefault(name, List.of())))));
+        List<Link> links = new ArrayList<>();
+        crossing.forEach((pair, labels) -> links.add(new Link(pair.get(0), pair.get(1), labels)));
+        return new Partitioning(diagram, partitions, links);
+    }
+
+    private static Map<String, List<EntityModel>> byDomain(List<EntityModel> entities) {
+        Map<String, List<EntityModel>> groups = new LinkedHashMap<>();
+        for (EntityModel entity : entities) {
+            String domain = entity.getDomain() != null && !entity.getDomain().isBlank() ? entity.getDomain() : OTHER_DOMAIN;
+            groups.computeIfAbsent(domain, name -> new ArrayList<>()).add(entity);
+        }
+        return groups;
+    }
+
+    private static Map<String, List<EntityModel>> byComponent(List<EntityModel> entities, DiagramGraph graph) {
+        Map<String, List<EntityModel>> groups = new LinkedHashMap<>();
+        List<EntityModel> unconnected = new ArrayList<>();
+        Set<String> visited = new HashSet<>();
+        for (List<EntityModel> component : traverse(entities, graph, visited)) {
+            if (component.size() == 1) {
+                unconnected.add(component.get(0));
+            } else {
+                groups.put("component-" + (groups.size() + 1), component);
+            }
+        }
+        if (!unconnected.isEmpty()) {
+            groups.put(UNCONNECTED, unconnected);
+        }
+        return groups;
+    }
+
+    /**
+     * Split groups larger than maxNodes into numbered chunks, in traversal order. Chunk names
+     * skip any name already taken, so a chunk never replaces a group such as a domain called "billing-1".
+     */
+    private static Map<String, List<EntityModel>> split(Map<String, List<EntityModel>> groups, int maxNodes, DiagramGraph graph) {
+        Map<String, List<EntityModel>> result = new LinkedHashMap<>();
+        groups.forEach((name, members) -> {
+            if (members.size() <= maxNodes) {
+                add(result, name, members);
+                return;
+            }
+            List<EntityModel> ordered = traverse(members, graph, new HashSet<>()).stream().flatMap(List::stream).toList();
+            for (int start = 0, part = 1; start < ordered.size(); start += maxNodes, part++) {
+                String chunkName = name + "-" + part;
+                for (int n = 2; groups.containsKey(chunkName) || result.containsKey(chunkName); n++) {
+                    chunkName = name + "-" + part + "-" + n;
+                }
+                add(result, chunkName, ordered.subList(start, Math.min(ordered.size(), start + maxNodes)));
+            }
+        });
+        return result;
+    }
+
+    private static void add(Map<String, List<EntityModel>> groups, String name, List<EntityModel> members) {
+        if (groups.putIfAbsent(name, members) != null) {
+            throw new IllegalStateException("Duplicate partition name: " + name);
+        }
+    }
+
+    /**
+     * Breadth-first traversal of the given entities, one list per connected component, staying within the given entities
+     */
+    private static List<List<EntityModel>> traverse(List<EntityModel> entities, DiagramGraph graph, Set<String> visited) {
+        Map<String, EntityModel> byId = new LinkedHashMap<>();
+        entities.forEach(entity -> byId.putIfAbsent(entity.getId(), entity));
+
+        List<List<EntityModel>> components = new ArrayList<>();
+        for (EntityModel start : byId.values()) {
+            if (!visited.add(start.getId())) {
+                continue;
+            }
+            List<EntityModel> component = new ArrayList<>();
+            Deque<EntityModel> queue = new ArrayDeque<>();
+            queue.add(start);
+            while (!queue.isEmpty()) {
+                EntityModel entity = queue.poll();
+                component.add(entity);
+                for (RelationshipModel relationship : graph.outgoing(entity.getId())) {
+                    visit(relationship.getToEntity(), byId, visited, queue);
+                }
+                for (RelationshipModel relationship : graph.incoming(entity.getId())) {
+                    visit(relationship.getFromEntity(), byId, visited, queue);
+                }
+            }
+            components.add(component);
+        }
+        return components;
+    }
+
+    private static void visit(String id, Map<String, EntityModel> byId, Set<String> visited, Deque<EntityModel> queue) {
+        EntityModel next = byId.get(id);
+        if (next != null && visited.add(id)) {
+            queue.add(next);
+        }
+    }
+
+    private static DiagramModel subDiagram(DiagramModel diagram, String name, List<EntityModel> entities,
+                                           List<RelationshipModel> relationships) {
+        Set<String> ids = new HashSet<>();
+        entities.forEach(entity -> ids.add(entity.getId()));
+
+        DiagramModel part = new DiagramModel();
+        part.setTitle(diagram.getTitle());
+        part.setVersion(diagram.getVersion());
+        part.setDescription("Part " + name + (diagram.getDescription() != null && !diagram.getDescription().isEmpty()
+                ? " of " + diagram.getDescription() : ""));
+        part.setRankdir(diagram.getRankdir());
+        part.setEntities(List.copyOf(entities));
+        part.setRelationships(List.copyOf(relationships));
+        if (diagram.getSameRankGroups() != null) {
+            List<List<String>> groups = new ArrayList<>();
+            for (List<String> group : diagram.getSameRankGroups()) {
+                List<String> members = group.stream().filter(ids::contains).toList();
+                if (!members.isEmpty()) {
+                    groups.add(members);
+                }
+            }
+            part.setSameRankGroups(groups);
+        }
+        return part;
+    }
+}
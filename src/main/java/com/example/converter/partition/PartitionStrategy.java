@@ -0,0 +1,16 @@
+package com.example.converter.partition;
+
+/**
+ * How a diagram is split into parts that are laid out separately
+ */
+public enum PartitionStrategy {
+
+    /** One part per entity {@code domain}; entities without one share a part */
+    DOMAIN,
+
+    /** One part per connected component of the relationship graph; unrelated entities share a part */
+    COMPONENT,
+
+    /** Parts of at most the maximum node count, filled in relationship order so neighbours stay together */
+    SIZE
+}
@@ -0,0 +1,187 @@
+package com.example.converter.partition;
+
+import com.example.converter.config.DiagramProperties;
+import com.example.converter.core.DiagramConverter;
+import com.example.converter.metrics.ConversionMetrics;
+import com.example.converter.metrics.ConversionStage;
+import com.example.converter.model.DiagramGraph;
+import com.example.converter.model.DiagramModel;
+import com.example.converter.service.DiagramService;
+import com.example.converter.service.GraphvizService;
+import com.example.converter.service.RenderEngine;
+import com.example.converter.util.FileUtils;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Service for converting a model into one DOT file per part plus an index diagram.
+ * The index is written to the requested output file; each part goes next to it as
+ * {@code <name>-<part>.dot}. The index has one node per part, linked to the part's image,
+ * and one edge per pair of parts with relationships between them. Parts are rendered in
+ * parallel, so the layout cost is that of the largest part rather than of the whole model.
+ */
+@Service
+public class PartitionedDiagramService {
+
+    @Autowired
+    private DiagramConverter diagramConverter;
+
+    @Autowired
+    private DiagramService diagramService;
+
+    @Autowired
+    private GraphvizService graphvizService;
+
+    @Autowired
+    private ConversionMetrics conversionMetrics;
+
+    /**
+     * How to partition, and the image format the index links to (null for no links)
+     */
+    public record Options(String configFile, RenderEngine engine, PartitionStrategy strategy, int maxNodes, String linkFormat) {
+    }
+
+    /**
+     * The DOT files written: the index first, then one per part
+     */
+    public record Result(Path indexFile, List<Path> partFiles, DiagramPartitioner.Partitioning partitioning) {
+
+        public List<Path> allFiles() {
+            List<Path> files = new ArrayList<>();
+            files.add(indexFile);
+            files.addAll(partFiles);
+            return files;
+        }
+    }
+
+    /**
+     * Partition a model and write the index and part DOT files
+     */
+    public Result convert(Path input, Path indexFile, Options options) throws Exception {
+        DiagramProperties config = conversionMetrics.time(ConversionStage.LOAD_CONFIG,
+                () -> diagramService.loadConfiguration(options.configFile()));
+        JsonNode model = diagramConverter.readModel(input);
+        DiagramGraph graph = conversionMetrics.time(ConversionStage.PARSE_MODEL,
+                () -> diagramService.validate(diagramService.parseJsonModel(model), config));
+        DiagramPartitioner.Partitioning partitioning = DiagramPartitioner.partition(graph, options.strategy(), options.maxNodes());
+
+        FileUtils.createParentDirectories(indexFile);
+        Map<String, Path> partFiles = partFiles(indexFile, partitioning);
+        for (DiagramPartitioner.Partition partition : partitioning.partitions()) {
+            Path partFile = partFiles.get(partition.name());
+            try (Writer writer = Files.newBufferedWriter(partFile, StandardCharsets.UTF_8)) {
+                diagramService.writeDotContent(partition.diagram(), config, options.engine(), writer);
+            }
+            conversionMetrics.recordBytesWritten(Files.size(partFile));
+        }
+
+        try (Writer writer = Files.newBufferedWriter(indexFile, StandardCharsets.UTF_8)) {
+            writeIndex(partitioning, partFiles, config, options.linkFormat(), writer);
+        }
+        conversionMetrics.recordBytesWritten(Files.size(indexFile));
+
+        return new Result(indexFile, List.copyOf(partFiles.values()), partitioning);
+    }
+
+    /**
+     * Render the index and every part at once, returning the images in file order.
+     * The number of dot processes is bounded by the Graphviz service.
+     */
+    public List<Path> render(Result result, List<String> formats) throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<List<Path>>> renders = new ArrayList<>();
+            for (Path dotFile : result.allFiles()) {
+                renders.add(executor.submit(() -> graphvizService.render(dotFile, formats)));
+            }
+            List<Path> images = new ArrayList<>();
+            for (Future<List<Path>> render : renders) {
+                try {
+                    images.addAll(render.get());
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof Exception cause ? cause : e;
+                }
+            }
+            return images;
+        }
+    }
+
+    /**
+     * File for each part next to the index, with names made unique after reducing them to safe characters
+     */
+    private static Map<String, Path> partFiles(Path indexFile, DiagramPartitioner.Partitioning partitioning) {
+        String base = FileUtils.changeFileExtension(indexFile.getFileName().toString(), null);
+        Map<String, Path> files = new LinkedHashMap<>();
+        Set<String> used = new HashSet<>();
+        for (DiagramPartitioner.Partition partition : partitioning.partitions()) {
+            String slug = partition.name().toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", "-").replaceAll("^-|-$", "");
+            slug = slug.isEmpty() ? "part" : slug;
+            String unique = slug;
+            for (int n = 2; !used.add(unique); n++) {
+                unique = slug + "-" + n;
+            }
+            files.put(partition.name(), indexFile.resolveSibling(base + "-" + unique + ".dot"));
+        }
+        return files;
+    }
+
+    private static void writeIndex(DiagramPartitioner.Partitioning partitioning, Map<String, Path> partFiles,
+                                   DiagramProperties config, String linkFormat, Writer out) throws IOException {
+        DiagramModel source = partitioning.source();
+        String title = source.getTitle() != null ? source.getTitle() : "Data Model";
+        out.write("// " + title + " - index of " + partitioning.partitions().size() + " parts\n\n");
+        out.write("digraph partition_index {\n");
+        out.write("    rankdir=LR;\n");
+        String fontname = config.getSettings().getNodeDefaults().getOrDefault("fontname", "Arial");
+        out.write("    node [shape=box, style=\"rounded,filled\", fillcolor=\"#EEF2F7\", fontname=\"" + escape(fontname) + "\"];\n");
+        out.write("    edge [fontname=\"" + escape(fontname) + "\", fontsize=10];\n\n");
+
+        Map<String, String> nodeIds = new HashMap<>();
+        for (DiagramPartitioner.Partition partition : partitioning.partitions()) {
+            String nodeId = "part_" + nodeIds.size();
+            nodeIds.put(partition.name(), nodeId);
+            int entities = partition.diagram().getEntities().size();
+            out.write("    " + nodeId + " [label=\"" + escape(partition.name()) + "\\n" + entities
+                    + (entities == 1 ? " entity" : " entities") + "\"");
+            if (linkFormat != null) {
+                String image = FileUtils.changeFileExtension(partFiles.get(partition.name()).getFileName().toString(), linkFormat);
+                out.write(", URL=\"" + escape(image) + "\"");
+            }
+            out.write("];\n");
+        }
+
+        if (!partitioning.links().isEmpty()) {
+            out.write("\n    // Relationships between parts\n");
+        }
+        for (DiagramPartitioner.Link link : partitioning.links()) {
+            int count = link.labels().size();
+            String label = count == 1 ? link.labels().get(0) : count + " relationships";
+            out.write("    " + nodeIds.get(link.from()) + " -> " + nodeIds.get(link.to()) + " [label=\"" + escape(label)
+                    + "\", tooltip=\"" + escape(String.join(", ", link.labels())) + "\", penwidth="
+                    + Math.min(5, 1 + count / 5) + "];\n");
+        }
+        out.write("}\n");
+    }
+
+    private static String escape(String text) {
+        return text == null ? "" : text.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
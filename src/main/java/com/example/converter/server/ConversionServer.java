@@ -0,0 +1,299 @@
+package com.example.converter.server;
+
+import com.example.converter.config.DiagramProperties;
+import com.example.converter.service.DiagramService;
+import com.example.converter.service.GraphvizService;
+import com.example.converter.service.RenderEngine;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Local HTTP daemon that converts JSON models without paying JVM and Spring startup per file.
+ * Each request runs on its own pooled thread against the shared services. At most
+ * {@code maxInFlight} conversions run at once and at most {@code queueSize} more wait;
+ * anything beyond that is rejected straight away with 503 so clients back off.
+ * <p>
+ * The body is either the JSON model, or an object with the model under {@code model} and
+ * configuration settings in the application.yaml layout under {@code config}. The
+ * {@code config} parameter names a file in the server's configuration directory; clients
+ * cannot make the server read any other file, and without a directory the parameter is refused.
+ *
+ * <pre>
+ * POST /convert?format=dot|png|svg|...&amp;engine=velocity|direct&amp;config=team.yml
+ * GET  /health
+ * </pre>
+ */
+@Service
+public class ConversionServer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConversionServer.class);
+
+    private static final Pattern FORMAT = Pattern.compile("[a-z0-9]+");
+
+    @Autowired
+    private DiagramService diagramService;
+
+    @Autowired
+    private GraphvizService graphvizService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private Semaphore admitted;
+    private Semaphore running;
+    private Settings settings;
+    private final CountDownLatch stopped = new CountDownLatch(1);
+
+    /**
+     * Server limits. Port 0 picks a free port. Requests may name configuration files in the
+     * config directory only; null refuses them.
+     */
+    public record Settings(int port, int maxInFlight, int queueSize, RenderEngine defaultEngine, Path configDirectory) {
+
+        public Settings {
+            if (maxInFlight < 1 || queueSize < 0) {
+                throw new IllegalArgumentException("Max in-flight must be positive and queue size not negative");
+            }
+            configDirectory = configDirectory != null ? configDirectory.toAbsolutePath().normalize() : null;
+        }
+
+        public Settings(int port, int maxInFlight, int queueSize, RenderEngine defaultEngine) {
+            this(port, maxInFlight, queueSize, defaultEngine, null);
+        }
+    }
+
+    /**
+     * Start listening on the loopback interface, returning the bound port
+     */
+    public synchronized int start(Settings settings) throws IOException {
+        if (server != null) {
+            throw new IllegalStateException("Server already started");
+        }
+        this.settings = settings;
+        admitted = new Semaphore(settings.maxInFlight() + settings.queueSize());
+        running = new Semaphore(settings.maxInFlight());
+        // Platform threads: the JDK server reads request bodies inside synchronized blocks, which
+        // would pin a virtual thread's carrier while a slow client trickles its body in
+        executor = Executors.newCachedThreadPool();
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), settings.port()), 0);
+        server.setExecutor(executor);
+        server.createContext("/convert", this::handleConvert);
+        server.createContext("/health", this::handleHealth);
+        server.start();
+
+        int port = server.getAddress().getPort();
+        logger.info("Conversion server listening on {}:{}", server.getAddress().getHostString(), port);
+        return port;
+    }
+
+    /**
+     * Block until the server is stopped
+     */
+    public void awaitStop() throws InterruptedException {
+        stopped.await();
+    }
+
+    /**
+     * Stop accepting requests, giving running conversions a second to finish
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(1);
+            executor.shutdown();
+            server = null;
+            stopped.countDown();
+        }
+    }
+
+    private void handleConvert(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                sendText(exchange, 405, "Use POST with a JSON model as the body");
+                return;
+            }
+
+            // Reject instead of queueing without bound
+            if (!admitted.tryAcquire()) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                sendText(exchange, 503, "Server busy");
+                return;
+            }
+            try {
+                running.acquire();
+                try {
+                    convert(exchange);
+                } finally {
+                    running.release();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                sendText(exchange, 503, "Server shutting down");
+            } finally {
+                admitted.release();
+            }
+        }
+    }
+
+    private void convert(HttpExchange exchange) throws IOException {
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        String format = query.getOrDefault("format", "dot").toLowerCase(Locale.ROOT);
+
+        RenderEngine engine;
+        try {
+            engine = query.containsKey("engine")
+                    ? RenderEngine.valueOf(query.get("engine").toUpperCase(Locale.ROOT))
+                    : settings.defaultEngine();
+        } catch (IllegalArgumentException e) {
+            sendText(exchange, 400, "Unknown engine: " + query.get("engine"));
+            return;
+        }
+        if (!FORMAT.matcher(format).matches()) {
+            sendText(exchange, 400, "Invalid format: " + format);
+            return;
+        }
+        Path configFile = null;
+        if (query.containsKey("config")) {
+            configFile = resolveConfigFile(query.get("config"));
+            if (configFile == null) {
+                sendText(exchange, 400, "Config file not found in the server's config directory: " + query.get("config"));
+                return;
+            }
+        }
+
+        long start = System.nanoTime();
+        try {
+            JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+            JsonNode jsonData = request;
+            JsonNode inlineConfig = null;
+            if (request != null && request.path("model").isObject()) {
+                jsonData = request.get("model");
+                inlineConfig = request.get("config");
+            }
+            if (inlineConfig != null && (configFile != null || !inlineConfig.isObject())) {
+                sendText(exchange, 400, "Send config as an object in the body or name a config file, not both");
+                return;
+            }
+
+            DiagramProperties config;
+            if (configFile != null) {
+                config = diagramService.getConfigurationLoader().load(configFile);
+            } else if (inlineConfig != null) {
+                config = diagramService.getConfigurationLoader().load(inlineConfig);
+            } else {
+                config = diagramService.loadConfiguration(null);
+            }
+            String dotContent = diagramService.generateDotContent(jsonData, config, engine);
+
+            byte[] body;
+            String contentType;
+            if ("dot".equals(format)) {
+                body = dotContent.getBytes(StandardCharsets.UTF_8);
+                contentType = "text/vnd.graphviz; charset=utf-8";
+            } else {
+                body = graphvizService.render(dotContent, format);
+                contentType = "svg".equals(format) ? "image/svg+xml" : "application/octet-stream";
+            }
+
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+            exchange.getResponseHeaders().set("X-Conversion-Millis",
+                    Long.toString(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+        } catch (JsonProcessingException e) {
+            sendText(exchange, 400, "Invalid JSON: " + e.getOriginalMessage());
+        } catch (IllegalArgumentException e) {
+            sendText(exchange, 400, e.getMessage());
+        } catch (Exception e) {
+            logger.error("Conversion request failed", e);
+            sendText(exchange, 500, "Conversion failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * The named file in the config directory, or null if there is no directory, the name leads
+     * outside it, or the file cannot be read
+     */
+    private Path resolveConfigFile(String name) {
+        Path directory = settings.configDirectory();
+        if (directory == null) {
+            return null;
+        }
+        Path file;
+        try {
+            file = directory.resolve(name).normalize();
+            // Symbolic links must not lead out of the directory either
+            if (!file.startsWith(directory) || !file.toRealPath().startsWith(directory.toRealPath())
+                    || !Files.isRegularFile(file) || !Files.isReadable(file)) {
+                return null;
+            }
+        } catch (IOException | InvalidPathException e) {
+            return null;
+        }
+        return file;
+    }
+
+    private void handleHealth(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            Map<String, Object> health = Map.of(
+                    "status", "UP",
+                    "running", settings.maxInFlight() - running.availablePermits(),
+                    "max_in_flight", settings.maxInFlight(),
+                    "queue_size", settings.queueSize());
+            byte[] body = objectMapper.writeValueAsBytes(health);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+        }
+    }
+
+    private static void sendText(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] body = (message + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery != null) {
+            for (String parameter : rawQuery.split("&")) {
+                int equals = parameter.indexOf('=');
+                if (equals > 0) {
+                    query.put(URLDecoder.decode(parameter.substring(0, equals), StandardCharsets.UTF_8),
+                            URLDecoder.decode(parameter.substring(equals + 1), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return query;
+    }
+}
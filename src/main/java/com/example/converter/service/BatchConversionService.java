@@ -0,0 +1,266 @@
+package com.example.converter.service;
+
+import com.example.converter.incremental.IncrementalBuildService;
+import com.example.converter.metrics.ConversionMetrics;
+import com.example.converter.metrics.ConversionStage;
+import com.example.converter.util.FileUtils;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Service for converting many JSON models inside one JVM.
+ * Files are converted on a fixed worker pool fed through a bounded queue, so at most
+ * {@code workers + queueSize} conversions are pending at any time. Graphviz renders run on
+ * the same workers, bounded further by the process limit of {@link GraphvizService}.
+ */
+@Service
+public class BatchConversionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchConversionService.class);
+
+    // Matches JSON files at any depth below a directory input
+    private static final String DEFAULT_PATTERN = "**.json";
+
+    private final DiagramService diagramService;
+    private final StreamingDiagramService streamingDiagramService;
+    private final ObjectMapper objectMapper;
+    private final GraphvizService graphvizService;
+    private final ConversionMetrics conversionMetrics;
+
+    public BatchConversionService(DiagramService diagramService, StreamingDiagramService streamingDiagramService,
+                                  ObjectMapper objectMapper, GraphvizService graphvizService,
+                                  ConversionMetrics conversionMetrics) {
+        this.diagramService = diagramService;
+        this.streamingDiagramService = streamingDiagramService;
+        this.objectMapper = objectMapper;
+        this.graphvizService = graphvizService;
+        this.conversionMetrics = conversionMetrics;
+    }
+
+    /**
+     * A single input file and the output it converts to
+     */
+    public record FileTask(Path input, Path output) {
+    }
+
+    /**
+     * How each file is converted. Null or empty render formats skip Graphviz; otherwise every
+     * format is rendered from one layout. A null incremental session rebuilds every file.
+     */
+    public record Options(String configFile, boolean stream, RenderEngine engine, List<String> renderFormats,
+                          IncrementalBuildService.Session incremental) {
+
+        public Options {
+            renderFormats = renderFormats != null ? List.copyOf(renderFormats) : List.of();
+        }
+    }
+
+    /**
+     * Outcome of converting one file. Skipped files were up to date and are successful.
+     */
+    public record FileResult(FileTask task, boolean success, boolean skipped, long elapsedMillis, long outputBytes, String error) {
+    }
+
+    /**
+     * Resolve input directories, globs and files into conversion tasks.
+     * Outputs mirror each input's path relative to its base directory under the output root;
+     * inputs that would write the same output, such as files of the same name from different
+     * directories, are rejected rather than left to overwrite each other.
+     */
+    public List<FileTask> resolveTasks(List<String> inputs, Path outputRoot) throws IOException {
+        // Keyed by input so overlapping inputs convert each file once
+        Map<Path, FileTask> tasks = new LinkedHashMap<>();
+
+        for (String input : inputs) {
+            Path basePath;
+            String pattern;
+
+            int globStart = indexOfGlob(input);
+            if (globStart >= 0) {
+                // Base directory is everything before the last separator preceding the first glob character
+                int lastSeparator = input.lastIndexOf('/', globStart);
+                basePath = lastSeparator < 0 ? Paths.get(".") : Paths.get(input.substring(0, Math.max(lastSeparator, 1)));
+                pattern = input.substring(lastSeparator + 1);
+            } else {
+                Path path = Paths.get(input);
+                if (Files.isRegularFile(path)) {
+                    tasks.putIfAbsent(path.normalize(), new FileTask(path.normalize(), outputRoot.resolve(dotFileName(path.getFileName()))));
+                    continue;
+                }
+                if (!Files.isDirectory(path)) {
+                    throw new IOException("Batch input not found: " + input);
+                }
+                basePath = path;
+                pattern = DEFAULT_PATTERN;
+            }
+
+            if (!Files.isDirectory(basePath)) {
+                logger.warn("Batch input base directory does not exist: {}", basePath);
+                continue;
+            }
+
+            PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+            try (Stream<Path> files = Files.walk(basePath)) {
+                List<Path> matches = files
+                        .filter(Files::isRegularFile)
+                        .filter(file -> matcher.matches(basePath.relativize(file)))
+                        .sorted()
+                        .toList();
+                for (Path file : matches) {
+                    Path relative = basePath.relativize(file);
+                    Path output = outputRoot.resolve(relative).resolveSibling(dotFileName(relative.getFileName()));
+                    tasks.putIfAbsent(file.normalize(), new FileTask(file.normalize(), output));
+                }
+            }
+        }
+
+        Map<Path, Path> inputsByOutput = new LinkedHashMap<>();
+        for (FileTask task : tasks.values()) {
+            Path previous = inputsByOutput.putIfAbsent(task.output().toAbsolutePath().normalize(), task.input());
+            if (previous != null) {
+                throw new IOException("Batch inputs " + previous + " and " + task.input() + " would both write "
+                        + task.output() + "; pass their common parent directory instead");
+            }
+        }
+
+        return new ArrayList<>(tasks.values());
+    }
+
+    /**
+     * Convert all tasks on a worker pool, reporting each result as it completes
+     */
+    public List<FileResult> convertAll(List<FileTask> tasks, Options options, int workers, int queueSize,
+                                       Consumer<FileResult> listener) throws InterruptedException {
+        // Callers run tasks themselves when the queue is full, which throttles submission
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueSize)), new ThreadPoolExecutor.CallerRunsPolicy());
+
+        List<Future<FileResult>> futures = new ArrayList<>(tasks.size());
+        try {
+            for (FileTask task : tasks) {
+                futures.add(executor.submit(() -> {
+                    FileResult result = convert(task, options);
+                    listener.accept(result);
+                    return result;
+                }));
+            }
+
+            List<FileResult> results = new ArrayList<>(futures.size());
+            for (Future<FileResult> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    // convert() never throws; a listener failure lands here
+                    throw new IllegalStateException("Batch conversion task failed", e.getCause());
+                }
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Convert a single file, capturing any failure in the result
+     */
+    public FileResult convert(FileTask task, Options options) {
+        long start = System.nanoTime();
+        try {
+            IncrementalBuildService.Session incremental = options.incremental();
+            List<Path> imageFiles = GraphvizService.imageFiles(task.output(), options.renderFormats());
+
+            // Outputs that are up to date are neither regenerated nor re-rendered
+            IncrementalBuildService.Fingerprint fingerprint = null;
+            boolean dotCurrent = false;
+            boolean imagesCurrent = false;
+            if (incremental != null) {
+                IncrementalBuildService.Fingerprint current = incremental.fingerprint(task.input());
+                fingerprint = current;
+                dotCurrent = incremental.isUpToDate(task.input(), task.output(), current);
+                imagesCurrent = imageFiles.stream().allMatch(imageFile -> incremental.isUpToDate(task.input(), imageFile, current));
+                if (dotCurrent && imagesCurrent) {
+                    incremental.recordSkipped();
+                    return new FileResult(task, true, true, elapsedMillis(start), 0, null);
+                }
+            }
+
+            long outputBytes = 0;
+            if (!dotCurrent) {
+                writeDot(task, options);
+                outputBytes = Files.size(task.output());
+                conversionMetrics.recordBytesWritten(outputBytes);
+            }
+            // All formats come from one layout, so a single stale image renders them all again
+            if (!imageFiles.isEmpty() && (!dotCurrent || !imagesCurrent)) {
+                graphvizService.render(task.output(), options.renderFormats());
+            }
+
+            if (incremental != null) {
+                incremental.recordOutput(task.input(), task.output(), fingerprint);
+                for (Path imageFile : imageFiles) {
+                    incremental.recordOutput(task.input(), imageFile, fingerprint);
+                }
+                incremental.recordRebuilt();
+            }
+            return new FileResult(task, true, false, elapsedMillis(start), outputBytes, null);
+        } catch (Exception e) {
+            logger.debug("Batch conversion failed for {}", task.input(), e);
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            return new FileResult(task, false, false, elapsedMillis(start), 0, message);
+        }
+    }
+
+    private void writeDot(FileTask task, Options options) throws Exception {
+        FileUtils.createParentDirectories(task.output());
+
+        if (options.stream()) {
+            try (Writer writer = Files.newBufferedWriter(task.output(), StandardCharsets.UTF_8)) {
+                streamingDiagramService.streamDotContent(task.input(), options.configFile(), writer, options.engine());
+            }
+        } else {
+            JsonNode jsonData = conversionMetrics.time(ConversionStage.READ_JSON, () -> objectMapper.readTree(task.input().toFile()));
+            String dotContent = diagramService.generateDotContent(jsonData, options.configFile(), options.engine());
+            conversionMetrics.run(ConversionStage.WRITE_OUTPUT, () -> Files.writeString(task.output(), dotContent, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private static String dotFileName(Path fileName) {
+        return FileUtils.changeFileExtension(fileName.toString(), "dot");
+    }
+
+    private static int indexOfGlob(String input) {
+        for (int i = 0; i < input.length(); i++) {
+            if ("*?[{".indexOf(input.charAt(i)) >= 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
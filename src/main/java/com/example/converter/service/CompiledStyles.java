@@ -0,0 +1,39 @@
+package com.example.converter.service;
+
+import java.util.Map;
+
+/**
+ * Style tables compiled from one effective configuration.
+ * Default and entity-specific styles are merged ahead of time, so a lookup during
+ * rendering is a single map access and never allocates. Instances are immutable
+ * and shared by every entity and relationship of a render.
+ */
+public final class CompiledStyles {
+
+    private final Map<String, String> defaultEntityStyles;
+    private final Map<String, Map<String, String>> entityStyles;
+    private final Map<String, String> relationshipStyles;
+
+    CompiledStyles(Map<String, String> defaultEntityStyles,
+                   Map<String, Map<String, String>> entityStyles,
+                   Map<String, String> relationshipStyles) {
+        this.defaultEntityStyles = defaultEntityStyles;
+        this.entityStyles = entityStyles;
+        this.relationshipStyles = relationshipStyles;
+    }
+
+    /**
+     * Get the style table for an entity, or the default table if it has no overrides
+     */
+    public Map<String, String> getEntityStyles(String entityId) {
+        Map<String, String> styles = entityStyles.get(entityId);
+        return styles != null ? styles : defaultEntityStyles;
+    }
+
+    /**
+     * Get the style table shared by all relationships
+     */
+    public Map<String, String> getRelationshipStyles() {
+        return relationshipStyles;
+    }
+}
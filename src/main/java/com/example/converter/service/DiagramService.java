@@ -1,21 +1,26 @@
 package com.example.converter.service;
 
+import com.example.converter.config.ConfigurationLoader;
 import com.example.converter.config.DiagramProperties;
+import com.example.converter.metrics.ConversionMetrics;
+import com.example.converter.metrics.ConversionStage;
+import com.example.converter.model.DiagramGraph;
 import com.example.converter.model.DiagramModel;
 import com.example.converter.model.EntityModel;
 import com.example.converter.model.RelationshipModel;
+import com.example.converter.model.StringPool;
+import com.example.converter.template.RenderedFragments;
+import com.example.converter.template.TemplateCache;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
-import org.apache.velocity.app.VelocityEngine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.io.File;
 import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -28,91 +33,180 @@ public class DiagramService {
 
     private static final Logger logger = LoggerFactory.getLogger(DiagramService.class);
 
-    @Autowired
-    private DiagramProperties diagramProperties;
-
-    @Autowired
-    private VelocityEngine velocityEngine;
-
-    @Autowired
-    private StyleService styleService;
-
-    @Autowired
-    private ObjectMapper objectMapper;
+    private final TemplateCache templateCache;
+    private final StyleService styleService;
+    private final DirectDotRenderer directDotRenderer;
+    private final ConversionMetrics conversionMetrics;
+    private final ConfigurationLoader configurationLoader;
+
+    public DiagramService(TemplateCache templateCache, StyleService styleService, ConfigurationLoader configurationLoader,
+                          DirectDotRenderer directDotRenderer, ConversionMetrics conversionMetrics) {
+        this.templateCache = templateCache;
+        this.styleService = styleService;
+        this.directDotRenderer = directDotRenderer;
+        this.conversionMetrics = conversionMetrics;
+        this.configurationLoader = configurationLoader;
+    }
 
     /**
      * Generate DOT content from JSON model
      */
     public String generateDotContent(JsonNode jsonData, String configFile) throws Exception {
+        return generateDotContent(jsonData, configFile, RenderEngine.VELOCITY);
+    }
+
+    /**
+     * Generate DOT content from JSON model with the given rendering engine
+     */
+    public String generateDotContent(JsonNode jsonData, String configFile, RenderEngine engine) throws Exception {
         // Load custom configuration if provided
-        DiagramProperties config = loadConfiguration(configFile);
+        DiagramProperties config = conversionMetrics.time(ConversionStage.LOAD_CONFIG, () -> loadConfiguration(configFile));
 
-        // Parse JSON into model objects
-        DiagramModel diagram = parseJsonModel(jsonData);
+        return generateDotContent(jsonData, config, engine);
+    }
 
-        // Apply styling
-        styleService.applyStyles(diagram, config);
+    /**
+     * Generate DOT content from JSON model with an already loaded configuration
+     */
+    public String generateDotContent(JsonNode jsonData, DiagramProperties config, RenderEngine engine) throws Exception {
+        StringWriter writer = new StringWriter();
+        writeDotContent(jsonData, config, engine, writer);
+        return writer.toString();
+    }
 
-        // Generate DOT using Velocity template
-        return renderTemplate(diagram, config);
+    /**
+     * Write DOT content for a JSON model to the given writer. The direct engine writes as it renders;
+     * Velocity output is buffered so a failed template can still fall back to generateSimpleDot.
+     */
+    public void writeDotContent(JsonNode jsonData, DiagramProperties config, RenderEngine engine, Writer writer) throws Exception {
+        // Parse JSON into model objects and check their references
+        DiagramModel diagram = conversionMetrics.time(ConversionStage.PARSE_MODEL, () -> {
+            DiagramModel parsed = parseJsonModel(jsonData);
+            validate(parsed, config);
+            return parsed;
+        });
+
+        writeDotContent(diagram, config, engine, writer);
     }
 
-    private DiagramProperties loadConfiguration(String configFile) throws Exception {
-        if (configFile == null) {
-            return diagramProperties; // Use default from application.yaml
-        }
+    /**
+     * Write DOT content for an already parsed diagram model to the given writer
+     */
+    public void writeDotContent(DiagramModel diagram, DiagramProperties config, RenderEngine engine, Writer writer) throws Exception {
+        conversionMetrics.run(ConversionStage.RENDER, () -> {
+            // Apply styling
+            CompiledStyles styles = styleService.applyStyles(diagram, config);
+
+            renderDot(diagram, config, styles, engine, writer);
+        });
+    }
 
-        logger.info("Loading custom configuration from: {}", configFile);
+    /**
+     * Write DOT for a diagram with already compiled styles, without timing it
+     */
+    public void renderDot(DiagramModel diagram, DiagramProperties config, CompiledStyles styles, RenderEngine engine,
+                          Writer writer) throws Exception {
+        if (engine == RenderEngine.DIRECT) {
+            directDotRenderer.render(diagram, config, styles, writer);
+            return;
+        }
 
-        ObjectMapper yamlMapper = new ObjectMapper(new YAMLFactory());
-        Map<String, Object> customConfig = yamlMapper.readValue(new File(configFile), Map.class);
+        // Generate DOT using Velocity template
+        writer.write(renderTemplate(diagram, config, styles));
+    }
 
-        // Merge with default configuration
-        DiagramProperties mergedConfig = objectMapper.convertValue(customConfig, DiagramProperties.class);
+    /**
+     * Load the effective configuration: the application defaults, deep-merged with a custom YAML file if given.
+     * Custom files are merged once and cached until they change.
+     */
+    public DiagramProperties loadConfiguration(String configFile) throws Exception {
+        if (configFile == null) {
+            return configurationLoader.getDefaults(); // application.yaml, with any command line overrides
+        }
+        return configurationLoader.load(Paths.get(configFile));
+    }
 
-        // TODO: Implement proper configuration merging logic
-        return mergedConfig;
+    public ConfigurationLoader getConfigurationLoader() {
+        return configurationLoader;
     }
 
-    private DiagramModel parseJsonModel(JsonNode jsonData) {
+    /**
+     * Parse a JSON model into a diagram model. Repeated strings are stored once per model,
+     * and the lists are sized to their contents and read-only.
+     */
+    public DiagramModel parseJsonModel(JsonNode jsonData) {
         DiagramModel diagram = new DiagramModel();
+        StringPool strings = new StringPool();
 
         // Parse metadata
-        JsonNode metadata = jsonData.path("metadata");
-        if (!metadata.isMissingNode()) {
-            diagram.setTitle(getStringValue(metadata, "title", "Data Model"));
-            diagram.setVersion(getStringValue(metadata, "version", "1.0"));
-            diagram.setDescription(getStringValue(metadata, "description", ""));
-        }
+        parseMetadata(diagram, jsonData.path("metadata"));
 
         // Parse diagram settings
-        JsonNode settings = jsonData.path("diagram_settings");
-        if (!settings.isMissingNode()) {
-            diagram.setRankdir(getStringValue(settings, "rankdir", "TB"));
-        }
+        parseDiagramSettings(diagram, jsonData.path("diagram_settings"));
 
         // Parse entities
         JsonNode entitiesNode = jsonData.path("entities");
         if (entitiesNode.isArray()) {
-            List<EntityModel> entityList = new ArrayList<>();
-            for (JsonNode entityNode : entitiesNode) {
-                entityList.add(parseEntity(entityNode));
+            EntityModel[] entities = new EntityModel[entitiesNode.size()];
+            for (int i = 0; i < entities.length; i++) {
+                entities[i] = parseEntity(entitiesNode.get(i), strings);
             }
-            diagram.setEntities(entityList);
+            diagram.setEntities(List.of(entities));
         }
 
         // Parse relationships
         JsonNode relationshipsNode = jsonData.path("relationships");
         if (relationshipsNode.isArray()) {
-            List<RelationshipModel> relationshipList = new ArrayList<>();
-            for (JsonNode relationshipNode : relationshipsNode) {
-                relationshipList.add(parseRelationship(relationshipNode));
+            RelationshipModel[] relationships = new RelationshipModel[relationshipsNode.size()];
+            for (int i = 0; i < relationships.length; i++) {
+                relationships[i] = parseRelationship(relationshipsNode.get(i), strings);
             }
-            diagram.setRelationships(relationshipList);
+            diagram.setRelationships(List.of(relationships));
         }
 
         // Parse layout hints
-        JsonNode layoutHints = jsonData.path("layout_hints");
+        parseLayoutHints(diagram, jsonData.path("layout_hints"), strings);
+
+        return diagram;
+    }
+
+    /**
+     * Index a diagram and check its references in one pass. Problems are logged; with fail-fast
+     * validation configured, any error rejects the model with an IllegalArgumentException.
+     */
+    public DiagramGraph validate(DiagramModel diagram, DiagramProperties config) {
+        DiagramGraph graph = DiagramGraph.of(diagram);
+        List<DiagramGraph.Problem> errors = new ArrayList<>();
+        for (DiagramGraph.Problem problem : graph.validate()) {
+            if (problem.severity() == DiagramGraph.Severity.ERROR) {
+                errors.add(problem);
+                logger.warn("Invalid model: {}", problem.message());
+            } else {
+                logger.debug("Model warning: {}", problem.message());
+            }
+        }
+        if (!errors.isEmpty() && config.getValidation().isFailFast()) {
+            throw new IllegalArgumentException("Invalid model, " + errors.size() + (errors.size() == 1 ? " problem: " : " problems: ")
+                    + String.join("; ", errors.stream().map(DiagramGraph.Problem::message).toList()));
+        }
+        return graph;
+    }
+
+    void parseMetadata(DiagramModel diagram, JsonNode metadata) {
+        if (!metadata.isMissingNode()) {
+            diagram.setTitle(getStringValue(metadata, "title", "Data Model"));
+            diagram.setVersion(getStringValue(metadata, "version", "1.0"));
+            diagram.setDescription(getStringValue(metadata, "description", ""));
+        }
+    }
+
+    void parseDiagramSettings(DiagramModel diagram, JsonNode settings) {
+        if (!settings.isMissingNode()) {
+            diagram.setRankdir(getStringValue(settings, "rankdir", "TB"));
+        }
+    }
+
+    void parseLayoutHints(DiagramModel diagram, JsonNode layoutHints, StringPool strings) {
         if (!layoutHints.isMissingNode()) {
             JsonNode sameRankGroups = layoutHints.path("same_rank_groups");
             if (sameRankGroups.isArray()) {
@@ -121,7 +215,7 @@ public class DiagramService {
                     if (group.isArray()) {
                         List<String> entityIds = new ArrayList<>();
                         for (JsonNode entityIdNode : group) {
-                            entityIds.add(entityIdNode.asText());
+                            entityIds.add(strings.intern(entityIdNode.asText()));
                         }
                         groups.add(entityIds);
                     }
@@ -129,97 +223,136 @@ public class DiagramService {
                 diagram.setSameRankGroups(groups);
             }
         }
-
-        return diagram;
     }
 
-    private EntityModel parseEntity(JsonNode entityNode) {
-        EntityModel entityModel = new EntityModel();
-
-        entityModel.setId(entityNode.get("id").asText());
-        entityModel.setName(entityNode.get("name").asText());
-        entityModel.setDescription(getStringValue(entityNode, "description", ""));
-
+    EntityModel parseEntity(JsonNode entityNode, StringPool strings) {
         // Parse fields
+        List<EntityModel.Field> fields = null;
         JsonNode fieldsNode = entityNode.path("fields");
         if (fieldsNode.isArray()) {
-            List<EntityModel.Field> fieldList = new ArrayList<>();
-            for (JsonNode fieldNode : fieldsNode) {
-                EntityModel.Field fieldModel = new EntityModel.Field();
-                fieldModel.setName(fieldNode.get("name").asText());
-                fieldModel.setType(fieldNode.get("type").asText());
-                fieldModel.setRequired(fieldNode.path("is_required").asBoolean(false));
-                fieldModel.setKey(fieldNode.path("is_key").asBoolean(false));
-                fieldModel.setDescription(getStringValue(fieldNode, "description", ""));
-                fieldList.add(fieldModel);
+            EntityModel.Field[] rows = new EntityModel.Field[fieldsNode.size()];
+            for (int i = 0; i < rows.length; i++) {
+                JsonNode fieldNode = fieldsNode.get(i);
+                rows[i] = new EntityModel.Field(strings.intern(fieldNode.get("name").asText()),
+                        strings.intern(fieldNode.get("type").asText()),
+                        fieldNode.path("is_required").asBoolean(false),
+                        fieldNode.path("is_key").asBoolean(false),
+                        strings.intern(getStringValue(fieldNode, "description", "")));
             }
-            entityModel.setFields(fieldList);
+            fields = List.of(rows);
         }
 
         // Parse special sections
+        List<EntityModel.SpecialSection> specialSections = null;
         JsonNode specialSectionsNode = entityNode.path("special_sections");
         if (specialSectionsNode.isArray()) {
-            List<EntityModel.SpecialSection> sectionList = new ArrayList<>();
-            for (JsonNode sectionNode : specialSectionsNode) {
-                EntityModel.SpecialSection sectionModel = new EntityModel.SpecialSection();
-                sectionModel.setName(sectionNode.get("name").asText());
-                sectionModel.setType(sectionNode.get("type").asText());
-                sectionModel.setStyle(getStringValue(sectionNode, "style", "bold_red"));
-                sectionModel.setIs_required(sectionNode.path("is_required").asBoolean(false));
-                sectionList.add(sectionModel);
+            EntityModel.SpecialSection[] sections = new EntityModel.SpecialSection[specialSectionsNode.size()];
+            for (int i = 0; i < sections.length; i++) {
+                JsonNode sectionNode = specialSectionsNode.get(i);
+                sections[i] = new EntityModel.SpecialSection(strings.intern(sectionNode.get("name").asText()),
+                        strings.intern(sectionNode.get("type").asText()),
+                        strings.intern(getStringValue(sectionNode, "style", "bold_red")),
+                        sectionNode.path("is_required").asBoolean(false));
             }
-            entityModel.setSpecialSections(sectionList);
+            specialSections = List.of(sections);
         }
 
         // Parse constraints
+        List<String> constraints = null;
         JsonNode constraintsNode = entityNode.path("constraints");
         if (constraintsNode.isArray()) {
-            List<String> constraintList = new ArrayList<>();
-            for (JsonNode constraintNode : constraintsNode) {
-                constraintList.add(constraintNode.asText());
+            String[] values = new String[constraintsNode.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = strings.intern(constraintsNode.get(i).asText());
             }
-            entityModel.setConstraints(constraintList);
+            constraints = List.of(values);
         }
 
-        return entityModel;
+        conversionMetrics.recordEntity(fields != null ? fields.size() : 0);
+        return new EntityModel(strings.intern(entityNode.get("id").asText()),
+                entityNode.get("name").asText(),
+                strings.intern(getStringValue(entityNode, "domain", null)),
+                getStringValue(entityNode, "description", ""),
+                fields, specialSections, constraints);
     }
 
-    private RelationshipModel parseRelationship(JsonNode relationshipNode) {
-        RelationshipModel relationshipModel = new RelationshipModel();
-
-        relationshipModel.setId(getStringValue(relationshipNode, "id", ""));
-        relationshipModel.setFromEntity(relationshipNode.get("from_entity").asText());
-        relationshipModel.setToEntity(relationshipNode.get("to_entity").asText());
-        relationshipModel.setLabel(relationshipNode.get("label").asText());
-        relationshipModel.setType(getStringValue(relationshipNode, "relationship_type", "one_to_many"));
-        relationshipModel.setDescription(getStringValue(relationshipNode, "description", ""));
+    RelationshipModel parseRelationship(JsonNode relationshipNode, StringPool strings) {
+        RelationshipModel relationshipModel = new RelationshipModel(
+                getStringValue(relationshipNode, "id", ""),
+                strings.intern(relationshipNode.get("from_entity").asText()),
+                strings.intern(relationshipNode.get("to_entity").asText()),
+                strings.intern(relationshipNode.get("label").asText()),
+                strings.intern(getStringValue(relationshipNode, "relationship_type", "one_to_many")),
+                strings.intern(getStringValue(relationshipNode, "description", "")));
 
+        conversionMetrics.recordRelationship();
         return relationshipModel;
     }
 
-    private String renderTemplate(DiagramModel diagram, DiagramProperties config) throws Exception {
-        VelocityContext context = new VelocityContext();
-        context.put("diagram", diagram);
-        context.put("config", config);
-        context.put("styleService", styleService);
-
+    /**
+     * Render a diagram with the configured Velocity templates, falling back to generateSimpleDot.
+     * With parallel rendering, entities are rendered on the fork-join pool first and the main
+     * template writes their fragments in order.
+     */
+    String renderTemplate(DiagramModel diagram, DiagramProperties config, CompiledStyles styles) throws Exception {
         StringWriter writer = new StringWriter();
 
         try {
+            VelocityContext context = createDiagramContext(diagram, config, styles);
+            if (rendersInParallel(diagram, config)) {
+                Template entityTemplate = (Template) context.get("entityTemplate");
+                context.put("entityTemplate", RenderedFragments.render(entityTemplate, "entity", diagram.getEntities(),
+                        context, config.getRendering().getChunkSize()));
+            }
             String templateName = config.getTemplates().getMainTemplate();
-            velocityEngine.getTemplate(templateName).merge(context, writer);
+            templateCache.getTemplate(templateName).merge(context, writer);
             return writer.toString();
         } catch (Exception e) {
             // Fallback to simple template generation if Velocity fails
             logger.warn("Velocity template failed, falling back to simple generation: {}", e.getMessage());
-            return generateSimpleDot(diagram, config);
+            conversionMetrics.recordTemplateFallback();
+            return generateSimpleDot(diagram, config, styles);
         }
     }
 
+    /**
+     * Whether entities are rendered in parallel: only when configured and there is more than one chunk of them
+     */
+    private static boolean rendersInParallel(DiagramModel diagram, DiagramProperties config) {
+        DiagramProperties.Rendering rendering = config.getRendering();
+        return rendering.isParallel() && diagram.getEntities() != null
+                && diagram.getEntities().size() > Math.max(1, rendering.getChunkSize());
+    }
+
+    /**
+     * Create the context for the main template, with the entity and relationship
+     * templates bound as pre-parsed sub-templates for #merge
+     */
+    VelocityContext createDiagramContext(DiagramModel diagram, DiagramProperties config, CompiledStyles styles) {
+        DiagramProperties.Templates templates = config.getTemplates();
+        VelocityContext context = createBaseContext(config, styles);
+        context.put("diagram", diagram);
+        context.put("entityTemplate", templateCache.getTemplate(templates.getEntityTemplate()));
+        context.put("relationshipTemplate", templateCache.getTemplate(templates.getRelationshipTemplate()));
+        return context;
+    }
+
+    /**
+     * Create a context with the objects shared by every template of a render.
+     * Per-entity renders wrap it instead of copying it.
+     */
+    private VelocityContext createBaseContext(DiagramProperties config, CompiledStyles styles) {
+        VelocityContext context = new VelocityContext();
+        context.put("config", config);
+        context.put("styleService", styleService);
+        context.put("styleTable", styles);
+        return context;
+    }
+
     /**
      * Fallback method to generate DOT without Velocity templates
      */
-    private String generateSimpleDot(DiagramModel diagram, DiagramProperties config) {
+    String generateSimpleDot(DiagramModel diagram, DiagramProperties config, CompiledStyles styles) {
         StringBuilder dot = new StringBuilder();
 
         // Header
@@ -247,16 +380,18 @@ public class DiagramService {
         }
         dot.append("\n");
 
+        VelocityContext baseContext = createBaseContext(config, styles);
+
         // Entities
         for (EntityModel entity : diagram.getEntities()) {
-            dot.append(generateEntityDot(entity, config));
+            dot.append(generateEntityDot(entity, config, baseContext));
         }
 
         // Relationships
         if (diagram.getRelationships() != null && !diagram.getRelationships().isEmpty()) {
             dot.append("    // Relationships\n");
             for (RelationshipModel relationship : diagram.getRelationships()) {
-                dot.append(generateRelationshipDot(relationship, config));
+                dot.append(generateRelationshipDot(relationship, config, baseContext));
             }
             dot.append("\n");
         }
@@ -278,20 +413,19 @@ public class DiagramService {
         return dot.toString();
     }
 
-    private String generateEntityDot(EntityModel entity, DiagramProperties config) {
+    private String generateEntityDot(EntityModel entity, DiagramProperties config, VelocityContext baseContext) {
         // Try to use the entity template first
         try {
-            VelocityContext context = new VelocityContext();
+            VelocityContext context = new VelocityContext(baseContext);
             context.put("entity", entity);
-            context.put("config", config);
-            context.put("styleService", styleService);
 
             StringWriter writer = new StringWriter();
             String templateName = config.getTemplates().getEntityTemplate();
-            velocityEngine.getTemplate(templateName).merge(context, writer);
+            templateCache.getTemplate(templateName).merge(context, writer);
             return writer.toString();
         } catch (Exception e) {
             logger.warn("Entity template failed for entity {}, using simple fallback: {}", entity.getId(), e.getMessage());
+            conversionMetrics.recordTemplateFallback();
             return generateSimpleEntityDot(entity);
         }
     }
@@ -322,20 +456,19 @@ public class DiagramService {
         return dot.toString();
     }
 
-    private String generateRelationshipDot(RelationshipModel relationship, DiagramProperties config) {
+    private String generateRelationshipDot(RelationshipModel relationship, DiagramProperties config, VelocityContext baseContext) {
         // Try to use the relationship template first
         try {
-            VelocityContext context = new VelocityContext();
+            VelocityContext context = new VelocityContext(baseContext);
             context.put("relationship", relationship);
-            context.put("config", config);
-            context.put("styleService", styleService);
 
             StringWriter writer = new StringWriter();
             String templateName = config.getTemplates().getRelationshipTemplate();
-            velocityEngine.getTemplate(templateName).merge(context, writer);
+            templateCache.getTemplate(templateName).merge(context, writer);
             return writer.toString();
         } catch (Exception e) {
             logger.warn("Relationship template failed for relationship {}, using simple fallback: {}", relationship.getId(), e.getMessage());
+            conversionMetrics.recordTemplateFallback();
             return generateSimpleRelationshipDot(relationship);
         }
     }
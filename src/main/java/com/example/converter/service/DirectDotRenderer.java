@@ -0,0 +1,293 @@
+package com.example.converter.service;
+
+import com.example.converter.config.DiagramProperties;
+import com.example.converter.model.DiagramModel;
+import com.example.converter.model.EntityModel;
+import com.example.converter.model.RelationshipModel;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders DOT directly in Java, without Velocity.
+ * The output is byte-for-byte what the default diagram.vm, entity.vm and relationship.vm
+ * templates produce, including their indentation and line breaks, so the two engines can be
+ * swapped freely. Custom templates configured under {@code diagram.templates} are not used
+ * by this renderer.
+ */
+@Service
+public class DirectDotRenderer {
+
+    /**
+     * Render a complete diagram, equivalent to merging diagram.vm
+     */
+    public void render(DiagramModel diagram, DiagramProperties config, CompiledStyles styles, Writer out) throws IOException {
+        render(diagram, diagram.getEntities(), config, styles, out);
+    }
+
+    /**
+     * Render a complete diagram with entities from a sequence other than the model's own, such as a stream
+     */
+    public void render(DiagramModel diagram, Iterable<EntityModel> entities, DiagramProperties config, CompiledStyles styles,
+                       Writer out) throws IOException {
+        writeHeader(diagram, config, out);
+
+        if (entities != null) {
+            DiagramProperties.TableSettings tableSettings = config.getSettings().getTableSettings();
+            for (EntityModel entity : entities) {
+                writeEntity(entity, tableSettings, styles.getEntityStyles(entity.getId()), out);
+            }
+        }
+        out.write("\n");
+
+        List<RelationshipModel> relationships = diagram.getRelationships();
+        if (relationships != null && !relationships.isEmpty()) {
+            out.write("// Relationships\n");
+            Map<String, String> relationshipStyles = styles.getRelationshipStyles();
+            for (RelationshipModel relationship : relationships) {
+                writeRelationship(relationship, relationshipStyles, out);
+            }
+        }
+        out.write("\n");
+
+        List<List<String>> sameRankGroups = diagram.getSameRankGroups();
+        if (sameRankGroups != null && !sameRankGroups.isEmpty()) {
+            out.write("// Layout hints\n");
+            for (List<String> group : sameRankGroups) {
+                out.write("    {rank=same; ");
+                for (Iterator<String> ids = group.iterator(); ids.hasNext(); ) {
+                    out.write(text(ids.next(), "$entity"));
+                    if (ids.hasNext()) {
+                        out.write("; ");
+                    }
+                }
+                out.write(";}\n");
+            }
+        }
+        out.write("}");
+    }
+
+    /**
+     * Write the comment header, digraph opening and global settings
+     */
+    public void writeHeader(DiagramModel diagram, DiagramProperties config, Writer out) throws IOException {
+        String title = diagram.getTitle();
+        out.write("// ");
+        out.write(text(title, "$diagram.title"));
+        out.write("\n");
+        if (isTruthy(diagram.getVersion())) {
+            out.write("// Version: ");
+            out.write(diagram.getVersion());
+            out.write("\n");
+        }
+        if (isTruthy(diagram.getDescription())) {
+            out.write("// ");
+            out.write(diagram.getDescription());
+            out.write("\n");
+        }
+        out.write("\n");
+
+        String diagramName = title != null ? title.toLowerCase().replaceAll("[\\s-]", "_") : null;
+        out.write("digraph ");
+        out.write(text(diagramName, "$diagramName"));
+        out.write(" {\nrankdir=");
+        out.write(text(diagram.getRankdir(), "$diagram.rankdir"));
+        out.write(";\n");
+
+        Map<String, String> nodeDefaults = config.getSettings().getNodeDefaults();
+        if (nodeDefaults != null && !nodeDefaults.isEmpty()) {
+            out.write("    node [");
+            for (Iterator<Map.Entry<String, String>> entries = nodeDefaults.entrySet().iterator(); entries.hasNext(); ) {
+                Map.Entry<String, String> entry = entries.next();
+                out.write(text(entry.getKey(), "$entry.key"));
+                out.write("=\"");
+                out.write(text(entry.getValue(), "$entry.value"));
+                out.write("\"");
+                if (entries.hasNext()) {
+                    out.write(", ");
+                }
+            }
+            out.write("];\n");
+        }
+        out.write("\n");
+    }
+
+    /**
+     * Write one entity node, equivalent to merging entity.vm
+     */
+    public void writeEntity(EntityModel entity, DiagramProperties.TableSettings tableSettings,
+                            Map<String, String> styles, Writer out) throws IOException {
+        String headerBg = styles.get("header_bg");
+        String headerText = styles.get("header_text");
+        String separatorRow = "<TR><TD COLSPAN=\"3\" BGCOLOR=\"" + styles.get("separator_color")
+                + "\" HEIGHT=\"" + text(tableSettings.getSeparatorHeight(), "$tableSettings.separatorHeight")
+                + "\"></TD></TR>\n";
+        String name = text(entity.getName(), "$entity.name");
+
+        out.write("// ");
+        out.write(name);
+        out.write("\n");
+        out.write(text(entity.getId(), "$entity.id"));
+        out.write(" [label=<\n<TABLE BORDER=\"");
+        out.write(text(tableSettings.getBorder(), "$tableSettings.border"));
+        out.write("\" CELLBORDER=\"");
+        out.write(text(tableSettings.getCellBorder(), "$tableSettings.cellBorder"));
+        out.write("\" CELLSPACING=\"");
+        out.write(text(tableSettings.getCellSpacing(), "$tableSettings.cellSpacing"));
+        out.write("\" CELLPADDING=\"");
+        out.write(text(tableSettings.getCellPadding(), "$tableSettings.cellPadding"));
+        out.write("\">\n    <TR>\n        <TD BGCOLOR=\"");
+        out.write(headerBg);
+        out.write("\" COLSPAN=\"3\">\n            <FONT COLOR=\"");
+        out.write(headerText);
+        out.write("\"><B>");
+        out.write(name);
+        out.write("</B></FONT>\n        </TD>\n    </TR>\n    <TR>\n");
+        writeColumnHeader("Field", headerBg, headerText, out);
+        writeColumnHeader("Type", headerBg, headerText, out);
+        writeColumnHeader("Required", headerBg, headerText, out);
+        out.write("    </TR>\n    ");
+        out.write(separatorRow);
+
+        String bodyText = styles.get("body_text");
+        String mandatoryText = styles.get("mandatory_text");
+
+        if (entity.getFields() != null) {
+            for (EntityModel.Field field : entity.getFields()) {
+                String fieldName = text(field.getName(), "$field.name");
+                out.write("        <TR><TD ALIGN=\"LEFT\">                ");
+                if (field.isRequired()) {
+                    writeBold(mandatoryText, fieldName, out);
+                } else {
+                    writePlain(bodyText, fieldName, out);
+                }
+                out.write("        </TD><TD><FONT COLOR=\"");
+                out.write(bodyText);
+                out.write("\">");
+                out.write(text(field.getType(), "$field.type"));
+                out.write("</FONT></TD><TD ALIGN=\"CENTER\">                ");
+                writeRequired(field.isRequired(), mandatoryText, bodyText, out);
+                out.write("        </TD></TR>\n");
+            }
+        }
+
+        if (isTruthy(entity.getSpecialSections())) {
+            out.write("        ");
+            out.write(separatorRow);
+            for (EntityModel.SpecialSection section : entity.getSpecialSections()) {
+                String sectionName = " " + text(section.getName(), "$section.name") + " ";
+                out.write("            <TR><TD ALIGN=\"LEFT\">                    ");
+                if ("bold_red".equals(section.getStyle())) {
+                    writeBold(styles.get("special_section_text"), sectionName, out);
+                } else {
+                    writePlain(bodyText, sectionName, out);
+                }
+                out.write("            </TD><TD><FONT COLOR=\"");
+                out.write(bodyText);
+                out.write("\">");
+                out.write(text(section.getType(), "$section.type"));
+                out.write("</FONT></TD><TD ALIGN=\"CENTER\">                    ");
+                writeRequired(section.isIs_required(), mandatoryText, bodyText, out);
+                out.write("            </TD></TR>\n");
+            }
+        }
+
+        if (isTruthy(entity.getDescription())) {
+            out.write("        ");
+            out.write(separatorRow);
+            out.write("        <TR><TD COLSPAN=\"3\" BGCOLOR=\"");
+            out.write(styles.get("body_bg"));
+            out.write("\">");
+            out.write(entity.getDescription());
+            out.write("</TD></TR>\n");
+        }
+
+        if (isTruthy(entity.getConstraints())) {
+            String constraintPrefix = "            <TR><TD COLSPAN=\"3\" BGCOLOR=\"" + styles.get("constraint_bg")
+                    + "\" HEIGHT=\"" + text(tableSettings.getSeparatorHeight(), "$tableSettings.separatorHeight") + "\"> ";
+            for (String constraint : entity.getConstraints()) {
+                out.write(constraintPrefix);
+                out.write(text(constraint, "$constraint"));
+                out.write(" </TD></TR>\n");
+            }
+        }
+
+        out.write("</TABLE>\n>];\n");
+    }
+
+    /**
+     * Write one relationship edge, equivalent to merging relationship.vm (no trailing newline)
+     */
+    public void writeRelationship(RelationshipModel relationship, Map<String, String> relationshipStyles, Writer out) throws IOException {
+        out.write("    ");
+        out.write(text(relationship.getFromEntity(), "$relationship.fromEntity"));
+        out.write(" -> ");
+        out.write(text(relationship.getToEntity(), "$relationship.toEntity"));
+        out.write(" [label=\"");
+        out.write(text(relationship.getLabel(), "$relationship.label"));
+        out.write("\", fontsize=");
+        out.write(relationshipStyles.get("font_size"));
+        out.write(", color=\"");
+        out.write(relationshipStyles.get("color"));
+        out.write("\"];");
+    }
+
+    private void writeColumnHeader(String label, String headerBg, String headerText, Writer out) throws IOException {
+        out.write("        <TD BGCOLOR=\"");
+        out.write(headerBg);
+        out.write("\"><FONT COLOR=\"");
+        out.write(headerText);
+        out.write("\"><B>");
+        out.write(label);
+        out.write("</B></FONT></TD>\n");
+    }
+
+    private void writeRequired(boolean required, String mandatoryText, String bodyText, Writer out) throws IOException {
+        if (required) {
+            writeBold(mandatoryText, "true", out);
+        } else {
+            writePlain(bodyText, "false", out);
+        }
+    }
+
+    private void writeBold(String color, String value, Writer out) throws IOException {
+        out.write("<FONT COLOR=\"");
+        out.write(color);
+        out.write("\"><B>");
+        out.write(value);
+        out.write("</B></FONT>");
+    }
+
+    private void writePlain(String color, String value, Writer out) throws IOException {
+        out.write("<FONT COLOR=\"");
+        out.write(color);
+        out.write("\">");
+        out.write(value);
+        out.write("</FONT>");
+    }
+
+    /**
+     * Velocity renders a null reference as its literal source text
+     */
+    private static String text(String value, String reference) {
+        return value != null ? value : reference;
+    }
+
+    /**
+     * Velocity #if semantics: null, empty strings and empty collections are false
+     */
+    private static boolean isTruthy(Object value) {
+        if (value instanceof CharSequence sequence) {
+            return sequence.length() > 0;
+        }
+        if (value instanceof Collection<?> collection) {
+            return !collection.isEmpty();
+        }
+        return value != null;
+    }
+}
@@ -0,0 +1,352 @@
+package com.example.converter.service;
+
+import com.example.converter.metrics.ConversionMetrics;
+import com.example.converter.metrics.ConversionStage;
+import com.example.converter.util.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Service for rendering DOT to images with the Graphviz dot command.
+ * DOT is written to the process over stdin, and all requested formats are produced by one
+ * process with a {@code -T}/{@code -o} pair per format, so the graph is laid out once however
+ * many formats are asked for. Stdout and stderr are drained on their own threads so a chatty
+ * process can never block on a full pipe. At most {@link Settings#maxProcesses} dot
+ * processes run at once; further renders wait for a slot.
+ * The layout engine is dot unless another is configured; with {@link LayoutPolicy#AUTO} it is
+ * chosen from the size of the DOT. A render that exceeds the time limit is killed and, if the
+ * layout has a fallback, retried with it.
+ * With a {@link RenderCache} set, images already rendered from identical DOT are copied from
+ * the cache and only the missing formats are rendered. An image rendered with the fallback
+ * layout is cached under the primary layout, so the same diagram does not time out again.
+ */
+@Service
+public class GraphvizService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GraphvizService.class);
+
+    @Autowired
+    private ConversionMetrics conversionMetrics;
+
+    private volatile Settings settings = Settings.defaults();
+    private volatile Semaphore processSlots = new Semaphore(settings.maxProcesses());
+    private volatile RenderCache renderCache;
+    private volatile String graphvizVersion;
+
+    /**
+     * Render limits and the dot executable. A zero timeout lets dot run as long as it takes.
+     */
+    public record Settings(int maxProcesses, Duration timeout, String layoutEngine, String command) {
+
+        public Settings {
+            if (maxProcesses < 1) {
+                throw new IllegalArgumentException("At least one dot process must be allowed");
+            }
+            if (timeout.isNegative()) {
+                throw new IllegalArgumentException("Render timeout must not be negative");
+            }
+            layoutEngine = LayoutPolicy.validateEngine(layoutEngine);
+        }
+
+        /**
+         * Limits for the dot found on the path
+         */
+        public Settings(int maxProcesses, Duration timeout, String layoutEngine) {
+            this(maxProcesses, timeout, layoutEngine, "dot");
+        }
+
+        public static Settings defaults() {
+            return new Settings(Runtime.getRuntime().availableProcessors(), Duration.ofMinutes(5), "dot");
+        }
+    }
+
+    /**
+     * One attempt at rendering with a layout
+     */
+    @FunctionalInterface
+    private interface Attempt<T> {
+        T run(LayoutPolicy.Layout layout) throws Exception;
+    }
+
+    /**
+     * Something that writes DOT to the process's stdin
+     */
+    @FunctionalInterface
+    private interface DotSource {
+        void writeTo(OutputStream stdin) throws IOException;
+    }
+
+    /**
+     * Image path for a DOT file and output format: the DOT file with its extension replaced
+     */
+    public static Path imageFile(Path dotFile, String format) {
+        return Paths.get(FileUtils.changeFileExtension(dotFile.toString(), format));
+    }
+
+    /**
+     * Image paths for a DOT file, one per output format
+     */
+    public static List<Path> imageFiles(Path dotFile, List<String> formats) {
+        return formats.stream().map(format -> imageFile(dotFile, format)).toList();
+    }
+
+    /**
+     * Change the render limits. Must not be called while renders are in progress.
+     */
+    public void configure(Settings settings) {
+        this.settings = settings;
+        processSlots = new Semaphore(settings.maxProcesses());
+        graphvizVersion = null;
+    }
+
+    public Settings getSettings() {
+        return settings;
+    }
+
+    /**
+     * Look up and store images in a cache, or stop caching with null
+     */
+    public void setRenderCache(RenderCache renderCache) {
+        this.renderCache = renderCache;
+    }
+
+    public RenderCache getRenderCache() {
+        return renderCache;
+    }
+
+    /**
+     * Render a DOT file to an image next to it, returning the image path
+     */
+    public Path render(Path dotFile, String format) throws Exception {
+        return render(dotFile, List.of(format)).get(0);
+    }
+
+    /**
+     * Render a DOT file to one image next to it per format, from a single layout, returning the image paths
+     */
+    public List<Path> render(Path dotFile, List<String> formats) throws Exception {
+        List<Path> imageFiles = imageFiles(dotFile, formats);
+        MessageDigest digest = RenderCache.newDigest();
+        LayoutPolicy.Complexity complexity;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new DigestInputStream(Files.newInputStream(dotFile), digest), StandardCharsets.UTF_8))) {
+            complexity = LayoutPolicy.Complexity.measure(reader);
+        }
+        LayoutPolicy.Layout layout = LayoutPolicy.choose(complexity, settings.layoutEngine());
+        byte[] dotHash = digest.digest();
+
+        RenderCache cache = renderCache;
+        List<String> keys = new ArrayList<>();
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 0; i < formats.size(); i++) {
+            if (cache != null) {
+                keys.add(RenderCache.key(dotHash, formats.get(i), layout.arguments(), graphvizVersion()));
+                if (cache.copyTo(keys.get(i), imageFiles.get(i))) {
+                    continue;
+                }
+            }
+            missing.add(i);
+        }
+        if (missing.isEmpty()) {
+            logger.debug("Copied {} images of {} from the render cache", formats.size(), dotFile);
+            return imageFiles;
+        }
+
+        layOut(dotFile.toString(), complexity, layout, attempt -> {
+            List<String> command = new ArrayList<>();
+            command.add(settings.command());
+            command.addAll(attempt.arguments());
+            for (int i : missing) {
+                command.add("-T" + formats.get(i));
+                command.add("-o");
+                command.add(imageFiles.get(i).toString());
+            }
+            run(command, stdin -> Files.copy(dotFile, stdin), OutputStream.nullOutputStream());
+            return null;
+        });
+        if (cache != null) {
+            for (int i : missing) {
+                cache.store(keys.get(i), imageFiles.get(i));
+            }
+        }
+        return imageFiles;
+    }
+
+    /**
+     * Render DOT text to an image in memory
+     */
+    public byte[] render(String dotContent, String format) throws Exception {
+        LayoutPolicy.Complexity complexity = LayoutPolicy.Complexity.measure(new BufferedReader(new StringReader(dotContent)));
+        LayoutPolicy.Layout layout = LayoutPolicy.choose(complexity, settings.layoutEngine());
+        byte[] dotBytes = dotContent.getBytes(StandardCharsets.UTF_8);
+
+        RenderCache cache = renderCache;
+        String key = null;
+        if (cache != null) {
+            key = RenderCache.key(RenderCache.newDigest().digest(dotBytes), format, layout.arguments(), graphvizVersion());
+            byte[] cached = cache.read(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        byte[] image = layOut("request", complexity, layout, attempt -> {
+            List<String> command = new ArrayList<>();
+            command.add(settings.command());
+            command.addAll(attempt.arguments());
+            command.add("-T" + format);
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            run(command, stdin -> stdin.write(dotBytes), output);
+            return output.toByteArray();
+        });
+        if (cache != null) {
+            cache.store(key, image);
+        }
+        return image;
+    }
+
+    /**
+     * The installed Graphviz version as reported by {@code dot -V}, read once
+     */
+    public String graphvizVersion() throws Exception {
+        String version = graphvizVersion;
+        if (version == null) {
+            Process process = new ProcessBuilder(settings.command(), "-V").redirectErrorStream(true).start();
+            version = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+            if (process.waitFor() != 0) {
+                throw new IOException("Could not determine the Graphviz version: " + version);
+            }
+            graphvizVersion = version;
+        }
+        return version;
+    }
+
+    /**
+     * Render with the layout chosen for the diagram, retrying with its fallback after a timeout
+     */
+    private <T> T layOut(String name, LayoutPolicy.Complexity complexity, LayoutPolicy.Layout primary, Attempt<T> attempt) throws Exception {
+        Settings current = settings;
+        LayoutPolicy.Layout layout = primary;
+
+        while (true) {
+            try {
+                T result = attempt.run(layout);
+                logger.info("Laid out {} with {}{} ({} nodes, {} edges, {} cells)", name, layout.engine(),
+                        layout == primary ? "" : " after " + primary.engine() + " timed out",
+                        complexity.nodes(), complexity.edges(), complexity.cells());
+                return result;
+            } catch (TimeoutException e) {
+                LayoutPolicy.Layout fallback = layout.fallback();
+                if (fallback == null || layout != primary) {
+                    throw new IOException("Graphviz " + layout.engine() + " did not finish " + name + " within "
+                            + current.timeout().toSeconds() + " s", e);
+                }
+                logger.warn("Graphviz {} timed out after {} s on {}, retrying with {}", layout.engine(),
+                        current.timeout().toSeconds(), name, fallback.engine());
+                layout = fallback;
+            }
+        }
+    }
+
+    private void run(List<String> command, DotSource source, OutputStream stdout) throws Exception {
+        Duration timeout = settings.timeout();
+        Semaphore slots = processSlots;
+        slots.acquire();
+        try {
+            conversionMetrics.run(ConversionStage.GRAPHVIZ, () -> {
+                Process process = new ProcessBuilder(command).start();
+                ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+                FutureTask<Void> stdoutDrain = drain(process.getInputStream(), stdout);
+                FutureTask<Void> stderrDrain = drain(process.getErrorStream(), stderr);
+                FutureTask<Void> stdinFeed = feed(process.getOutputStream(), source);
+
+                boolean finished = timeout.isZero()
+                        ? process.waitFor() >= 0
+                        : process.waitFor(timeout.toMillis(), TimeUnit.MILLISECONDS);
+                if (!finished) {
+                    // The pipes close with the process, which ends the feed and drain threads
+                    process.destroyForcibly().waitFor();
+                    throw new TimeoutException(command.get(1) + " exceeded " + timeout);
+                }
+                await(stdinFeed);
+                await(stdoutDrain);
+                await(stderrDrain);
+
+                int exitCode = process.exitValue();
+                String messages = stderr.toString(StandardCharsets.UTF_8).trim();
+                if (exitCode != 0) {
+                    throw new IOException("Graphviz rendering failed with exit code " + exitCode
+                            + (messages.isEmpty() ? "" : ": " + messages));
+                }
+                if (!messages.isEmpty()) {
+                    logger.warn("Graphviz: {}", messages);
+                }
+            });
+        } finally {
+            slots.release();
+        }
+    }
+
+    /**
+     * Write DOT to the process's stdin on a virtual thread, so a stalled process cannot block the caller
+     */
+    private static FutureTask<Void> feed(OutputStream stdin, DotSource source) {
+        FutureTask<Void> task = new FutureTask<>(() -> {
+            try (stdin) {
+                source.writeTo(stdin);
+            } catch (IOException e) {
+                // dot closes stdin when it fails early or is killed; its exit code and stderr tell why
+                logger.debug("dot stopped reading its input: {}", e.getMessage());
+            }
+            return null;
+        });
+        Thread.ofVirtual().name("dot-feed").start(task);
+        return task;
+    }
+
+    /**
+     * Copy a process stream to a sink on a virtual thread until the process closes it
+     */
+    private static FutureTask<Void> drain(InputStream stream, OutputStream sink) {
+        FutureTask<Void> task = new FutureTask<>(() -> {
+            try (stream) {
+                stream.transferTo(sink);
+            }
+            return null;
+        });
+        Thread.ofVirtual().name("dot-drain").start(task);
+        return task;
+    }
+
+    private static void await(FutureTask<Void> drain) throws Exception {
+        try {
+            drain.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package com.example.converter.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Picks the Graphviz layout engine and attributes for a diagram from its size.
+ * dot gives the best layered layout but its cost grows much faster than linearly with edges
+ * and with the size of the HTML tables it routes around, so larger graphs get cheaper edge
+ * routing and the largest go straight to sfdp. Every dot layout has sfdp as the fallback
+ * when it runs out of time.
+ * <p>
+ * Size is measured from the DOT rather than the {@code DiagramModel}: renders start from DOT
+ * files, which may have been written by custom templates or by an earlier run, and the DOT is
+ * what Graphviz actually lays out, table cells included.
+ */
+public final class LayoutPolicy {
+
+    /** Layout engine chosen from the measured complexity */
+    public static final String AUTO = "auto";
+
+    // Up to here dot with spline routing finishes in seconds
+    private static final int SMALL_NODES = 30;
+    private static final int SMALL_EDGES = 100;
+    private static final int SMALL_CELLS = 1_000;
+
+    // Up to here dot still finishes with polyline edges and capped ranking and crossing passes
+    private static final int MEDIUM_NODES = 500;
+    private static final int MEDIUM_EDGES = 2_500;
+    private static final int MEDIUM_CELLS = 25_000;
+
+    private static final List<String> ENGINES = List.of("dot", "neato", "sfdp");
+    private static final List<String> REDUCED_DOT_ATTRIBUTES = List.of("-Gsplines=polyline", "-Gnslimit=2", "-Gmclimit=0.5");
+    private static final List<String> FORCE_DIRECTED_ATTRIBUTES = List.of("-Goverlap=prism", "-Gsplines=false");
+
+    private LayoutPolicy() {
+    }
+
+    /**
+     * Size of a diagram as Graphviz sees it: distinct nodes, edges and HTML table cells
+     */
+    public record Complexity(int nodes, int edges, int cells) {
+
+        /**
+         * Count the nodes, edges and cells of DOT text. Nodes are the distinct ids of node statements
+         * and edge ends, edges every "->" or "--" between statements, and cells the {@code <TD}
+         * tags of HTML labels; quoted strings and comments are skipped, so labels cannot add to the counts.
+         */
+        public static Complexity measure(BufferedReader dot) throws IOException {
+            return new DotScanner(dot).scan();
+        }
+    }
+
+    /**
+     * A single pass over DOT text at the level of its tokens, holding only the set of node ids
+     */
+    private static final class DotScanner {
+
+        private static final Set<String> KEYWORDS = Set.of("graph", "digraph", "subgraph", "node", "edge", "strict");
+
+        // Token kinds besides single-character punctuation
+        private static final int END = -1;
+        private static final int ID = -2;
+        private static final int EDGE_OP = -3;
+
+        private final Reader reader;
+        private final StringBuilder text = new StringBuilder();
+        private final Set<String> nodes = new HashSet<>();
+        private int edges;
+        private int cells;
+
+        private int pushedBack = END - 1;
+
+        DotScanner(Reader reader) {
+            this.reader = reader;
+        }
+
+        Complexity scan() throws IOException {
+            // Ids at statement level are nodes unless they name a graph, set an attribute or open a keyword statement
+            int bracketDepth = 0;
+            boolean afterKeyword = false;
+            String candidate = null;
+            for (int token = next(); token != END; token = next()) {
+                if (bracketDepth > 0) {
+                    if (token == '[') {
+                        bracketDepth++;
+                    } else if (token == ']') {
+                        bracketDepth--;
+                    }
+                    continue;
+                }
+                if (token == '=') {
+                    // The id before "=" was an attribute name and the next one is its value
+                    candidate = null;
+                    next();
+                    continue;
+                }
+                if (candidate != null) {
+                    nodes.add(candidate);
+                    candidate = null;
+                }
+                switch (token) {
+                    case ID -> {
+                        String id = text.toString();
+                        if (KEYWORDS.contains(id.toLowerCase(Locale.ROOT))) {
+                            afterKeyword = true;
+                        } else if (afterKeyword) {
+                            // The name of a graph or subgraph
+                            afterKeyword = false;
+                        } else {
+                            candidate = id;
+                        }
+                    }
+                    case EDGE_OP -> edges++;
+                    case '[' -> {
+                        bracketDepth++;
+                        afterKeyword = false;
+                    }
+                    default -> afterKeyword = false;
+                }
+            }
+            if (candidate != null) {
+                nodes.add(candidate);
+            }
+            return new Complexity(nodes.size(), edges, cells);
+        }
+
+        /**
+         * The next token: an id (plain, quoted or HTML, text in {@link #text}), an edge operator or a punctuation character
+         */
+        private int next() throws IOException {
+            int c = read();
+            while (true) {
+                if (c == END) {
+                    return END;
+                }
+                if (Character.isWhitespace(c)) {
+                    c = read();
+                } else if (c == '/') {
+                    int following = read();
+                    if (following == '/') {
+                        c = skipLine();
+                    } else if (following == '*') {
+                        c = skipBlockComment();
+                    } else {
+                        unread(following);
+                        return c;
+                    }
+                } else {
+                    break;
+                }
+            }
+
+            text.setLength(0);
+            if (c == '"') {
+                readQuoted();
+                return ID;
+            }
+            if (c == '<') {
+                readHtml();
+                return ID;
+            }
+            if (c == '-') {
+                int following = read();
+                if (following == '>' || following == '-') {
+                    return EDGE_OP;
+                }
+                unread(following);
+            }
+            if (Character.isLetterOrDigit(c) || c == '_' || c == '.' || c == '-' || c > 127) {
+                while (c != END && (Character.isLetterOrDigit(c) || c == '_' || c == '.' || c > 127 || c == '-' && text.isEmpty())) {
+                    text.append((char) c);
+                    c = read();
+                }
+                unread(c);
+                return ID;
+            }
+            return c;
+        }
+
+        private void readQuoted() throws IOException {
+            for (int c = read(); c != END && c != '"'; c = read()) {
+                if (c == '\\') {
+                    c = read();
+                }
+                text.append((char) c);
+            }
+        }
+
+        /**
+         * An HTML label, from its opening to its matching closing angle bracket, counting its table cells
+         */
+        private void readHtml() throws IOException {
+            int depth = 1;
+            int previous = '<';
+            for (int c = read(); c != END; c = read()) {
+                if (c == '<') {
+                    depth++;
+                } else if (c == '>') {
+                    if (--depth == 0) {
+                        return;
+                    }
+                } else if (previous == '<' && (c == 'T' || c == 't')) {
+                    int following = read();
+                    if (following == 'D' || following == 'd') {
+                        int after = read();
+                        if (after == '>' || after == END || Character.isWhitespace(after)) {
+                            cells++;
+                        }
+                        unread(after);
+                    } else {
+                        unread(following);
+                    }
+                }
+                previous = c;
+            }
+        }
+
+        private int skipLine() throws IOException {
+            int c = read();
+            while (c != END && c != '\n') {
+                c = read();
+            }
+            return c;
+        }
+
+        private int skipBlockComment() throws IOException {
+            int previous = 0;
+            for (int c = read(); c != END; c = read()) {
+                if (previous == '*' && c == '/') {
+                    return read();
+                }
+                previous = c;
+            }
+            return END;
+        }
+
+        private int read() throws IOException {
+            if (pushedBack != END - 1) {
+                int c = pushedBack;
+                pushedBack = END - 1;
+                return c;
+            }
+            return reader.read();
+        }
+
+        private void unread(int c) {
+            pushedBack = c;
+        }
+    }
+
+    /**
+     * A Graphviz engine with its extra attributes, and the engine to retry with if it times out (null for none)
+     */
+    public record Layout(String engine, List<String> attributes, String fallbackEngine) {
+
+        /**
+         * Command line arguments selecting this layout
+         */
+        public List<String> arguments() {
+            List<String> arguments = new ArrayList<>();
+            arguments.add("-K" + engine);
+            arguments.addAll(attributes);
+            return arguments;
+        }
+
+        /**
+         * The layout to retry with after a timeout, or null if there is none
+         */
+        public Layout fallback() {
+            return fallbackEngine != null ? forEngine(fallbackEngine) : null;
+        }
+    }
+
+    /**
+     * Check an engine name given on the command line, returning it in lower case
+     */
+    public static String validateEngine(String engine) {
+        String name = engine.toLowerCase(Locale.ROOT);
+        if (!AUTO.equals(name) && !ENGINES.contains(name)) {
+            throw new IllegalArgumentException("Unknown layout engine: " + engine + " (expected auto, " + String.join(", ", ENGINES) + ")");
+        }
+        return name;
+    }
+
+    /**
+     * Choose the layout for a diagram, honouring an explicitly requested engine
+     */
+    public static Layout choose(Complexity complexity, String engine) {
+        if (!AUTO.equals(engine)) {
+            return forEngine(engine);
+        }
+        if (complexity.nodes() <= SMALL_NODES && complexity.edges() <= SMALL_EDGES && complexity.cells() <= SMALL_CELLS) {
+            return new Layout("dot", List.of(), "sfdp");
+        }
+        if (complexity.nodes() <= MEDIUM_NODES && complexity.edges() <= MEDIUM_EDGES && complexity.cells() <= MEDIUM_CELLS) {
+            return new Layout("dot", REDUCED_DOT_ATTRIBUTES, "sfdp");
+        }
+        return new Layout("sfdp", FORCE_DIRECTED_ATTRIBUTES, null);
+    }
+
+    private static Layout forEngine(String engine) {
+        return switch (engine) {
+            case "dot" -> new Layout("dot", List.of(), "sfdp");
+            case "neato" -> new Layout("neato", List.of("-Goverlap=prism"), "sfdp");
+            default -> new Layout(engine, FORCE_DIRECTED_ATTRIBUTES, null);
+        };
+    }
+}
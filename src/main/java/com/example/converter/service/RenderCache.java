@@ -0,0 +1,294 @@
+package com.example.converter.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed store of rendered images on local disk.
+ * An image is stored under the SHA-256 of the DOT it was rendered from, the output format,
+ * the layout arguments and the Graphviz version, so identical DOT from any branch, job or
+ * checkout is rendered once. Entries are written to a temporary file and moved into place,
+ * so batch workers and other processes sharing the directory never read a partial image.
+ * When the total size exceeds the limit the least recently used entries are deleted; a hit
+ * refreshes the entry's modification time so the order carries over to the next run.
+ * Temporary files left behind by writes that crashed are deleted when the cache is opened.
+ */
+public final class RenderCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(RenderCache.class);
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    // Temporary files older than this were left by a write that crashed, not one still in progress
+    private static final Duration STALE_TEMP_AGE = Duration.ofHours(1);
+
+    private final Path directory;
+    private final long maxBytes;
+
+    // Entry name to size in access order, guarded by this
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Hit, miss and eviction counts, and the current size of the cache
+     */
+    public record Statistics(long hits, long misses, long evictions, int entries, long bytes) {
+    }
+
+    private RenderCache(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Open a cache directory, creating it if needed, and trim it to the size limit
+     */
+    public static RenderCache open(Path directory, long maxBytes) throws IOException {
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("Render cache size must be positive");
+        }
+        RenderCache cache = new RenderCache(directory.toAbsolutePath().normalize(), maxBytes);
+        Files.createDirectories(cache.directory);
+        cache.load();
+        return cache;
+    }
+
+    /**
+     * Cache key for one image: the hash of everything that determines its bytes, plus the format as extension
+     */
+    public static String key(byte[] dotHash, String format, List<String> layoutArguments, String graphvizVersion) {
+        MessageDigest digest = newDigest();
+        digest.update(dotHash);
+        for (String part : List.of(format, String.join(" ", layoutArguments), graphvizVersion)) {
+            digest.update((byte) '\n');
+            digest.update(part.getBytes(StandardCharsets.UTF_8));
+        }
+        return HexFormat.of().formatHex(digest.digest()) + "." + format;
+    }
+
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Copy a cached image to a file, returning false on a miss
+     */
+    public boolean copyTo(String key, Path target) throws IOException {
+        Path entry = entryFile(key);
+        if (!Files.isRegularFile(entry)) {
+            return miss(key);
+        }
+        Path tempFile = Files.createTempFile(target.toAbsolutePath().getParent(), target.getFileName().toString(), TEMP_SUFFIX);
+        try {
+            Files.copy(entry, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (NoSuchFileException e) {
+            // Evicted by another process since the check
+            if (!Files.exists(entry)) {
+                return miss(key);
+            }
+            throw e;
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+        hit(key, entry);
+        return true;
+    }
+
+    /**
+     * Read a cached image, returning null on a miss
+     */
+    public byte[] read(String key) throws IOException {
+        Path entry = entryFile(key);
+        byte[] image;
+        try {
+            image = Files.readAllBytes(entry);
+        } catch (NoSuchFileException e) {
+            miss(key);
+            return null;
+        }
+        hit(key, entry);
+        return image;
+    }
+
+    /**
+     * Store a rendered image file
+     */
+    public void store(String key, Path image) throws IOException {
+        Path entry = entryFile(key);
+        Files.createDirectories(entry.getParent());
+        Path tempFile = Files.createTempFile(entry.getParent(), key, TEMP_SUFFIX);
+        try {
+            Files.copy(image, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(tempFile, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+        added(key, Files.size(entry));
+    }
+
+    /**
+     * Store a rendered image held in memory
+     */
+    public void store(String key, byte[] image) throws IOException {
+        Path entry = entryFile(key);
+        Files.createDirectories(entry.getParent());
+        Path tempFile = Files.createTempFile(entry.getParent(), key, TEMP_SUFFIX);
+        try {
+            Files.write(tempFile, image);
+            Files.move(tempFile, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+        added(key, image.length);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public synchronized Statistics getStatistics() {
+        return new Statistics(hits.sum(), misses.sum(), evictions.sum(), entries.size(), totalBytes);
+    }
+
+    private void hit(String key, Path entry) {
+        hits.increment();
+        try {
+            Files.setLastModifiedTime(entry, FileTime.from(Instant.now()));
+            long size = Files.size(entry);
+            synchronized (this) {
+                // Known entries move to the most recent end; ones stored by another process are added
+                if (entries.putIfAbsent(key, size) == null) {
+                    totalBytes += size;
+                }
+            }
+        } catch (IOException e) {
+            logger.debug("Could not refresh render cache entry {}: {}", key, e.getMessage());
+        }
+    }
+
+    private synchronized boolean miss(String key) {
+        misses.increment();
+        Long size = entries.remove(key);
+        if (size != null) {
+            // Evicted by another process
+            totalBytes -= size;
+        }
+        return false;
+    }
+
+    private void added(String key, long size) {
+        synchronized (this) {
+            Long previous = entries.put(key, size);
+            totalBytes += size - (previous != null ? previous : 0);
+        }
+        trim();
+    }
+
+    /**
+     * Delete least recently used entries until the cache fits its limit
+     */
+    private void trim() {
+        List<String> evicted = new ArrayList<>();
+        synchronized (this) {
+            for (Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+                 totalBytes > maxBytes && iterator.hasNext(); ) {
+                Map.Entry<String, Long> eldest = iterator.next();
+                totalBytes -= eldest.getValue();
+                evicted.add(eldest.getKey());
+                iterator.remove();
+            }
+        }
+        for (String key : evicted) {
+            try {
+                Files.deleteIfExists(entryFile(key));
+                evictions.increment();
+            } catch (IOException e) {
+                logger.warn("Could not evict render cache entry {}: {}", key, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Index the existing entries from least to most recently used, delete stale temporary files,
+     * then trim to the limit
+     */
+    private void load() throws IOException {
+        record Stored(String key, long size, FileTime modified) {
+        }
+
+        List<Stored> stored = new ArrayList<>();
+        FileTime staleBefore = FileTime.from(Instant.now().minus(STALE_TEMP_AGE));
+        try (Stream<Path> files = Files.walk(directory, 2)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (directory.relativize(file).getNameCount() != 2) {
+                    continue;
+                }
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                if (!attributes.isRegularFile()) {
+                    continue;
+                }
+                String name = file.getFileName().toString();
+                if (!name.endsWith(TEMP_SUFFIX)) {
+                    stored.add(new Stored(name, attributes.size(), attributes.lastModifiedTime()));
+                } else if (attributes.lastModifiedTime().compareTo(staleBefore) < 0) {
+                    deleteStale(file);
+                }
+            }
+        }
+        stored.sort(Comparator.comparing(Stored::modified));
+
+        synchronized (this) {
+            for (Stored entry : stored) {
+                entries.put(entry.key(), entry.size());
+                totalBytes += entry.size();
+            }
+        }
+        trim();
+        logger.debug("Render cache {} holds {} images, {} bytes", directory, entries.size(), totalBytes);
+    }
+
+    private static void deleteStale(Path tempFile) {
+        try {
+            Files.deleteIfExists(tempFile);
+            logger.debug("Deleted stale render cache file {}", tempFile);
+        } catch (IOException e) {
+            logger.warn("Could not delete stale render cache file {}: {}", tempFile, e.getMessage());
+        }
+    }
+
+    private Path entryFile(String key) {
+        // Two-character fan-out keeps directories small
+        return directory.resolve(key.substring(0, 2)).resolve(key);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.converter.service;
+
+/**
+ * Engines that can turn a diagram model into DOT
+ */
+public enum RenderEngine {
+
+    /**
+     * Velocity templates named in the diagram.templates configuration
+     */
+    VELOCITY,
+
+    /**
+     * Built-in Java renderer, byte-identical to the default templates
+     */
+    DIRECT
+}
@@ -0,0 +1,358 @@
+package com.example.converter.service;
+
+import com.example.converter.config.DiagramProperties;
+import com.example.converter.metrics.ConversionMetrics;
+import com.example.converter.metrics.ConversionStage;
+import com.example.converter.model.DiagramModel;
+import com.example.converter.model.EntityModel;
+import com.example.converter.model.RelationshipModel;
+import com.example.converter.model.StringPool;
+import com.example.converter.template.TemplateCache;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.velocity.VelocityContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Service for generating DOT diagrams from very large JSON models.
+ * Entities are read one at a time with a Jackson {@link JsonParser} while the main
+ * template renders, so each entity is written out as soon as it is parsed. Only
+ * relationships and layout hints are kept in memory.
+ * <p>
+ * Templates see the same {@code $diagram} as in a normal render, except that
+ * {@code $diagram.entities} is an {@link EntityStream}: it can be iterated once, and has no
+ * index access.
+ */
+@Service
+public class StreamingDiagramService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamingDiagramService.class);
+
+    @Autowired
+    private DiagramService diagramService;
+
+    @Autowired
+    private TemplateCache templateCache;
+
+    @Autowired
+    private StyleService styleService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DirectDotRenderer directDotRenderer;
+
+    @Autowired
+    private ConversionMetrics conversionMetrics;
+
+    /**
+     * Stream DOT content for a JSON model file to the given writer
+     */
+    public void streamDotContent(Path inputFile, String configFile, Writer writer) throws Exception {
+        streamDotContent(inputFile, configFile, writer, RenderEngine.VELOCITY);
+    }
+
+    /**
+     * Stream DOT content for a JSON model file to the given writer with the given rendering engine
+     */
+    public void streamDotContent(Path inputFile, String configFile, Writer writer, RenderEngine engine) throws Exception {
+        stream(() -> objectMapper.getFactory().createParser(inputFile.toFile()), inputFile.toString(), true,
+                configFile, writer, engine);
+    }
+
+    /**
+     * Stream DOT content for a JSON model read from a stream, such as standard input. A stream
+     * can only be read once, so entities that precede the diagram header are held in memory
+     * until the rest of the document has been read.
+     */
+    public void streamDotContent(InputStream input, String configFile, Writer writer, RenderEngine engine) throws Exception {
+        stream(() -> objectMapper.getFactory().createParser(input), "standard input", false, configFile, writer, engine);
+    }
+
+    private void stream(ParserSource source, String name, boolean rereadable, String configFile, Writer writer,
+                        RenderEngine engine) throws Exception {
+        // Load custom configuration if provided
+        DiagramProperties config = conversionMetrics.time(ConversionStage.LOAD_CONFIG, () -> diagramService.loadConfiguration(configFile));
+
+        DiagramModel diagram = new DiagramModel();
+        Set<String> headerFields = new HashSet<>();
+
+        try (JsonParser parser = createParser(source, name)) {
+            if (!conversionMetrics.time(ConversionStage.READ_JSON, () -> readUntilEntities(parser, diagram, headerFields))) {
+                // No entities array: the whole (small) document has been read
+                render(diagram, diagram.getEntities(), config, engine, writer);
+                return;
+            }
+
+            if (headerFields.contains("metadata") && headerFields.contains("diagram_settings")) {
+                render(diagram, new EntityStream(parser, diagram, true), config, engine, writer);
+                return;
+            }
+
+            // The header is written before any entity, but metadata or diagram settings
+            // may still follow the entities array.
+            if (!rereadable) {
+                logger.warn("Entities precede diagram header in {}, holding them in memory", name);
+                diagram.setEntities(conversionMetrics.time(ConversionStage.READ_JSON, () -> readEntities(parser, diagram)));
+                render(diagram, diagram.getEntities(), config, engine, writer);
+                return;
+            }
+            // Read the rest of the document first and stream the entities in a second pass over the file
+            logger.debug("Entities precede diagram header in {}, using two passes", name);
+            conversionMetrics.run(ConversionStage.READ_JSON, () -> {
+                parser.skipChildren();
+                readRemainingFields(parser, diagram);
+            });
+        }
+
+        try (JsonParser parser = createParser(source, name)) {
+            seekEntities(parser);
+            render(diagram, new EntityStream(parser, diagram, false), config, engine, writer);
+        }
+    }
+
+    /**
+     * Opens a parser over the model, once per pass
+     */
+    @FunctionalInterface
+    private interface ParserSource {
+        JsonParser open() throws IOException;
+    }
+
+    private JsonParser createParser(ParserSource source, String name) throws IOException {
+        JsonParser parser = source.open();
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            parser.close();
+            throw new IOException("Expected a JSON object at the top level of " + name);
+        }
+        return parser;
+    }
+
+    /**
+     * Parse the whole entities array, then the rest of the document
+     */
+    private List<EntityModel> readEntities(JsonParser parser, DiagramModel diagram) throws IOException {
+        List<EntityModel> entities = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            entities.add(diagramService.parseEntity(parser.readValueAsTree(), StringPool.unpooled()));
+        }
+        readRemainingFields(parser, diagram);
+        return entities;
+    }
+
+    /**
+     * Read top-level fields until the entities array is reached.
+     * Returns true with the parser positioned on the start of the array, or false at the end of the document.
+     */
+    private boolean readUntilEntities(JsonParser parser, DiagramModel diagram, Set<String> seenFields) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("entities".equals(fieldName) && value == JsonToken.START_ARRAY) {
+                return true;
+            }
+            readTopLevelField(parser, fieldName, diagram);
+            seenFields.add(fieldName);
+        }
+        return false;
+    }
+
+    private void readRemainingFields(JsonParser parser, DiagramModel diagram) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            parser.nextToken();
+            readTopLevelField(parser, fieldName, diagram);
+        }
+    }
+
+    private void seekEntities(JsonParser parser) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            if (parser.nextToken() == JsonToken.START_ARRAY && "entities".equals(fieldName)) {
+                return;
+            }
+            parser.skipChildren();
+        }
+        throw new IOException("Entities array disappeared between passes");
+    }
+
+    private void readTopLevelField(JsonParser parser, String fieldName, DiagramModel diagram) throws IOException {
+        switch (fieldName) {
+            case "metadata" -> diagramService.parseMetadata(diagram, parser.readValueAsTree());
+            case "diagram_settings" -> diagramService.parseDiagramSettings(diagram, parser.readValueAsTree());
+            case "layout_hints" -> diagramService.parseLayoutHints(diagram, parser.readValueAsTree(), StringPool.unpooled());
+            case "relationships" -> readRelationships(parser, diagram);
+            default -> parser.skipChildren();
+        }
+    }
+
+    private void readRelationships(JsonParser parser, DiagramModel diagram) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+        // Relationships are kept until the end of the render, so their repeated ids and labels are pooled
+        StringPool strings = new StringPool();
+        List<RelationshipModel> relationshipList = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            JsonNode relationshipNode = parser.readValueAsTree();
+            relationshipList.add(diagramService.parseRelationship(relationshipNode, strings));
+        }
+        diagram.setRelationships(relationshipList);
+    }
+
+    private void render(DiagramModel diagram, Iterable<EntityModel> entities, DiagramProperties config, RenderEngine engine,
+                        Writer writer) throws Exception {
+        // Entities are parsed and written while rendering, so both are part of this stage
+        conversionMetrics.run(ConversionStage.RENDER, () -> {
+            if (engine == RenderEngine.DIRECT) {
+                directDotRenderer.render(diagram, entities, config, styleService.compile(config), writer);
+                writer.flush();
+                return;
+            }
+
+            VelocityContext context = diagramService.createDiagramContext(diagram, config, styleService.compile(config));
+            if (entities instanceof EntityStream stream) {
+                context.put("diagram", new StreamedDiagram(diagram, stream));
+            }
+
+            // No fallback to generateSimpleDot here: part of the output may already be written
+            String templateName = config.getTemplates().getMainTemplate();
+            templateCache.getTemplate(templateName).merge(context, writer);
+            writer.flush();
+        });
+    }
+
+    /**
+     * The diagram as the main template sees it while entities are streamed. Header fields,
+     * relationships and layout hints are read from the model, which the stream completes when
+     * it reaches the end of the entities array.
+     */
+    public static final class StreamedDiagram {
+
+        private final DiagramModel diagram;
+        private final EntityStream entities;
+
+        private StreamedDiagram(DiagramModel diagram, EntityStream entities) {
+            this.diagram = diagram;
+            this.entities = entities;
+        }
+
+        public String getTitle() { return diagram.getTitle(); }
+
+        public String getVersion() { return diagram.getVersion(); }
+
+        public String getDescription() { return diagram.getDescription(); }
+
+        public String getRankdir() { return diagram.getRankdir(); }
+
+        public EntityStream getEntities() { return entities; }
+
+        public List<RelationshipModel> getRelationships() { return diagram.getRelationships(); }
+
+        public List<List<String>> getSameRankGroups() { return diagram.getSameRankGroups(); }
+    }
+
+    /**
+     * Single-pass sequence of the entities array. Each entity is parsed when the template asks
+     * for it and can be collected once rendered. Reaching the end of the array reads the rest
+     * of the document so relationships and layout hints are available to the template.
+     * It is not a list: {@link #size()} counts the entities read so far, which is the total
+     * once the sequence has been iterated, and {@link #isEmpty()} reads ahead one entity.
+     */
+    public final class EntityStream implements Iterable<EntityModel> {
+
+        private final JsonParser parser;
+        private final DiagramModel diagram;
+        private final boolean readTrailingFields;
+        private boolean iterated;
+        private EntityModel next;
+        private boolean finished;
+        private int count;
+
+        private EntityStream(JsonParser parser, DiagramModel diagram, boolean readTrailingFields) {
+            this.parser = parser;
+            this.diagram = diagram;
+            this.readTrailingFields = readTrailingFields;
+        }
+
+        /**
+         * Entities read from the array so far
+         */
+        public int size() {
+            return count;
+        }
+
+        /**
+         * Whether the array has no entities, reading the first one if needed
+         */
+        public boolean isEmpty() {
+            return count == 0 && !readAhead();
+        }
+
+        @Override
+        public Iterator<EntityModel> iterator() {
+            if (iterated) {
+                throw new IllegalStateException("Streamed entities can only be iterated once");
+            }
+            iterated = true;
+
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return readAhead();
+                }
+
+                @Override
+                public EntityModel next() {
+                    if (!readAhead()) {
+                        throw new NoSuchElementException();
+                    }
+                    EntityModel entity = next;
+                    next = null;
+                    return entity;
+                }
+            };
+        }
+
+        /**
+         * Parse the next entity unless one is already waiting; false at the end of the array
+         */
+        private boolean readAhead() {
+            if (next == null && !finished) {
+                try {
+                    if (parser.nextToken() == JsonToken.END_ARRAY) {
+                        finished = true;
+                        if (readTrailingFields) {
+                            readRemainingFields(parser, diagram);
+                        }
+                    } else {
+                        next = diagramService.parseEntity(parser.readValueAsTree(), StringPool.unpooled());
+                        count++;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return next != null;
+        }
+    }
+}
@@ -2,11 +2,12 @@ package com.example.converter.service;
 
 import com.example.converter.config.DiagramProperties;
 import com.example.converter.model.DiagramModel;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.WeakHashMap;
 
 /**
  * Service for managing diagram styling
@@ -14,30 +15,64 @@ import java.util.Map;
 @Service
 public class StyleService {
     
-    @Autowired
-    private DiagramProperties diagramProperties;
+    private final DiagramProperties diagramProperties;
+
+    // Compiled tables per configuration instance; configurations are not modified once loaded
+    private final Map<DiagramProperties, CompiledStyles> compiledStyles =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    public StyleService(DiagramProperties diagramProperties) {
+        this.diagramProperties = diagramProperties;
+    }
     
     /**
      * Apply styles to the diagram model
      */
-    public void applyStyles(DiagramModel diagram, DiagramProperties config) {
-        // Styling is handled via templates and getEntityStyles method
-        // This method can be used for any pre-processing if needed
+    public CompiledStyles applyStyles(DiagramModel diagram, DiagramProperties config) {
+        // Styling itself is done by the templates from the compiled style tables
+        return compile(config);
+    }
+
+    /**
+     * Get the compiled style tables for a configuration, compiling them on first use
+     */
+    public CompiledStyles compile(DiagramProperties config) {
+        return compiledStyles.computeIfAbsent(config, this::compileStyles);
     }
     
     /**
-     * Get complete style configuration for an entity
+     * Get complete style configuration for an entity from the default configuration
      */
     public Map<String, String> getEntityStyles(String entityId) {
+        return compile(diagramProperties).getEntityStyles(entityId);
+    }
+    
+    /**
+     * Get relationship styles from the default configuration
+     */
+    public Map<String, String> getRelationshipStyles() {
+        return compile(diagramProperties).getRelationshipStyles();
+    }
+
+    private CompiledStyles compileStyles(DiagramProperties config) {
+        DiagramProperties.StyleDefinition defaultStyles = config.getStyles().getDefault();
+        Map<String, String> defaultEntityStyles = resolveEntityStyles(null, defaultStyles);
+
+        Map<String, Map<String, String>> entityStyles = new HashMap<>();
+        for (Map.Entry<String, DiagramProperties.StyleDefinition> entry : config.getStyles().getEntities().entrySet()) {
+            Map<String, String> styles = resolveEntityStyles(entry.getValue(), defaultStyles);
+            // Entities whose overrides change nothing share the default table
+            entityStyles.put(entry.getKey(), styles.equals(defaultEntityStyles) ? defaultEntityStyles : styles);
+        }
+
+        return new CompiledStyles(defaultEntityStyles, Collections.unmodifiableMap(entityStyles),
+                resolveRelationshipStyles(defaultStyles));
+    }
+
+    private Map<String, String> resolveEntityStyles(DiagramProperties.StyleDefinition entityStyles,
+                                                    DiagramProperties.StyleDefinition defaultStyles) {
         Map<String, String> styles = new HashMap<>();
         
-        // Get default styles
-        DiagramProperties.StyleDefinition defaultStyles = diagramProperties.getStyles().getDefault();
-        
-        // Get entity-specific styles
-        DiagramProperties.StyleDefinition entityStyles = 
-            diagramProperties.getStyles().getEntities().get(entityId);
-        
         // Header styles
         styles.put("header_bg", getStyleValue(entityStyles, defaultStyles, "header", "bgcolor", "#333333"));
         styles.put("header_text", getStyleValue(entityStyles, defaultStyles, "header", "forecolor", "white"));
@@ -63,22 +98,17 @@ public class StyleService {
         styles.put("constraint_bg", getStyleValue(entityStyles, defaultStyles, "constraint", "bgcolor", "#F5F5F5"));
         styles.put("constraint_text", getStyleValue(entityStyles, defaultStyles, "constraint", "forecolor", "#666666"));
         
-        return styles;
+        return Collections.unmodifiableMap(styles);
     }
     
-    /**
-     * Get relationship styles
-     */
-    public Map<String, String> getRelationshipStyles() {
+    private Map<String, String> resolveRelationshipStyles(DiagramProperties.StyleDefinition defaultStyles) {
         Map<String, String> styles = new HashMap<>();
         
-        DiagramProperties.StyleDefinition defaultStyles = diagramProperties.getStyles().getDefault();
-        
         styles.put("color", getStyleValue(null, defaultStyles, "relationship", "color", "#666666"));
         styles.put("font_size", getStyleValue(null, defaultStyles, "relationship", "fontSize", "9"));
         styles.put("style", getStyleValue(null, defaultStyles, "relationship", "style", "solid"));
         
-        return styles;
+        return Collections.unmodifiableMap(styles);
     }
     
     private String getStyleValue(DiagramProperties.StyleDefinition entityStyles,
@@ -0,0 +1,67 @@
+package com.example.converter.template;
+
+import org.apache.velocity.Template;
+import org.apache.velocity.context.InternalContextAdapter;
+import org.apache.velocity.exception.VelocityException;
+import org.apache.velocity.runtime.directive.Directive;
+import org.apache.velocity.runtime.directive.StopCommand;
+import org.apache.velocity.runtime.parser.node.Node;
+import org.apache.velocity.runtime.parser.node.SimpleNode;
+import org.apache.velocity.util.StringUtils;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * {@code #merge($template)} renders an already parsed {@link Template} in the current context.
+ * Unlike {@code #parse}, it never goes back to the resource manager by name and does not grow
+ * the context's macro library list, so rendering a sub-template once per entity costs only
+ * the render itself. Given {@link RenderedFragments} instead, it writes the fragment rendered
+ * ahead of time for the current value of their variable.
+ */
+public class MergeDirective extends Directive {
+
+    @Override
+    public String getName() {
+        return "merge";
+    }
+
+    @Override
+    public int getType() {
+        return LINE;
+    }
+
+    @Override
+    public boolean render(InternalContextAdapter context, Writer writer, Node node) throws IOException {
+        if (node.jjtGetNumChildren() == 0) {
+            throw new VelocityException("#merge(): argument missing at " + StringUtils.formatFileString(this),
+                    null, rsvc.getLogContext().getStackTrace());
+        }
+
+        Object value = node.jjtGetChild(0).value(context);
+        if (value instanceof RenderedFragments fragments) {
+            if (fragments.write(context.get(fragments.getVariable()), writer)) {
+                return true;
+            }
+            value = fragments.getTemplate();
+        }
+        if (!(value instanceof Template template)) {
+            throw new VelocityException("#merge(): expected a parsed template but got " + value + " at "
+                    + StringUtils.formatFileString(this), null, rsvc.getLogContext().getStackTrace());
+        }
+
+        try {
+            preRender(context);
+            context.pushCurrentTemplateName(template.getName());
+            ((SimpleNode) template.getData()).render(context, writer);
+        } catch (StopCommand stop) {
+            if (!stop.isFor(this)) {
+                throw stop;
+            }
+        } finally {
+            context.popCurrentTemplateName();
+            postRender(context);
+        }
+        return true;
+    }
+}
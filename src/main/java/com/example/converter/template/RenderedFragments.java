@@ -0,0 +1,111 @@
+package com.example.converter.template;
+
+import org.apache.velocity.Template;
+import org.apache.velocity.VelocityContext;
+import org.apache.velocity.context.Context;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A sub-template rendered ahead of time for each value of a list, in parallel.
+ * The values are split into chunks rendered as fork-join tasks, each into its own buffer and
+ * each value in its own context over a shared, read-only base context. Bound in place of the
+ * template, it makes {@code #merge} write the fragment of the value currently bound to the
+ * variable, so the main template assembles the fragments in its own order; values without a
+ * fragment are rendered by the template as usual.
+ */
+public final class RenderedFragments {
+
+    private final Template template;
+    private final String variable;
+    private final int chunkSize;
+    private final Map<Object, Integer> positions;
+    private final StringBuffer[] chunks;
+    private final int[] ends;
+
+    private RenderedFragments(Template template, String variable, List<?> values, int chunkSize) {
+        this.template = template;
+        this.variable = variable;
+        this.chunkSize = chunkSize;
+        this.positions = new IdentityHashMap<>(values.size());
+        for (int i = 0; i < values.size(); i++) {
+            positions.putIfAbsent(values.get(i), i);
+        }
+        this.chunks = new StringBuffer[(values.size() + chunkSize - 1) / chunkSize];
+        this.ends = new int[values.size()];
+    }
+
+    /**
+     * Render the template once per value, with the value bound to the variable, on the common fork-join pool
+     */
+    public static RenderedFragments render(Template template, String variable, List<?> values, Context baseContext,
+                                           int chunkSize) {
+        RenderedFragments fragments = new RenderedFragments(template, variable, values, Math.max(1, chunkSize));
+        ForkJoinPool.commonPool().invoke(fragments.new ChunkTask(values, baseContext, 0, fragments.chunks.length));
+        return fragments;
+    }
+
+    public Template getTemplate() {
+        return template;
+    }
+
+    public String getVariable() {
+        return variable;
+    }
+
+    /**
+     * Write the fragment rendered for a value, returning false if there is none
+     */
+    public boolean write(Object value, Writer writer) throws IOException {
+        Integer position = value != null ? positions.get(value) : null;
+        if (position == null) {
+            return false;
+        }
+        int start = position % chunkSize == 0 ? 0 : ends[position - 1];
+        writer.append(chunks[position / chunkSize], start, ends[position]);
+        return true;
+    }
+
+    /**
+     * Renders a range of chunks, splitting it in half until a single chunk is left
+     */
+    private final class ChunkTask extends RecursiveAction {
+
+        private final List<?> values;
+        private final Context baseContext;
+        private final int from;
+        private final int to;
+
+        ChunkTask(List<?> values, Context baseContext, int from, int to) {
+            this.values = values;
+            this.baseContext = baseContext;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ChunkTask(values, baseContext, from, middle), new ChunkTask(values, baseContext, middle, to));
+                return;
+            }
+            StringWriter buffer = new StringWriter();
+            int end = Math.min(values.size(), (from + 1) * chunkSize);
+            for (int i = from * chunkSize; i < end; i++) {
+                VelocityContext context = new VelocityContext(baseContext);
+                context.put(variable, values.get(i));
+                template.merge(context, buffer);
+                ends[i] = buffer.getBuffer().length();
+            }
+            chunks[from] = buffer.getBuffer();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.converter.template;
+
+import com.example.converter.config.DiagramProperties;
+import com.example.converter.config.VelocityConfiguration;
+import jakarta.annotation.PostConstruct;
+import org.apache.velocity.Template;
+import org.apache.velocity.app.VelocityEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Parsed Velocity templates shared across renders.
+ * The templates named in {@link DiagramProperties.Templates} are parsed at startup; any other
+ * template is parsed on first use. Every lookup is counted, so misses equal the number of
+ * parses and a long-running process can confirm that no template is parsed twice.
+ * A template directory can override bundled templates by file name; such templates are
+ * read from disk and can be reloaded with {@link #invalidate()}.
+ */
+@Component
+public class TemplateCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(TemplateCache.class);
+
+    private final VelocityEngine velocityEngine;
+    private final DiagramProperties diagramProperties;
+
+    private final Map<String, Template> templates = new ConcurrentHashMap<>();
+    private volatile Path templateDirectory;
+    private volatile VelocityEngine directoryEngine;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Hit and miss counts of the cache
+     */
+    public record Statistics(long hits, long misses, int templates) {
+    }
+
+    public TemplateCache(VelocityEngine velocityEngine, DiagramProperties diagramProperties) {
+        this.velocityEngine = velocityEngine;
+        this.diagramProperties = diagramProperties;
+    }
+
+    /**
+     * Parse the configured templates ahead of the first render
+     */
+    @PostConstruct
+    public void preload() {
+        DiagramProperties.Templates names = diagramProperties.getTemplates();
+        for (String name : List.of(names.getMainTemplate(), names.getEntityTemplate(), names.getRelationshipTemplate())) {
+            try {
+                templates.computeIfAbsent(name, this::parse);
+            } catch (Exception e) {
+                // Rendering falls back to simple generation for templates that cannot be loaded
+                logger.warn("Could not preload template {}: {}", name, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Get a parsed template, parsing it on first use
+     */
+    public Template getTemplate(String name) {
+        Template template = templates.get(name);
+        if (template != null) {
+            hits.increment();
+            return template;
+        }
+        return templates.computeIfAbsent(name, this::parse);
+    }
+
+    /**
+     * Load templates from a directory ahead of the classpath, matching them by file name.
+     * Null restores the bundled templates.
+     */
+    public synchronized void setTemplateDirectory(Path directory) {
+        directoryEngine = directory != null ? VelocityConfiguration.createDirectoryEngine(directory) : null;
+        templateDirectory = directory;
+        invalidate();
+    }
+
+    public Path getTemplateDirectory() {
+        return templateDirectory;
+    }
+
+    /**
+     * Drop all parsed templates so they are parsed again on next use.
+     * Must not be called while a render is in progress.
+     */
+    public void invalidate() {
+        templates.clear();
+    }
+
+    /**
+     * Raw source of a template, from the template directory or the classpath, or null if it does not exist
+     */
+    public byte[] readSource(String name) throws IOException {
+        Path override = overrideFile(name);
+        if (override != null) {
+            return Files.readAllBytes(override);
+        }
+        try (InputStream source = getClass().getClassLoader().getResourceAsStream(name)) {
+            return source != null ? source.readAllBytes() : null;
+        }
+    }
+
+    /**
+     * Current hit and miss counts
+     */
+    public Statistics getStatistics() {
+        return new Statistics(hits.sum(), misses.sum(), templates.size());
+    }
+
+    private Template parse(String name) {
+        misses.increment();
+        Path override = overrideFile(name);
+        if (override != null) {
+            logger.debug("Parsing template {} from {}", name, override);
+            return directoryEngine.getTemplate(override.getFileName().toString());
+        }
+        logger.debug("Parsing template {}", name);
+        return velocityEngine.getTemplate(name);
+    }
+
+    private Path overrideFile(String name) {
+        Path directory = templateDirectory;
+        if (directory == null) {
+            return null;
+        }
+        Path file = directory.resolve(Path.of(name).getFileName());
+        return Files.isRegularFile(file) ? file : null;
+    }
+}
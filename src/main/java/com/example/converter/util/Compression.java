@@ -0,0 +1,104 @@
+package com.example.converter.util;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compression of written output, chosen from the file extension.
+ * Output is compressed while it is written, so a large DOT file is never held in memory or
+ * written uncompressed first. Zstandard output is piped through the {@code zstd} command,
+ * which writes straight to the target file or standard output.
+ */
+public enum Compression {
+
+    NONE,
+    GZIP,
+    ZSTD;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The compression for a file name: .gz for gzip, .zst or .zstd for Zstandard, none otherwise
+     */
+    public static Compression fromFileName(String fileName) {
+        String name = fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".gz")) {
+            return GZIP;
+        }
+        if (name.endsWith(".zst") || name.endsWith(".zstd")) {
+            return ZSTD;
+        }
+        return NONE;
+    }
+
+    /**
+     * Open a file, or standard output for "-", for compressed writing. Closing the stream
+     * finishes the compressed data; standard output itself is flushed but left open.
+     */
+    public OutputStream open(String output) throws IOException {
+        boolean standardOutput = FileUtils.isStandardStream(output);
+        if (this == ZSTD) {
+            return zstd(standardOutput ? null : Paths.get(output));
+        }
+        OutputStream target = standardOutput ? standardOutput() : Files.newOutputStream(Paths.get(output));
+        return this == GZIP ? new GZIPOutputStream(target, BUFFER_SIZE) : target;
+    }
+
+    /**
+     * Standard output without the buffering and error swallowing of System.out, so a closed pipe fails the write
+     */
+    private static OutputStream standardOutput() {
+        return new FilterOutputStream(new FileOutputStream(FileDescriptor.out)) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        };
+    }
+
+    private static OutputStream zstd(Path file) throws IOException {
+        ProcessBuilder builder = new ProcessBuilder("zstd", "-q", "-c")
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .redirectOutput(file != null ? ProcessBuilder.Redirect.to(file.toFile()) : ProcessBuilder.Redirect.INHERIT);
+        Process process;
+        try {
+            process = builder.start();
+        } catch (IOException e) {
+            throw new IOException("Zstandard output needs the zstd command on the PATH: " + e.getMessage(), e);
+        }
+        return new FilterOutputStream(process.getOutputStream()) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                super.close();
+                try {
+                    int exitCode = process.waitFor();
+                    if (exitCode != 0) {
+                        throw new IOException("zstd failed with exit code " + exitCode);
+                    }
+                } catch (InterruptedException e) {
+                    process.destroyForcibly();
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for zstd", e);
+                }
+            }
+        };
+    }
+}
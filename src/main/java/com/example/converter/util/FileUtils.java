@@ -10,6 +10,18 @@ import java.nio.file.Paths;
  */
 public class FileUtils {
 
+    /**
+     * Path standing for standard input or standard output
+     */
+    public static final String STANDARD_STREAM = "-";
+
+    /**
+     * Check if a path stands for standard input or output
+     */
+    public static boolean isStandardStream(String filePath) {
+        return STANDARD_STREAM.equals(filePath);
+    }
+
     /**
      * Safely create parent directories for a file path
      * Handles cases where the path has no parent directory
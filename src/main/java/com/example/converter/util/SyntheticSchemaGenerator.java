@@ -0,0 +1,186 @@
+package com.example.converter.util;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Generates synthetic JSON models in the schema-file format.
+ * Output is deterministic for a given seed, so benchmark and test inputs are repeatable.
+ * Models are written entity by entity, so files far larger than the heap can be generated.
+ */
+public class SyntheticSchemaGenerator {
+
+    private static final String[] FIELD_TYPES = {"UUID", "string", "int", "decimal", "bool", "date", "timestamp"};
+    private static final String[] SECTION_NAMES = {"is_deleted", "created_time", "created_by", "updated_time", "updated_by"};
+    private static final String[] SECTION_TYPES = {"bool", "timestamp", "string", "timestamp", "string"};
+
+    // Entities per same-rank group in the layout hints
+    private static final int RANK_GROUP_SIZE = 5;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * Shape of a generated model
+     *
+     * @param entities                 number of entities
+     * @param fieldsPerEntity          fields per entity, the first being the key
+     * @param relationshipDensity      average outgoing relationships per entity, may be fractional
+     * @param specialSectionsPerEntity special sections per entity
+     * @param constraintsPerEntity     constraints per entity
+     * @param seed                     random seed for types, required flags and relationship targets
+     */
+    public record Parameters(int entities, int fieldsPerEntity, double relationshipDensity,
+                             int specialSectionsPerEntity, int constraintsPerEntity, long seed) {
+
+        public Parameters {
+            if (entities < 0 || fieldsPerEntity < 0 || relationshipDensity < 0
+                    || specialSectionsPerEntity < 0 || constraintsPerEntity < 0) {
+                throw new IllegalArgumentException("Synthetic model parameters must not be negative");
+            }
+        }
+
+        /**
+         * Default shape, similar to the checked-in schemas, for the given number of entities
+         */
+        public static Parameters of(int entities) {
+            return new Parameters(entities, 8, 1.5, 2, 0, 42L);
+        }
+    }
+
+    /**
+     * Generate a model with the given number of entities, fields per entity and
+     * outgoing relationships per entity
+     */
+    public static ObjectNode generate(int entityCount, int fieldsPerEntity, int relationshipsPerEntity, long seed) {
+        return generate(new Parameters(entityCount, fieldsPerEntity, relationshipsPerEntity, 2, 0, seed));
+    }
+
+    /**
+     * Generate a model as a JSON tree
+     */
+    public static ObjectNode generate(Parameters parameters) {
+        try (TokenBuffer buffer = new TokenBuffer(MAPPER, false)) {
+            write(parameters, buffer);
+            return MAPPER.readTree(buffer.asParser());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Write a model to a file
+     */
+    public static void write(Parameters parameters, Path file) throws IOException {
+        FileUtils.createParentDirectories(file);
+        try (JsonGenerator generator = new JsonFactory().createGenerator(file.toFile(), JsonEncoding.UTF8)) {
+            write(parameters, generator);
+        }
+    }
+
+    /**
+     * Write a model to a JSON generator
+     */
+    public static void write(Parameters parameters, JsonGenerator generator) throws IOException {
+        Random random = new Random(parameters.seed());
+        int entityCount = parameters.entities();
+
+        generator.writeStartObject();
+
+        generator.writeObjectFieldStart("metadata");
+        generator.writeStringField("title", "Synthetic Model " + entityCount);
+        generator.writeStringField("version", "1.0");
+        generator.writeStringField("description", "Generated with " + entityCount + " entities");
+        generator.writeEndObject();
+
+        generator.writeObjectFieldStart("diagram_settings");
+        generator.writeStringField("rankdir", "TB");
+        generator.writeEndObject();
+
+        generator.writeArrayFieldStart("entities");
+        for (int i = 0; i < entityCount; i++) {
+            writeEntity(i, parameters, random, generator);
+        }
+        generator.writeEndArray();
+
+        generator.writeArrayFieldStart("relationships");
+        int wholeRelationships = (int) parameters.relationshipDensity();
+        double fractionalRelationships = parameters.relationshipDensity() - wholeRelationships;
+        for (int i = 1; i < entityCount; i++) {
+            int count = wholeRelationships + (random.nextDouble() < fractionalRelationships ? 1 : 0);
+            for (int r = 0; r < count; r++) {
+                // Only reference earlier entities so the graph stays acyclic
+                generator.writeStartObject();
+                generator.writeStringField("from_entity", entityId(i));
+                generator.writeStringField("to_entity", entityId(random.nextInt(i)));
+                generator.writeStringField("label", "REFERENCES");
+                generator.writeEndObject();
+            }
+        }
+        generator.writeEndArray();
+
+        generator.writeObjectFieldStart("layout_hints");
+        generator.writeArrayFieldStart("same_rank_groups");
+        for (int start = 0; start + RANK_GROUP_SIZE <= Math.min(entityCount, RANK_GROUP_SIZE * 4); start += RANK_GROUP_SIZE) {
+            generator.writeStartArray();
+            for (int i = start; i < start + RANK_GROUP_SIZE; i++) {
+                generator.writeString(entityId(i));
+            }
+            generator.writeEndArray();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+
+        generator.writeEndObject();
+    }
+
+    private static void writeEntity(int index, Parameters parameters, Random random, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("id", entityId(index));
+        generator.writeStringField("name", "Entity " + index);
+        generator.writeStringField("description", "Synthetic entity " + index);
+
+        generator.writeArrayFieldStart("fields");
+        for (int f = 0; f < parameters.fieldsPerEntity(); f++) {
+            // The first field is always the primary key
+            generator.writeStartObject();
+            generator.writeStringField("name", f == 0 ? "id" : "field_" + f);
+            generator.writeStringField("type", f == 0 ? "UUID" : FIELD_TYPES[random.nextInt(FIELD_TYPES.length)]);
+            generator.writeBooleanField("is_required", f == 0 || random.nextInt(3) == 0);
+            generator.writeBooleanField("is_key", f == 0);
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+
+        generator.writeArrayFieldStart("special_sections");
+        for (int s = 0; s < parameters.specialSectionsPerEntity(); s++) {
+            int section = s % SECTION_NAMES.length;
+            generator.writeStartObject();
+            generator.writeStringField("name", s < SECTION_NAMES.length ? SECTION_NAMES[section] : SECTION_NAMES[section] + "_" + s);
+            generator.writeStringField("type", SECTION_TYPES[section]);
+            generator.writeBooleanField("is_required", true);
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+
+        generator.writeArrayFieldStart("constraints");
+        for (int c = 0; c < parameters.constraintsPerEntity(); c++) {
+            generator.writeString(c == 0 ? "PRIMARY KEY (id)" : "CHECK (field_" + c + " IS NOT NULL)");
+        }
+        generator.writeEndArray();
+
+        generator.writeEndObject();
+    }
+
+    private static String entityId(int index) {
+        return "entity_" + index;
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.converter.watch;
+
+import com.example.converter.incremental.IncrementalBuildService;
+import com.example.converter.service.BatchConversionService;
+import com.example.converter.service.BatchConversionService.FileResult;
+import com.example.converter.service.BatchConversionService.FileTask;
+import com.example.converter.template.TemplateCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Watches inputs, the configuration file and the template directory with its subdirectories,
+ * and converts the affected diagrams again when they change.
+ * Editors often write a file several times per save, so events are collected until the
+ * watched files have been quiet for the debounce interval and then handled as one rebuild.
+ * Templates stay parsed between rebuilds unless a template itself changed.
+ */
+@Service
+public class DiagramWatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiagramWatcher.class);
+
+    @Autowired
+    private BatchConversionService batchConversionService;
+
+    @Autowired
+    private TemplateCache templateCache;
+
+    /**
+     * Source of the conversion tasks, asked again when new input files appear
+     */
+    @FunctionalInterface
+    public interface TaskResolver {
+        List<FileTask> resolve() throws IOException;
+    }
+
+    /**
+     * One build: the initial one has no changed files
+     */
+    public record Rebuild(Set<Path> changedFiles, List<FileResult> results, long elapsedMillis) {
+    }
+
+    /**
+     * Build every task, then rebuild affected tasks on each change until the thread is interrupted
+     */
+    public void watch(TaskResolver taskResolver, BatchConversionService.Options options, long debounceMillis,
+                      int workers, Consumer<Rebuild> listener) throws Exception {
+        Path configFile = options.configFile() != null ? normalize(Paths.get(options.configFile())) : null;
+        Path templateDirectory = templateCache.getTemplateDirectory() != null ? normalize(templateCache.getTemplateDirectory()) : null;
+
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            Set<Path> watchedDirectories = new HashSet<>();
+            Map<Path, FileTask> tasks = resolveTasks(taskResolver, watchService, watchedDirectories);
+            if (configFile != null) {
+                register(configFile.getParent(), watchService, watchedDirectories);
+            }
+            if (templateDirectory != null) {
+                registerTree(templateDirectory, watchService, watchedDirectories);
+            }
+
+            listener.accept(build(Set.of(), List.copyOf(tasks.values()), options, workers));
+
+            while (!Thread.currentThread().isInterrupted()) {
+                Set<Path> changed = new LinkedHashSet<>();
+                boolean overflow = collect(watchService.take(), changed);
+
+                // Debounce: keep collecting until no event arrives for a full interval
+                WatchKey key;
+                while ((key = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null) {
+                    overflow |= collect(key, changed);
+                }
+
+                // Templates may be included from any depth below the template directory
+                boolean templatesChanged = templateDirectory != null
+                        && changed.stream().anyMatch(path -> path.startsWith(templateDirectory));
+                if (templatesChanged) {
+                    for (Path path : changed) {
+                        if (path.startsWith(templateDirectory) && Files.isDirectory(path)) {
+                            registerTree(path, watchService, watchedDirectories);
+                        }
+                    }
+                    templateCache.invalidate();
+                }
+                boolean rebuildAll = overflow || templatesChanged || changed.contains(configFile);
+
+                // New input files, e.g. a schema added to a watched batch directory
+                if (changed.stream().anyMatch(path -> isNewInput(path, tasks))) {
+                    tasks.clear();
+                    tasks.putAll(resolveTasks(taskResolver, watchService, watchedDirectories));
+                }
+
+                List<FileTask> affected = tasks.values().stream()
+                        .filter(task -> Files.exists(task.input()))
+                        .filter(task -> rebuildAll || changed.contains(normalize(task.input())) || !Files.exists(task.output()))
+                        .toList();
+                if (!affected.isEmpty()) {
+                    listener.accept(build(changed, affected, options, workers));
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            logger.debug("Watch stopped");
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Rebuild build(Set<Path> changed, List<FileTask> tasks, BatchConversionService.Options options, int workers)
+            throws InterruptedException {
+        long start = System.nanoTime();
+        List<FileResult> results = batchConversionService.convertAll(tasks, options, workers, workers * 2, result -> {
+        });
+        return new Rebuild(changed, results, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private Map<Path, FileTask> resolveTasks(TaskResolver taskResolver, WatchService watchService,
+                                             Set<Path> watchedDirectories) throws IOException {
+        Map<Path, FileTask> tasks = new LinkedHashMap<>();
+        for (FileTask task : taskResolver.resolve()) {
+            Path input = normalize(task.input());
+            tasks.put(input, task);
+            register(input.getParent(), watchService, watchedDirectories);
+        }
+        return tasks;
+    }
+
+    private static boolean isNewInput(Path path, Map<Path, FileTask> tasks) {
+        String fileName = path.getFileName().toString();
+        return fileName.endsWith(".json")
+                && !fileName.equals(IncrementalBuildService.MANIFEST_FILE_NAME)
+                && !tasks.containsKey(path)
+                && Files.isRegularFile(path);
+    }
+
+    /**
+     * Add a key's events to the changed set; returns true if events were lost
+     */
+    private static boolean collect(WatchKey key, Set<Path> changed) {
+        Path directory = (Path) key.watchable();
+        boolean overflow = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                overflow = true;
+            } else {
+                changed.add(directory.resolve((Path) event.context()));
+            }
+        }
+        key.reset();
+        return overflow;
+    }
+
+    private static void register(Path directory, WatchService watchService, Set<Path> watchedDirectories) throws IOException {
+        if (directory != null && watchedDirectories.add(directory)) {
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            logger.debug("Watching {}", directory);
+        }
+    }
+
+    private static void registerTree(Path root, WatchService watchService, Set<Path> watchedDirectories) throws IOException {
+        try (Stream<Path> directories = Files.walk(root)) {
+            for (Path directory : directories.filter(Files::isDirectory).toList()) {
+                register(directory, watchService, watchedDirectories);
+            }
+        }
+    }
+
+    private static Path normalize(Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+}
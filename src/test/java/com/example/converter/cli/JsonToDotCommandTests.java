@@ -0,0 +1,114 @@
+package com.example.converter.cli;
+
+import com.example.converter.ConverterApplication;
+import com.example.converter.service.DiagramService;
+import com.example.converter.service.RenderEngine;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class JsonToDotCommandTests {
+
+    private static final Path SCHEMA_FILE = Paths.get("schema-file", "dy", "schema.json");
+
+    @Autowired
+    private JsonToDotCommand command;
+
+    @Autowired
+    private DiagramService diagramService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void standardOutputCarriesOnlyTheDot(boolean stream, @TempDir Path tempDir) throws Exception {
+        // The DOT is written to file descriptor 1 rather than System.out, so the CLI runs in its own JVM
+        List<String> command = new ArrayList<>(List.of(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"),
+                ConverterApplication.class.getName(), "--verbose", "--stats", "-", "-"));
+        if (stream) {
+            command.add("--stream");
+        }
+        Path stdout = tempDir.resolve("stdout.dot");
+        Process process = new ProcessBuilder(command)
+                .redirectInput(SCHEMA_FILE.toFile())
+                .redirectOutput(stdout.toFile())
+                .redirectError(tempDir.resolve("stderr.txt").toFile())
+                .start();
+
+        assertTrue(process.waitFor(2, TimeUnit.MINUTES));
+        assertEquals(0, process.exitValue(), () -> readQuietly(tempDir.resolve("stderr.txt")));
+        String expected = diagramService.generateDotContent(objectMapper.readTree(SCHEMA_FILE.toFile()), (String) null, RenderEngine.VELOCITY);
+        assertEquals(expected, Files.readString(stdout));
+        // Verbose messages and statistics were sent to standard error instead
+        assertFalse(Files.readString(tempDir.resolve("stderr.txt")).isBlank());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"broken.dot.gz", "broken.dot"})
+    void failedConversionLeavesNoPartialOutput(String outputName, @TempDir Path tempDir) throws Exception {
+        Path input = Files.writeString(tempDir.resolve("broken.json"), "{\"entities\": [{\"id\": \"a\", \"name\": ");
+        Path output = tempDir.resolve(outputName);
+
+        command.run("--stream", input.toString(), output.toString());
+
+        assertEquals(1, command.getExitCode());
+        assertFalse(Files.exists(output));
+    }
+
+    @Test
+    void batchWithAFailedFileExitsNonZero(@TempDir Path tempDir) throws Exception {
+        Path models = Files.createDirectories(tempDir.resolve("models"));
+        Files.copy(SCHEMA_FILE, models.resolve("dy.json"));
+        Files.writeString(models.resolve("broken.json"), "{\"entities\": [");
+        Path outputDir = tempDir.resolve("out");
+
+        command.run("--batch", models.toString(), "--output-dir", outputDir.toString());
+
+        assertEquals(1, command.getExitCode());
+        assertTrue(Files.exists(outputDir.resolve("dy.dot")));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"--diff", "--focus", "--emit"})
+    void partitionRejectsOtherModes(String option, @TempDir Path tempDir) throws Exception {
+        String value = switch (option) {
+            case "--diff" -> SCHEMA_FILE.toString();
+            case "--focus" -> "contact";
+            default -> "mermaid";
+        };
+        Path output = tempDir.resolve("schema.dot");
+
+        command.run("--partition", "domain", option, value, SCHEMA_FILE.toString(), output.toString());
+
+        assertEquals(1, command.getExitCode());
+        assertFalse(Files.exists(output));
+    }
+
+    private static String readQuietly(Path file) {
+        try {
+            return Files.readString(file);
+        } catch (IOException e) {
+            return e.getMessage();
+        }
+    }
+}
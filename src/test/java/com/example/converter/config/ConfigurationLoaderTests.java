@@ -0,0 +1,128 @@
+package com.example.converter.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for merging custom configuration files over the defaults and caching the result
+ */
+class ConfigurationLoaderTests {
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void deepMergesCustomFilesOverTheDefaults() throws Exception {
+        DiagramProperties defaults = new DiagramProperties();
+        DiagramProperties.StyleDefinition party = new DiagramProperties.StyleDefinition();
+        party.setHeader(section("#123456"));
+        defaults.getStyles().getEntities().put("party", party);
+
+        Path file = write("custom.yaml", """
+                diagram:
+                  settings:
+                    rankdir: LR
+                    node-defaults:
+                      fontsize: "10"
+                    table_settings:
+                      cell-padding: "5"
+                  styles:
+                    entities:
+                      party:
+                        body:
+                          bgcolor: "#EEEEEE"
+                      rate_card:
+                        special-section:
+                          forecolor: red
+                """);
+        DiagramProperties config = new ConfigurationLoader(defaults).load(file);
+
+        assertEquals("LR", config.getSettings().getRankdir());
+        assertEquals(Map.of("fontname", "Arial", "shape", "none", "fontsize", "10"), config.getSettings().getNodeDefaults());
+        assertEquals("5", config.getSettings().getTableSettings().getCellPadding());
+        assertEquals("2", config.getSettings().getTableSettings().getBorder());
+
+        // The custom body style is added to the default party header, not swapped for it
+        DiagramProperties.StyleDefinition mergedParty = config.getStyles().getEntities().get("party");
+        assertEquals("#123456", mergedParty.getHeader().getBgcolor());
+        assertEquals("#EEEEEE", mergedParty.getBody().getBgcolor());
+        assertEquals("red", config.getStyles().getEntities().get("rate_card").getSpecialSection().getForecolor());
+
+        assertThrows(UnsupportedOperationException.class, () -> config.getSettings().getNodeDefaults().put("shape", "box"));
+        assertThrows(UnsupportedOperationException.class, () -> config.getStyles().getEntities().remove("party"));
+        assertThrows(UnsupportedOperationException.class, () -> mergedParty.getHeader().setBgcolor("#000000"));
+    }
+
+    @Test
+    void mergedConfigurationsAreReadOnly() throws Exception {
+        ConfigurationLoader loader = new ConfigurationLoader(new DiagramProperties());
+        DiagramProperties config = loader.load(write("frozen.yaml", "settings:\n  rankdir: LR\n"));
+
+        assertThrows(UnsupportedOperationException.class, () -> config.getSettings().setRankdir("BT"));
+        assertThrows(UnsupportedOperationException.class, () -> config.getSettings().getTableSettings().setBorder("0"));
+        assertThrows(UnsupportedOperationException.class, () -> config.getStyles().getDefault().getHeader().setBgcolor("#000000"));
+        assertThrows(UnsupportedOperationException.class, () -> config.getValidation().setFailFast(true));
+        assertThrows(UnsupportedOperationException.class, () -> loader.getDefaults().setRendering(new DiagramProperties.Rendering()));
+    }
+
+    @Test
+    void overridesGoIntoADerivedCopy() throws Exception {
+        DiagramProperties applicationDefaults = new DiagramProperties();
+        ConfigurationLoader loader = new ConfigurationLoader(applicationDefaults);
+        Path file = write("custom.yaml", "settings:\n  rankdir: LR\n");
+
+        loader.setDefaults(loader.derive(applicationDefaults, config -> config.getValidation().setFailFast(true)));
+        assertFalse(applicationDefaults.getValidation().isFailFast());
+        assertTrue(loader.getDefaults().getValidation().isFailFast());
+        assertTrue(loader.load(file).getValidation().isFailFast());
+
+        loader.setDefaults(null);
+        assertSame(applicationDefaults, loader.getDefaults());
+        assertFalse(loader.load(file).getValidation().isFailFast());
+    }
+
+    @Test
+    void loadsEachFileOnceUntilItChanges() throws Exception {
+        ConfigurationLoader loader = new ConfigurationLoader(new DiagramProperties());
+        Path file = write("cached.yaml", "settings:\n  rankdir: LR\n");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.parse("2024-01-01T00:00:00Z")));
+
+        DiagramProperties first = loader.load(file);
+        for (int i = 0; i < 100; i++) {
+            assertSame(first, loader.load(tempDir.resolve(".").resolve("cached.yaml")));
+        }
+        assertEquals(new ConfigurationLoader.Statistics(100, 1, 1), loader.getStatistics());
+
+        Files.writeString(file, "settings:\n  rankdir: BT\n");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.parse("2024-01-02T00:00:00Z")));
+        DiagramProperties changed = loader.load(file);
+        assertNotSame(first, changed);
+        assertEquals("BT", changed.getSettings().getRankdir());
+        assertEquals(2, loader.getStatistics().misses());
+    }
+
+    private Path write(String name, String content) throws Exception {
+        Path file = tempDir.resolve(name);
+        Files.writeString(file, content);
+        return file;
+    }
+
+    private static DiagramProperties.StyleSection section(String bgcolor) {
+        DiagramProperties.StyleSection section = new DiagramProperties.StyleSection();
+        section.setBgcolor(bgcolor);
+        return section;
+    }
+}
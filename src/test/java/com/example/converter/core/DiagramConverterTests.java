@@ -0,0 +1,165 @@
+package com.example.converter.core;
+
+import com.example.converter.config.DiagramProperties;
+import com.example.converter.service.RenderEngine;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for the embeddable converter, run without a Spring context
+ */
+class DiagramConverterTests {
+
+    private static final int THREADS = 16;
+    private static final int ROUNDS = 20;
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void everyInputAndOutputTypeProducesTheSameDot() throws Exception {
+        DiagramConverter converter = new DiagramConverter(new DiagramProperties());
+        Path schemaFile = Paths.get("schema-file/contact/schema.json");
+        JsonNode model = converter.readModel(schemaFile);
+
+        String expected = converter.convert(model);
+        assertEquals(expected, converter.withEngine(RenderEngine.DIRECT).convert(model));
+
+        StringWriter writer = new StringWriter();
+        try (InputStream input = Files.newInputStream(schemaFile)) {
+            converter.convert(input, writer);
+        }
+        assertEquals(expected, writer.toString());
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (InputStream input = Files.newInputStream(schemaFile)) {
+            converter.convert(input, output);
+        }
+        assertEquals(expected, output.toString(StandardCharsets.UTF_8));
+
+        Path outputFile = tempDir.resolve("nested/schema.dot");
+        converter.convert(schemaFile, outputFile);
+        assertEquals(expected, Files.readString(outputFile));
+    }
+
+    @Test
+    void rejectsModelsThatAreNotObjects() {
+        DiagramConverter converter = new DiagramConverter(new DiagramProperties());
+        assertThrows(IOException.class, () -> converter.readModel(new ByteArrayInputStream("[]".getBytes(StandardCharsets.UTF_8))));
+        assertThrows(IOException.class, () -> converter.readModel(new ByteArrayInputStream(new byte[0])));
+    }
+
+    @Test
+    void laterChangesToThePropertiesDoNotAffectTheConverter() throws Exception {
+        DiagramProperties properties = new DiagramProperties();
+        DiagramConverter converter = new DiagramConverter(properties);
+        JsonNode model = converter.readModel(Paths.get("schema-file/contact/schema.json"));
+        String before = converter.convert(model);
+
+        properties.getSettings().getTableSettings().setCellPadding("9");
+        properties.getStyles().getDefault().getHeader().setBgcolor("#ABCDEF");
+
+        assertEquals(before, converter.convert(model));
+        assertNotEquals(before, converter.withProperties(properties).convert(model));
+    }
+
+    @Test
+    void concurrentConversionsMatchSingleThreadedOutput() throws Exception {
+        DiagramConverter defaults = new DiagramConverter(new DiagramProperties(), RenderEngine.VELOCITY, new SimpleMeterRegistry());
+        DiagramProperties themed = new DiagramProperties();
+        themed.getSettings().getTableSettings().setCellPadding("6");
+        themed.getStyles().getDefault().getHeader().setBgcolor("#1E3A8A");
+
+        // One shared converter per engine and configuration, all sharing one template cache
+        List<DiagramConverter> converters = List.of(
+                defaults,
+                defaults.withEngine(RenderEngine.DIRECT),
+                defaults.withProperties(themed),
+                defaults.withProperties(themed).withEngine(RenderEngine.DIRECT));
+
+        List<Path> schemaFiles = schemaFiles();
+        Map<String, String> expected = new HashMap<>();
+        for (int c = 0; c < converters.size(); c++) {
+            for (Path schemaFile : schemaFiles) {
+                expected.put(c + ":" + schemaFile, converters.get(c).convert(converters.get(c).readModel(schemaFile)));
+            }
+        }
+        assertNotEquals(expected.get("0:" + schemaFiles.get(0)), expected.get("2:" + schemaFiles.get(0)));
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Callable<Integer>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            workers.add(() -> {
+                start.await();
+                int conversions = 0;
+                for (int round = 0; round < ROUNDS; round++) {
+                    // Each thread walks the combinations in a different order
+                    int c = (thread + round) % converters.size();
+                    Path schemaFile = schemaFiles.get((thread * 7 + round) % schemaFiles.size());
+                    DiagramConverter converter = converters.get(c);
+
+                    ByteArrayOutputStream output = new ByteArrayOutputStream();
+                    try (InputStream input = Files.newInputStream(schemaFile)) {
+                        converter.convert(input, output);
+                    }
+                    assertEquals(expected.get(c + ":" + schemaFile), output.toString(StandardCharsets.UTF_8),
+                            "Thread " + thread + " round " + round + " converting " + schemaFile);
+                    conversions++;
+                }
+                return conversions;
+            });
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (Callable<Integer> worker : workers) {
+                futures.add(executor.submit(worker));
+            }
+            start.countDown();
+            int conversions = 0;
+            for (Future<Integer> future : futures) {
+                conversions += future.get();
+            }
+            assertEquals(THREADS * ROUNDS, conversions);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Template failures would show up as fallbacks rather than as exceptions
+        assertEquals(0, defaults.getMetrics().getStatistics().templateFallbacks());
+    }
+
+    private static List<Path> schemaFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(Paths.get("schema-file"))) {
+            return files.filter(file -> file.toString().endsWith(".json")).sorted().toList();
+        }
+    }
+}
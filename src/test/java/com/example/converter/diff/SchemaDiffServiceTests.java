@@ -0,0 +1,119 @@
+package com.example.converter.diff;
+
+import com.example.converter.service.RenderEngine;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class SchemaDiffServiceTests {
+
+    private static final Path CONTACT = Paths.get("schema-file/contact/schema.json");
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Autowired
+    private SchemaDiffService schemaDiffService;
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void rendersOnlyTheChangesAndTheirNeighbours() throws Exception {
+        Path newVersion = tempDir.resolve("new.json");
+        MAPPER.writeValue(newVersion.toFile(), changedContactSchema());
+
+        SchemaDiffService.Result result = schemaDiffService.diff(CONTACT, newVersion, tempDir.resolve("diff.dot"), null,
+                RenderEngine.VELOCITY);
+
+        SchemaDiff.Changes changes = result.changes();
+        assertEquals(List.of(
+                new SchemaDiff.EntityChange("contact_version", SchemaDiff.ChangeType.MODIFIED, List.of("mobile"), List.of("phone"), List.of("email")),
+                new SchemaDiff.EntityChange("note", SchemaDiff.ChangeType.ADDED, List.of("id"), List.of(), List.of()),
+                new SchemaDiff.EntityChange("location_details", SchemaDiff.ChangeType.REMOVED, List.of(), List.of("id", "city", "state", "country", "region"), List.of())),
+                changes.entities());
+        assertEquals(List.of("rel_note:ADDED", "rel_location_area:REMOVED", "rel_address_area:REMOVED"),
+                changes.relationships().stream().map(change -> change.id() + ":" + change.type()).toList());
+
+        String dot = Files.readString(result.dotFile());
+        assertTrue(dot.contains("+ mobile"));
+        assertTrue(dot.contains("- phone"));
+        assertTrue(dot.contains("~ email"));
+        assertTrue(dot.contains(SchemaDiffService.ADDED_COLOR));
+        assertTrue(dot.contains(SchemaDiffService.REMOVED_COLOR));
+        assertTrue(dot.contains(SchemaDiffService.MODIFIED_COLOR));
+        assertTrue(dot.contains(SchemaDiffService.CONTEXT_COLOR));
+        // Neighbours are shown, entities further away are not
+        assertTrue(dot.contains("contact"));
+        assertTrue(dot.contains("location"));
+        assertFalse(dot.contains("party"));
+
+        JsonNode changeList = MAPPER.readTree(result.changesFile().toFile());
+        assertEquals(tempDir.resolve("diff.changes.json"), result.changesFile());
+        assertEquals(3, changeList.path("entities").size());
+        assertEquals("MODIFIED", changeList.path("entities").get(0).path("type").asText());
+        assertEquals(3, changeList.path("relationships").size());
+    }
+
+    @Test
+    void identicalVersionsHaveNoChanges() throws Exception {
+        SchemaDiffService.Result result = schemaDiffService.diff(CONTACT, CONTACT, tempDir.resolve("same.dot"), null,
+                RenderEngine.VELOCITY);
+
+        assertTrue(result.changes().isEmpty());
+        assertFalse(Files.readString(result.dotFile()).contains("party"));
+    }
+
+    /**
+     * The contact schema with a changed contact_version, a new note entity and location_details removed
+     */
+    private static JsonNode changedContactSchema() throws Exception {
+        ObjectNode schema = (ObjectNode) MAPPER.readTree(CONTACT.toFile());
+        ArrayNode entities = (ArrayNode) schema.path("entities");
+        for (int i = entities.size() - 1; i >= 0; i--) {
+            ObjectNode entity = (ObjectNode) entities.get(i);
+            if ("location_details".equals(entity.path("id").asText())) {
+                entities.remove(i);
+            } else if ("contact_version".equals(entity.path("id").asText())) {
+                ArrayNode fields = (ArrayNode) entity.path("fields");
+                for (int j = fields.size() - 1; j >= 0; j--) {
+                    ObjectNode field = (ObjectNode) fields.get(j);
+                    if ("phone".equals(field.path("name").asText())) {
+                        fields.remove(j);
+                    } else if ("email".equals(field.path("name").asText())) {
+                        field.put("type", "text");
+                    }
+                }
+                fields.addObject().put("name", "mobile").put("type", "string");
+            }
+        }
+        ObjectNode note = entities.addObject().put("id", "note").put("name", "Note");
+        note.putArray("fields").addObject().put("name", "id").put("type", "UUID").put("is_key", true);
+
+        ArrayNode relationships = (ArrayNode) schema.path("relationships");
+        for (int i = relationships.size() - 1; i >= 0; i--) {
+            String id = relationships.get(i).path("id").asText();
+            if (id.equals("rel_location_area") || id.equals("rel_address_area")) {
+                relationships.remove(i);
+            }
+        }
+        relationships.addObject().put("id", "rel_note").put("from_entity", "contact").put("to_entity", "note")
+                .put("label", "HAS_NOTE").put("relationship_type", "one_to_many");
+        // Layout hints naming removed entities would only add warnings
+        schema.remove("layout_hints");
+        return schema;
+    }
+}
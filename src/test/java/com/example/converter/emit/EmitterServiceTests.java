@@ -0,0 +1,144 @@
+package com.example.converter.emit;
+
+import com.example.converter.core.DiagramConverter;
+import com.example.converter.metrics.ConversionMetrics;
+import com.example.converter.service.DiagramService;
+import com.example.converter.service.RenderEngine;
+import com.example.converter.service.StyleService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class EmitterServiceTests {
+
+    private static final Path CONTACT = Paths.get("schema-file/contact/schema.json");
+
+    @Autowired
+    private EmitterService emitterService;
+
+    @Autowired
+    private DiagramConverter diagramConverter;
+
+    @Autowired
+    private DiagramService diagramService;
+
+    @Autowired
+    private StyleService styleService;
+
+    @Autowired
+    private ConversionMetrics conversionMetrics;
+
+    @Autowired
+    private List<DiagramEmitter> emitters;
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void writesEveryFormatFromOneParse() throws Exception {
+        List<EmitterService.Output> outputs = emitterService.emit(CONTACT, tempDir.resolve("contact.dot"),
+                List.of("dot", "mermaid", "plantuml", "graph-json"), null, RenderEngine.VELOCITY);
+
+        assertEquals(List.of("contact.dot", "contact.mmd", "contact.puml", "contact.graph.json"),
+                outputs.stream().map(output -> output.file().getFileName().toString()).toList());
+
+        // The DOT emitter writes exactly what a plain conversion writes
+        String expectedDot = diagramConverter.convert(diagramConverter.readModel(CONTACT));
+        assertEquals(expectedDot, Files.readString(tempDir.resolve("contact.dot")));
+
+        String mermaid = Files.readString(tempDir.resolve("contact.mmd"));
+        assertTrue(mermaid.contains("erDiagram\n"));
+        assertTrue(mermaid.contains("    party {\n"));
+        assertTrue(mermaid.contains(" PK"));
+
+        String plantUml = Files.readString(tempDir.resolve("contact.puml"));
+        assertTrue(plantUml.startsWith("@startuml\n"));
+        assertTrue(plantUml.endsWith("@enduml\n"));
+        assertTrue(plantUml.contains(" as party "));
+
+        JsonNode graph = new ObjectMapper().readTree(tempDir.resolve("contact.graph.json").toFile());
+        JsonNode model = new ObjectMapper().readTree(CONTACT.toFile());
+        assertEquals(model.path("entities").size(), graph.path("nodes").size());
+        assertEquals(model.path("relationships").size(), graph.path("edges").size());
+        assertEquals("party", graph.path("nodes").get(0).path("id").asText());
+    }
+
+    @Test
+    void rejectsUnknownEmitters() {
+        IllegalArgumentException failure = assertThrows(IllegalArgumentException.class, () -> emitterService.emit(
+                CONTACT, tempDir.resolve("x.dot"), List.of("svg"), null, RenderEngine.VELOCITY));
+        assertTrue(failure.getMessage().contains("mermaid"));
+    }
+
+    @Test
+    void mermaidKeepsEntitiesApartWhoseIdsSanitizeAlike() throws Exception {
+        Path input = Files.writeString(tempDir.resolve("alike.json"), """
+                {
+                  "entities": [
+                    {"id": "a.b", "name": "Dotted", "fields": [{"name": "id", "type": "UUID", "is_key": true}]},
+                    {"id": "a_b", "name": "Underscored", "fields": [{"name": "id", "type": "UUID", "is_key": true}]}
+                  ],
+                  "relationships": [
+                    {"id": "r", "from_entity": "a.b", "to_entity": "a_b", "label": "NEXT", "relationship_type": "one_to_one"}
+                  ]
+                }
+                """);
+
+        emitterService.emit(input, tempDir.resolve("alike.dot"), List.of("mermaid"), null, RenderEngine.VELOCITY);
+
+        String mermaid = Files.readString(tempDir.resolve("alike.mmd"));
+        assertTrue(mermaid.contains("    a_b {\n"));
+        assertTrue(mermaid.contains("    a_b_2 {\n"));
+        assertTrue(mermaid.contains("    a_b ||--|| a_b_2 : \"NEXT\"\n"));
+    }
+
+    @Test
+    void oneFailedEmitterDiscardsEveryOutput() {
+        DiagramEmitter failing = new DiagramEmitter() {
+            @Override
+            public String name() {
+                return "failing";
+            }
+
+            @Override
+            public String extension() {
+                return "fail";
+            }
+
+            @Override
+            public void emit(Input input, Writer out) throws Exception {
+                out.write("partial");
+                out.flush();
+                throw new IOException("disk full");
+            }
+        };
+        List<DiagramEmitter> withFailing = new ArrayList<>(emitters);
+        withFailing.add(failing);
+        EmitterService service = new EmitterService(withFailing, diagramConverter, diagramService, styleService, conversionMetrics);
+
+        IOException failure = assertThrows(IOException.class, () -> service.emit(CONTACT, tempDir.resolve("contact.dot"),
+                List.of("dot", "mermaid", "failing"), null, RenderEngine.VELOCITY));
+
+        assertEquals("disk full", failure.getMessage());
+        assertFalse(Files.exists(tempDir.resolve("contact.dot")));
+        assertFalse(Files.exists(tempDir.resolve("contact.mmd")));
+        assertFalse(Files.exists(tempDir.resolve("contact.fail")));
+    }
+}
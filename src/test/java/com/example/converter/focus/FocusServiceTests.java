@@ -0,0 +1,96 @@
+package com.example.converter.focus;
+
+import com.example.converter.service.RenderEngine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class FocusServiceTests {
+
+    private static final Path CONTACT = Paths.get("schema-file/contact/schema.json");
+
+    @Autowired
+    private FocusService focusService;
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void rendersOnlyTheNeighbourhoodWithASummaryOfTheRest() throws Exception {
+        Path output = tempDir.resolve("party.dot");
+        focusService.convert(CONTACT, output, List.of("party"), options(0));
+        String dot = Files.readString(output);
+        assertTrue(dot.contains("party ["));
+        assertFalse(dot.contains("location ["));
+        assertTrue(dot.contains(NeighborhoodExtractor.SUMMARY_ID + " ["));
+        assertTrue(dot.contains("4 related entities not shown"));
+
+        // Two hops reach every entity of the contact model, so nothing is summarised
+        focusService.convert(CONTACT, output, List.of("party"), options(2));
+        dot = Files.readString(output);
+        assertTrue(dot.contains("location ["));
+        assertFalse(dot.contains(NeighborhoodExtractor.SUMMARY_ID));
+    }
+
+    @Test
+    void acceptsSeveralFocusEntities() throws Exception {
+        Path output = tempDir.resolve("two.dot");
+        focusService.convert(CONTACT, output, List.of("tag", "location_details"), options(0));
+        String dot = Files.readString(output);
+        assertTrue(dot.contains("tag ["));
+        assertTrue(dot.contains("location_details ["));
+        assertFalse(dot.contains("party ["));
+    }
+
+    @Test
+    void rejectsUnknownFocusEntities() {
+        IllegalArgumentException failure = assertThrows(IllegalArgumentException.class,
+                () -> focusService.convert(CONTACT, tempDir.resolve("x.dot"), List.of("partty"), options(1)));
+        assertTrue(failure.getMessage().contains("partty"));
+    }
+
+    @Test
+    void catalogWritesOneDiagramPerEntity() throws Exception {
+        AtomicInteger reported = new AtomicInteger();
+        List<FocusService.CatalogEntry> entries = focusService.catalog(Paths.get("schema-file/mdm/schema.json"),
+                tempDir.resolve("catalog"), options(1), 4, entry -> reported.incrementAndGet());
+
+        assertEquals(35, entries.size());
+        assertEquals(35, reported.get());
+        for (FocusService.CatalogEntry entry : entries) {
+            assertEquals(tempDir.resolve("catalog").resolve(entry.entityId() + ".dot"), entry.dotFile());
+            assertTrue(Files.readString(entry.dotFile()).contains(entry.entityId() + " ["));
+        }
+    }
+
+    @Test
+    void catalogNamesStayUniqueAfterSanitizing() throws Exception {
+        Path input = Files.writeString(tempDir.resolve("ids.json"), """
+                {"entities": [{"id": "a b", "name": "Spaced"}, {"id": "a_b", "name": "Underscored"}, {"id": "A_B", "name": "Upper"}]}
+                """);
+        List<FocusService.CatalogEntry> entries = focusService.catalog(input, tempDir.resolve("catalog"), options(0), 3, entry -> { });
+
+        List<Path> dotFiles = entries.stream().map(FocusService.CatalogEntry::dotFile).toList();
+        assertEquals(List.of("a_b.dot", "a_b-2.dot", "A_B-3.dot"), dotFiles.stream().map(file -> file.getFileName().toString()).toList());
+        assertTrue(Files.readString(dotFiles.get(0)).contains("Spaced"));
+        assertTrue(Files.readString(dotFiles.get(1)).contains("Underscored"));
+        assertTrue(Files.readString(dotFiles.get(2)).contains("Upper"));
+    }
+
+    private static FocusService.Options options(int depth) {
+        return new FocusService.Options(null, RenderEngine.VELOCITY, depth, null);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.converter.incremental;
+
+import com.example.converter.service.BatchConversionService;
+import com.example.converter.service.BatchConversionService.FileResult;
+import com.example.converter.service.BatchConversionService.FileTask;
+import com.example.converter.service.RenderEngine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class IncrementalBuildServiceTests {
+
+    @Autowired
+    private IncrementalBuildService incrementalBuildService;
+
+    @Autowired
+    private BatchConversionService batchConversionService;
+
+    @Test
+    void unchangedInputsAreSkippedAndVanishedInputsCleanedUp(@TempDir Path tempDir) throws Exception {
+        Path input = Files.copy(Paths.get("schema-file/contact/schema.json"), tempDir.resolve("contact.json"));
+        Path outputDir = tempDir.resolve("out");
+        FileTask task = new FileTask(input, outputDir.resolve("contact.dot"));
+
+        // First run builds, second run skips
+        assertFalse(convert(task, outputDir).skipped());
+        assertTrue(convert(task, outputDir).skipped());
+        assertTrue(Files.exists(outputDir.resolve(IncrementalBuildService.MANIFEST_FILE_NAME)));
+
+        // Any change to the input rebuilds
+        Files.writeString(input, Files.readString(input) + "\n");
+        assertFalse(convert(task, outputDir).skipped());
+
+        // A deleted output is rebuilt even though the input is unchanged
+        Files.delete(task.output());
+        assertFalse(convert(task, outputDir).skipped());
+
+        // Outputs of inputs that are gone are removed
+        Files.delete(input);
+        IncrementalBuildService.Session session = incrementalBuildService.open(outputDir, null, RenderEngine.VELOCITY);
+        assertEquals(1, session.removeStaleOutputs());
+        assertFalse(Files.exists(task.output()));
+    }
+
+    private FileResult convert(FileTask task, Path outputDir) throws Exception {
+        IncrementalBuildService.Session session = incrementalBuildService.open(outputDir, null, RenderEngine.VELOCITY);
+        FileResult result = batchConversionService.convert(task,
+                new BatchConversionService.Options(null, false, RenderEngine.VELOCITY, null, session));
+        assertTrue(result.success(), result.error());
+        session.save();
+        return result;
+    }
+}
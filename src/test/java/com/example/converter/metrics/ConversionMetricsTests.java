@@ -0,0 +1,63 @@
+package com.example.converter.metrics;
+
+import com.example.converter.config.DiagramProperties;
+import com.example.converter.service.DiagramService;
+import com.example.converter.service.RenderEngine;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.File;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class ConversionMetricsTests {
+
+    @Autowired
+    private ConversionMetrics conversionMetrics;
+
+    @Autowired
+    private DiagramService diagramService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DiagramProperties diagramProperties;
+
+    @Test
+    void conversionRecordsStagesAndCounts() throws Exception {
+        JsonNode jsonData = objectMapper.readTree(new File("schema-file/contact/schema.json"));
+        MeterRegistry registry = conversionMetrics.getRegistry();
+        ConversionMetrics.Statistics before = conversionMetrics.getStatistics();
+        long rendersBefore = registry.get(ConversionMetrics.STAGE_TIMER).tag("stage", "render").timer().count();
+
+        diagramService.generateDotContent(jsonData, null);
+
+        ConversionMetrics.Statistics after = conversionMetrics.getStatistics();
+        assertEquals(rendersBefore + 1, registry.get(ConversionMetrics.STAGE_TIMER).tag("stage", "render").timer().count());
+        assertEquals(jsonData.path("entities").size(), after.entities() - before.entities());
+        assertEquals(jsonData.path("relationships").size(), after.relationships() - before.relationships());
+        assertEquals(0, after.templateFallbacks() - before.templateFallbacks());
+    }
+
+    @Test
+    void everyTemplateFallbackIsCounted() throws Exception {
+        JsonNode jsonData = objectMapper.readTree(new File("schema-file/contact/schema.json"));
+        DiagramProperties config = objectMapper.convertValue(diagramProperties, DiagramProperties.class);
+        config.getTemplates().setMainTemplate("templates/missing-diagram.vm");
+        config.getTemplates().setEntityTemplate("templates/missing-entity.vm");
+        config.getTemplates().setRelationshipTemplate("templates/missing-relationship.vm");
+        long before = conversionMetrics.getStatistics().templateFallbacks();
+
+        diagramService.generateDotContent(jsonData, config, RenderEngine.VELOCITY);
+
+        // The main template, then every entity and relationship template in the fallback
+        long expected = 1 + jsonData.path("entities").size() + jsonData.path("relationships").size();
+        assertEquals(expected, conversionMetrics.getStatistics().templateFallbacks() - before);
+    }
+}
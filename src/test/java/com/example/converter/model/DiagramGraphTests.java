@@ -0,0 +1,84 @@
+package com.example.converter.model;
+
+import com.example.converter.config.DiagramProperties;
+import com.example.converter.core.DiagramConverter;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the relationship index and reference validation
+ */
+class DiagramGraphTests {
+
+    @Test
+    void indexesRelationshipsByEntityInModelOrder() {
+        DiagramGraph graph = DiagramGraph.of(diagram(List.of("a", "b", "c"),
+                relationship("a", "b"), relationship("a", "c"), relationship("c", "b")));
+
+        assertEquals(List.of("a", "b", "c"), graph.entities().stream().map(EntityModel::getId).toList());
+        assertEquals(2, graph.outDegree("a"));
+        assertEquals(2, graph.inDegree("b"));
+        assertEquals(0, graph.inDegree("a"));
+        assertEquals(List.of("a", "c"), graph.incoming("b").stream().map(RelationshipModel::getFromEntity).toList());
+        assertEquals(2, graph.position("c"));
+        assertEquals(1, graph.position(graph.outgoing("a").get(1)));
+        assertNull(graph.entity("d"));
+        assertTrue(graph.validate().isEmpty());
+    }
+
+    @Test
+    void reportsDanglingAndDuplicateReferences() {
+        DiagramModel diagram = diagram(List.of("a", "b", "a"),
+                relationship("a", "missing"), relationship("b", "b"));
+        diagram.setSameRankGroups(List.of(List.of("a", "ghost")));
+        List<DiagramGraph.Problem> problems = DiagramGraph.of(diagram).validate();
+
+        List<DiagramGraph.Problem> errors = problems.stream().filter(p -> p.severity() == DiagramGraph.Severity.ERROR).toList();
+        assertEquals(3, errors.size());
+        assertTrue(errors.get(0).message().contains("Duplicate entity id 'a'"));
+        assertTrue(errors.get(1).message().contains("unknown entity 'missing'"));
+        assertTrue(errors.get(2).message().contains("unknown entity 'ghost'"));
+        assertEquals(1, problems.size() - errors.size());
+        assertTrue(problems.stream().anyMatch(p -> p.severity() == DiagramGraph.Severity.WARNING
+                && p.message().contains("'b' to itself")));
+    }
+
+    @Test
+    void failFastValidationRejectsModelsWithDanglingReferences() throws Exception {
+        // The contact sample relates location to an "address" entity it does not define
+        DiagramConverter lenient = new DiagramConverter(new DiagramProperties());
+        JsonNode model = lenient.readModel(Paths.get("schema-file/contact/schema.json"));
+        assertFalse(lenient.convert(model).isEmpty());
+
+        DiagramProperties strict = new DiagramProperties();
+        strict.getValidation().setFailFast(true);
+        IllegalArgumentException failure = assertThrows(IllegalArgumentException.class,
+                () -> lenient.withProperties(strict).convert(model));
+        assertTrue(failure.getMessage().contains("'address'"));
+    }
+
+    private static DiagramModel diagram(List<String> ids, RelationshipModel... relationships) {
+        List<EntityModel> entities = new ArrayList<>();
+        for (String id : ids) {
+            entities.add(new EntityModel(id, id, null, null, null, null, null));
+        }
+        DiagramModel diagram = new DiagramModel();
+        diagram.setEntities(entities);
+        diagram.setRelationships(List.of(relationships));
+        return diagram;
+    }
+
+    private static RelationshipModel relationship(String from, String to) {
+        return new RelationshipModel(from + "_" + to, from, to, null, null, null);
+    }
+}
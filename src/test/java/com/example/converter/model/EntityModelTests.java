@@ -0,0 +1,76 @@
+package com.example.converter.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the immutable entity model and string pooling of parsed models
+ */
+class EntityModelTests {
+
+    @Test
+    void packsTheRequiredAndKeyFlags() {
+        EntityModel.Field key = new EntityModel.Field("id", "UUID", true, true, "Key");
+        EntityModel.Field optional = new EntityModel.Field("note", "string", false, false, "Free text");
+        EntityModel.Field keyOnly = new EntityModel.Field("code", "string", false, true, "");
+
+        assertTrue(key.isRequired());
+        assertTrue(key.isKey());
+        assertFalse(optional.isRequired());
+        assertFalse(optional.isKey());
+        assertFalse(keyOnly.isRequired());
+        assertTrue(keyOnly.isKey());
+        assertEquals(new EntityModel.Field("id", "UUID", true, true, "Key"), key);
+        assertNotEquals(key, key.withName("uuid"));
+    }
+
+    @Test
+    void entitiesKeepTheirRows() {
+        List<EntityModel.Field> rows = new ArrayList<>(List.of(
+                new EntityModel.Field("id", "UUID", true, true, "Key"),
+                new EntityModel.Field("note", "string", false, false, "")));
+        EntityModel entity = new EntityModel("party", "Party", null, "", rows, null, List.of("unique(id)"));
+
+        // Later changes to the source list do not reach the entity, and its own lists are read-only
+        rows.clear();
+        assertEquals(2, entity.getFields().size());
+        assertThrows(UnsupportedOperationException.class, () -> entity.getFields().add(entity.getFields().get(0)));
+        assertThrows(UnsupportedOperationException.class, () -> entity.getConstraints().clear());
+        assertNull(entity.getSpecialSections());
+
+        // Every pass sees the same row objects, so rows can be kept
+        List<EntityModel.Field> first = new ArrayList<>(entity.getFields());
+        int i = 0;
+        for (EntityModel.Field field : entity.getFields()) {
+            assertSame(first.get(i), field);
+            assertSame(field, entity.getFields().get(i++));
+        }
+
+        EntityModel renamed = entity.withFields(List.of(first.get(0).withName("+ id")));
+        assertEquals("+ id", renamed.getFields().get(0).getName());
+        assertEquals("id", entity.getFields().get(0).getName());
+        assertSame(entity.getConstraints(), renamed.getConstraints());
+    }
+
+    @Test
+    void poolKeepsOneInstancePerValue() {
+        StringPool strings = new StringPool();
+        String first = strings.intern(new String("timestamp"));
+        assertSame(first, strings.intern(new String("timestamp")));
+        assertEquals(1, strings.size());
+        assertEquals(null, strings.intern(null));
+
+        String value = new String("timestamp");
+        assertSame(value, StringPool.unpooled().intern(value));
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.converter.partition;
+
+import com.example.converter.model.EntityModel;
+import com.example.converter.service.RenderEngine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class PartitionedDiagramServiceTests {
+
+    @Autowired
+    private PartitionedDiagramService partitionedDiagramService;
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void splitsByDomainWithAnIndexOfTheLinks() throws Exception {
+        PartitionedDiagramService.Result result = convert("schema-file/contact/schema_level2.json",
+                PartitionStrategy.DOMAIN, 0);
+
+        List<String> names = result.partitioning().partitions().stream().map(DiagramPartitioner.Partition::name).toList();
+        assertEquals(List.of("Party", "Location", "Contact", "Common"), names);
+        assertEquals(tempDir.resolve("schema-location.dot"), result.partFiles().get(1));
+        assertEveryEntityAndRelationshipKept(result, 11, 35);
+
+        String index = Files.readString(result.indexFile());
+        assertTrue(index.contains("URL=\"schema-party.svg\""));
+        assertTrue(index.contains(" -> "));
+        for (Path partFile : result.partFiles()) {
+            assertTrue(Files.readString(partFile).contains("digraph "));
+        }
+    }
+
+    @Test
+    void splitsLargePartsToTheNodeLimit() throws Exception {
+        PartitionedDiagramService.Result result = convert("schema-file/dy/schema.json", PartitionStrategy.SIZE, 20);
+
+        assertEquals(5, result.partFiles().size());
+        result.partitioning().partitions().forEach(partition -> assertTrue(partition.diagram().getEntities().size() <= 20));
+        assertEveryEntityAndRelationshipKept(result, 97, 829);
+
+        PartitionedDiagramService.Result components = convert("schema-file/mdm/schema.json", PartitionStrategy.COMPONENT, 10);
+        components.partitioning().partitions().forEach(partition -> assertTrue(partition.diagram().getEntities().size() <= 10));
+        assertEveryEntityAndRelationshipKept(components, 35, 96);
+    }
+
+    @Test
+    void splitPartsKeepGroupsWithTheirNames() throws Exception {
+        Path input = Files.writeString(tempDir.resolve("billing.json"), """
+                {"entities": [
+                  {"id": "invoice", "name": "Invoice", "domain": "billing"},
+                  {"id": "payment", "name": "Payment", "domain": "billing"},
+                  {"id": "refund", "name": "Refund", "domain": "billing"},
+                  {"id": "ledger", "name": "Ledger", "domain": "billing-1"}
+                ],
+                 "relationships": [{"from_entity": "invoice", "to_entity": "payment", "label": "PAID_BY"},
+                                   {"from_entity": "payment", "to_entity": "refund", "label": "REFUNDED_BY"}]}
+                """);
+        PartitionedDiagramService.Result result = partitionedDiagramService.convert(input, tempDir.resolve("schema.dot"),
+                new PartitionedDiagramService.Options(null, RenderEngine.DIRECT, PartitionStrategy.DOMAIN, 2, null));
+
+        List<String> names = result.partitioning().partitions().stream().map(DiagramPartitioner.Partition::name).toList();
+        assertEquals(List.of("billing-1-2", "billing-2", "billing-1"), names);
+        assertEveryEntityAndRelationshipKept(result, 4, 2);
+    }
+
+    @Test
+    void sizeStrategyNeedsALimit() {
+        assertThrows(IllegalArgumentException.class, () -> convert("schema-file/mdm/schema.json", PartitionStrategy.SIZE, 0));
+    }
+
+    private PartitionedDiagramService.Result convert(String input, PartitionStrategy strategy, int maxNodes) throws Exception {
+        return partitionedDiagramService.convert(Paths.get(input), tempDir.resolve("schema.dot"),
+                new PartitionedDiagramService.Options(null, RenderEngine.DIRECT, strategy, maxNodes, "svg"));
+    }
+
+    private static void assertEveryEntityAndRelationshipKept(PartitionedDiagramService.Result result, int entities, int relationships) {
+        Set<String> ids = new HashSet<>();
+        int internal = 0;
+        for (DiagramPartitioner.Partition partition : result.partitioning().partitions()) {
+            assertFalse(partition.diagram().getEntities().isEmpty());
+            for (EntityModel entity : partition.diagram().getEntities()) {
+                assertTrue(ids.add(entity.getId()), "Entity in two parts: " + entity.getId());
+            }
+            internal += partition.diagram().getRelationships().size();
+        }
+        int crossing = result.partitioning().links().stream().mapToInt(link -> link.labels().size()).sum();
+        assertEquals(entities, ids.size());
+        assertEquals(relationships, internal + crossing);
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.converter.server;
+
+import com.example.converter.service.DiagramService;
+import com.example.converter.service.RenderEngine;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ConversionServerTests {
+
+    @Autowired
+    private ConversionServer conversionServer;
+
+    @Autowired
+    private DiagramService diagramService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void convertsPostedModels() throws Exception {
+        int port = conversionServer.start(new ConversionServer.Settings(0, 2, 0, RenderEngine.VELOCITY));
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            Path schemaFile = Paths.get("schema-file/contact/schema.json");
+            URI convert = URI.create("http://127.0.0.1:" + port + "/convert?engine=direct");
+
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(convert)
+                    .POST(HttpRequest.BodyPublishers.ofFile(schemaFile)).build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, response.statusCode());
+            assertEquals(diagramService.generateDotContent(objectMapper.readTree(schemaFile.toFile()), (String) null, RenderEngine.VELOCITY),
+                    response.body());
+
+            HttpResponse<String> invalid = client.send(HttpRequest.newBuilder(convert)
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"entities\": [")).build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(400, invalid.statusCode());
+
+            HttpResponse<String> get = client.send(HttpRequest.newBuilder(convert).GET().build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(405, get.statusCode());
+        } finally {
+            conversionServer.stop();
+        }
+    }
+
+    @Test
+    void configComesFromTheBodyOrTheConfigDirectoryOnly(@TempDir Path tempDir) throws Exception {
+        Path configDir = Files.createDirectories(tempDir.resolve("configs"));
+        String font = "{\"settings\": {\"node-defaults\": {\"fontname\": \"Courier\"}}}";
+        Files.writeString(configDir.resolve("courier.yaml"), "diagram:\n  settings:\n    node-defaults:\n      fontname: Courier\n");
+        Path outside = Files.writeString(tempDir.resolve("outside.yaml"), "diagram: {}\n");
+        String model = Files.readString(Paths.get("schema-file/contact/schema.json"));
+
+        int port = conversionServer.start(new ConversionServer.Settings(0, 2, 0, RenderEngine.VELOCITY, configDir));
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            String base = "http://127.0.0.1:" + port + "/convert";
+
+            HttpResponse<String> inline = post(client, base, "{\"model\": " + model + ", \"config\": " + font + "}");
+            assertEquals(200, inline.statusCode());
+            assertTrue(inline.body().contains("fontname=\"Courier\""));
+
+            HttpResponse<String> named = post(client, base + "?config=courier.yaml", model);
+            assertEquals(200, named.statusCode());
+            assertEquals(inline.body(), named.body());
+
+            // Paths leading out of the directory are refused, whether they exist or not
+            for (String config : List.of("../outside.yaml", outside.toString(), "/etc/passwd", "missing.yaml")) {
+                HttpResponse<String> refused = post(client, base + "?config=" + URLEncoder.encode(config, StandardCharsets.UTF_8), model);
+                assertEquals(400, refused.statusCode(), config);
+            }
+        } finally {
+            conversionServer.stop();
+        }
+    }
+
+    @Test
+    void configFilesAreRefusedWithoutAConfigDirectory() throws Exception {
+        int port = conversionServer.start(new ConversionServer.Settings(0, 2, 0, RenderEngine.VELOCITY));
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            HttpResponse<String> refused = post(client, "http://127.0.0.1:" + port + "/convert?config=application.yaml",
+                    Files.readString(Paths.get("schema-file/contact/schema.json")));
+            assertEquals(400, refused.statusCode());
+        } finally {
+            conversionServer.stop();
+        }
+    }
+
+    @Test
+    void saturatedServerAnswersBusy() throws Exception {
+        int port = conversionServer.start(new ConversionServer.Settings(0, 1, 0, RenderEngine.VELOCITY));
+        byte[] model = Files.readAllBytes(Paths.get("schema-file/contact/schema.json"));
+        try (HttpClient client = HttpClient.newHttpClient();
+             Socket slow = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            // The only slot is held while the server waits for the rest of this body
+            OutputStream request = slow.getOutputStream();
+            request.write(("POST /convert HTTP/1.1\r\nHost: 127.0.0.1\r\nContent-Length: " + model.length + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII));
+            request.write(model, 0, model.length / 2);
+            request.flush();
+
+            URI health = URI.create("http://127.0.0.1:" + port + "/health");
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (objectMapper.readTree(client.send(HttpRequest.newBuilder(health).GET().build(),
+                    HttpResponse.BodyHandlers.ofString()).body()).path("running").asInt() == 0) {
+                assertTrue(System.nanoTime() < deadline, "Slow request never started");
+                Thread.sleep(20);
+            }
+
+            HttpResponse<String> busy = post(client, "http://127.0.0.1:" + port + "/convert", new String(model, StandardCharsets.UTF_8));
+            assertEquals(503, busy.statusCode());
+            assertEquals("1", busy.headers().firstValue("Retry-After").orElse(null));
+
+            // Finishing the body lets the held request complete
+            request.write(model, model.length / 2, model.length - model.length / 2);
+            request.flush();
+            slow.setSoTimeout(30_000);
+            String statusLine = new BufferedReader(new InputStreamReader(slow.getInputStream(), StandardCharsets.US_ASCII)).readLine();
+            assertTrue(statusLine.startsWith("HTTP/1.1 200"), statusLine);
+        } finally {
+            conversionServer.stop();
+        }
+    }
+
+    private static HttpResponse<String> post(HttpClient client, String uri, String body) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(uri)).POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+}
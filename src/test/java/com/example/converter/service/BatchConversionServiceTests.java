@@ -0,0 +1,115 @@
+package com.example.converter.service;
+
+import com.example.converter.service.BatchConversionService.FileResult;
+import com.example.converter.service.BatchConversionService.FileTask;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for resolving batch inputs into conversion tasks and converting them on the worker pool
+ */
+@SpringBootTest
+class BatchConversionServiceTests {
+
+    private static final BatchConversionService.Options OPTIONS =
+            new BatchConversionService.Options(null, false, RenderEngine.VELOCITY, null, null);
+
+    @TempDir
+    private Path tempDir;
+
+    @Autowired
+    private BatchConversionService batchConversionService;
+
+    @Test
+    void mirrorsDirectoryInputsUnderTheOutputRoot() throws Exception {
+        Path first = write("models/a/schema.json");
+        Path second = write("models/b/schema.json");
+        Path outputRoot = tempDir.resolve("out");
+
+        List<FileTask> tasks = batchConversionService.resolveTasks(List.of(tempDir.resolve("models").toString()), outputRoot);
+
+        assertEquals(List.of(new FileTask(first, outputRoot.resolve("a/schema.dot")),
+                new FileTask(second, outputRoot.resolve("b/schema.dot"))), tasks);
+    }
+
+    @Test
+    void rejectsInputsThatWouldWriteTheSameOutput() throws Exception {
+        Path first = write("a/schema.json");
+        Path second = write("b/schema.json");
+
+        IOException e = assertThrows(IOException.class, () -> batchConversionService.resolveTasks(
+                List.of(first.toString(), second.toString()), tempDir.resolve("out")));
+        assertTrue(e.getMessage().contains("schema.dot"), e.getMessage());
+    }
+
+    @Test
+    void oneFailingFileDoesNotStopTheOthers() throws Exception {
+        write("models/a.json");
+        Files.writeString(tempDir.resolve("models/broken.json"), "{\"entities\": [");
+        write("models/c.json");
+        List<FileTask> tasks = batchConversionService.resolveTasks(List.of(tempDir.resolve("models").toString()), tempDir.resolve("out"));
+
+        List<FileResult> results = batchConversionService.convertAll(tasks, OPTIONS, 2, 4, result -> { });
+
+        assertEquals(tasks, results.stream().map(FileResult::task).toList());
+        assertEquals(List.of(true, false, true), results.stream().map(FileResult::success).toList());
+        assertNotNull(results.get(1).error());
+        assertTrue(Files.exists(tempDir.resolve("out/a.dot")));
+        assertFalse(Files.exists(tempDir.resolve("out/broken.dot")));
+        assertTrue(Files.exists(tempDir.resolve("out/c.dot")));
+    }
+
+    @Test
+    void submitterRunsTasksWhenTheQueueIsFull() throws Exception {
+        List<FileTask> tasks = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            tasks.add(new FileTask(write("models/m" + i + ".json"), tempDir.resolve("out/m" + i + ".dot")));
+        }
+        Thread submitter = Thread.currentThread();
+        List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch ranOnSubmitter = new CountDownLatch(1);
+
+        // The single worker holds its first file until the submitter has run one itself:
+        // with one file queued behind it, the third submission finds the queue full
+        List<FileResult> results = batchConversionService.convertAll(tasks, OPTIONS, 1, 1, result -> {
+            threads.add(Thread.currentThread());
+            if (Thread.currentThread() == submitter) {
+                ranOnSubmitter.countDown();
+            } else {
+                try {
+                    assertTrue(ranOnSubmitter.await(30, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        assertEquals(tasks.size(), results.size());
+        assertTrue(results.stream().allMatch(FileResult::success));
+        assertTrue(threads.contains(submitter));
+        assertTrue(threads.stream().anyMatch(thread -> thread != submitter));
+    }
+
+    private Path write(String relativePath) throws IOException {
+        Path file = tempDir.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        return Files.writeString(file, "{\"entities\": []}");
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.converter.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Golden-file tests proving the direct renderer matches the default Velocity templates byte for byte
+ */
+@SpringBootTest
+class DirectDotRendererTests {
+
+    @Autowired
+    private DiagramService diagramService;
+
+    @Autowired
+    private StreamingDiagramService streamingDiagramService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    static Stream<Path> schemaFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(Paths.get("schema-file"))) {
+            return files.filter(file -> file.toString().endsWith(".json")).sorted().toList().stream();
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("schemaFiles")
+    void directEngineMatchesVelocityTemplates(Path schemaFile) throws Exception {
+        JsonNode jsonData = objectMapper.readTree(schemaFile.toFile());
+
+        String velocityDot = diagramService.generateDotContent(jsonData, (String) null, RenderEngine.VELOCITY);
+        String directDot = diagramService.generateDotContent(jsonData, (String) null, RenderEngine.DIRECT);
+        assertEquals(velocityDot, directDot);
+
+        StringWriter streamed = new StringWriter();
+        streamingDiagramService.streamDotContent(schemaFile, null, streamed, RenderEngine.DIRECT);
+        assertEquals(velocityDot, streamed.toString());
+
+        // Checked-in renders are the golden files
+        Path goldenFile = schemaFile.resolveSibling(schemaFile.getFileName().toString().replace(".json", ".dot"));
+        if (Files.exists(goldenFile)) {
+            assertEquals(Files.readString(goldenFile), directDot);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            // No metadata, settings, relationships or layout hints
+            "{\"entities\": [{\"id\": \"a\", \"name\": \"A\"}]}",
+            // Empty description and version, empty collections everywhere
+            """
+            {"metadata": {"title": "Edge-Case Model", "version": "", "description": ""},
+             "entities": [{"id": "a", "name": "A", "description": "", "fields": [], "special_sections": [], "constraints": []}],
+             "relationships": [],
+             "layout_hints": {"same_rank_groups": [[]]}}
+            """,
+            // Plain special sections, required sections, constraints and a self-loop
+            """
+            {"metadata": {"title": "Sections"},
+             "diagram_settings": {"rankdir": "LR"},
+             "entities": [{"id": "carrier", "name": "Carrier", "description": "Has overrides",
+                           "fields": [{"name": "id", "type": "UUID", "is_required": true, "is_key": true},
+                                      {"name": "note", "type": "string"}],
+                           "special_sections": [{"name": "Audit", "type": "object", "style": "plain", "is_required": true},
+                                                {"name": "Flags", "type": "object"}],
+                           "constraints": ["UNIQUE (id)", "CHECK (note <> '')"]}],
+             "relationships": [{"from_entity": "carrier", "to_entity": "carrier", "label": "PARENT"}],
+             "layout_hints": {"same_rank_groups": [["carrier"], ["carrier", "missing"]]}}
+            """
+    })
+    void directEngineMatchesVelocityTemplatesForEdgeCases(String json, @TempDir Path tempDir) throws Exception {
+        JsonNode jsonData = objectMapper.readTree(json);
+
+        String velocityDot = diagramService.generateDotContent(jsonData, (String) null, RenderEngine.VELOCITY);
+        assertEquals(velocityDot, diagramService.generateDotContent(jsonData, (String) null, RenderEngine.DIRECT));
+
+        Path schemaFile = Files.writeString(tempDir.resolve("schema.json"), json);
+        StringWriter streamed = new StringWriter();
+        streamingDiagramService.streamDotContent(schemaFile, null, streamed, RenderEngine.DIRECT);
+        assertEquals(velocityDot, streamed.toString());
+    }
+
+    @ParameterizedTest
+    @MethodSource("schemaFiles")
+    void streamsFromStandardInput(Path schemaFile) throws Exception {
+        String velocityDot = diagramService.generateDotContent(objectMapper.readTree(schemaFile.toFile()), (String) null, RenderEngine.VELOCITY);
+        assertEquals(velocityDot, streamFromInputStream(Files.readString(schemaFile)));
+    }
+
+    @Test
+    void streamsEntitiesBeforeTheHeaderFromStandardInput() throws Exception {
+        // A stream cannot be read twice, so entities ahead of the metadata and settings are held in memory
+        String json = """
+                {"entities": [{"id": "order", "name": "Order", "fields": [{"name": "id", "type": "UUID", "is_key": true}]},
+                              {"id": "line", "name": "Line", "fields": [{"name": "order_id", "type": "UUID"}]}],
+                 "relationships": [{"from_entity": "line", "to_entity": "order", "label": "BELONGS_TO"}],
+                 "metadata": {"title": "Orders", "version": "2"},
+                 "diagram_settings": {"rankdir": "LR"}}
+                """;
+
+        String velocityDot = diagramService.generateDotContent(objectMapper.readTree(json), (String) null, RenderEngine.VELOCITY);
+        assertTrue(velocityDot.contains("Orders"));
+        assertTrue(velocityDot.contains("rankdir=LR;"));
+        assertEquals(velocityDot, streamFromInputStream(json));
+    }
+
+    private String streamFromInputStream(String json) throws Exception {
+        StringWriter streamed = new StringWriter();
+        try (InputStream input = new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))) {
+            streamingDiagramService.streamDotContent(input, null, streamed, RenderEngine.DIRECT);
+        }
+        return streamed.toString();
+    }
+}
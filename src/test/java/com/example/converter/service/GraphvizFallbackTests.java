@@ -0,0 +1,58 @@
+package com.example.converter.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests of the timeout fallback against a fake dot that hangs with the dot engine and answers with any other
+ */
+@SpringBootTest
+@DisabledOnOs(OS.WINDOWS)
+class GraphvizFallbackTests {
+
+    @Autowired
+    private GraphvizService graphvizService;
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void sfdpRescuesATimedOutDotLayout() throws Exception {
+        Path calls = tempDir.resolve("calls.txt");
+        Path fakeDot = Files.writeString(tempDir.resolve("dot"), """
+                #!/bin/sh
+                echo "$*" >> '%s'
+                case " $* " in
+                  *" -Kdot "*) exec sleep 60 ;;
+                esac
+                cat > /dev/null
+                printf 'laid out'
+                """.formatted(calls));
+        Files.setPosixFilePermissions(fakeDot, PosixFilePermissions.fromString("rwxr-xr-x"));
+
+        GraphvizService.Settings defaults = graphvizService.getSettings();
+        graphvizService.configure(new GraphvizService.Settings(1, Duration.ofSeconds(2), "dot", fakeDot.toString()));
+        try {
+            byte[] image = graphvizService.render("digraph g { a -> b; }", "svg");
+
+            assertEquals("laid out", new String(image, StandardCharsets.UTF_8));
+            List<String> engines = Files.readAllLines(calls).stream().map(call -> call.split(" ")[0]).toList();
+            assertEquals(List.of("-Kdot", "-Ksfdp"), engines);
+        } finally {
+            graphvizService.configure(defaults);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.converter.service;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Tests against a real Graphviz installation; skipped when dot is not on the path
+ */
+@SpringBootTest
+class GraphvizServiceTests {
+
+    @Autowired
+    private GraphvizService graphvizService;
+
+    @TempDir
+    private Path tempDir;
+
+    @BeforeAll
+    static void requireGraphviz() {
+        boolean available;
+        try {
+            Process process = new ProcessBuilder("dot", "-V").redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+            available = process.waitFor(10, TimeUnit.SECONDS) && process.exitValue() == 0;
+        } catch (IOException | InterruptedException e) {
+            available = false;
+        }
+        assumeTrue(available, "Graphviz dot is not installed");
+    }
+
+    @Test
+    void rendersEveryFormatFromOneProcess() throws Exception {
+        Path dotFile = Files.copy(Paths.get("schema-file/mdm/schema.dot"), tempDir.resolve("schema.dot"));
+
+        List<Path> images = graphvizService.render(dotFile, List.of("svg", "png"));
+
+        assertEquals(List.of(tempDir.resolve("schema.svg"), tempDir.resolve("schema.png")), images);
+        assertTrue(Files.readString(images.get(0)).contains("<svg"));
+        assertTrue(Files.size(images.get(1)) > 0);
+    }
+
+    @Test
+    void rendersDotTextInMemory() throws Exception {
+        byte[] svg = graphvizService.render("digraph g { a -> b; }", "svg");
+        assertTrue(new String(svg, StandardCharsets.UTF_8).contains("<svg"));
+    }
+
+    @Test
+    void reportsGraphvizErrors() {
+        IOException failure = assertThrows(IOException.class, () -> graphvizService.render("digraph g { a -> ", "svg"));
+        assertTrue(failure.getMessage().contains("exit code"));
+    }
+
+    @Test
+    void rendersIdenticalDotOnceWithARenderCache() throws Exception {
+        graphvizService.setRenderCache(RenderCache.open(tempDir.resolve("cache"), 64 * 1024 * 1024));
+        try {
+            Path first = Files.copy(Paths.get("schema-file/contact/schema.dot"), tempDir.resolve("first.dot"));
+            Path second = Files.copy(first, tempDir.resolve("second.dot"));
+
+            graphvizService.render(first, List.of("svg"));
+            List<Path> images = graphvizService.render(second, List.of("svg", "png"));
+
+            assertEquals(Files.readString(tempDir.resolve("first.svg")), Files.readString(images.get(0)));
+            RenderCache.Statistics statistics = graphvizService.getRenderCache().getStatistics();
+            assertEquals(1, statistics.hits());
+            assertEquals(2, statistics.misses());
+            assertEquals(2, statistics.entries());
+        } finally {
+            graphvizService.setRenderCache(null);
+        }
+    }
+
+    @Test
+    void givesUpWhenTheFallbackAlsoTimesOut() {
+        GraphvizService.Settings defaults = graphvizService.getSettings();
+        graphvizService.configure(new GraphvizService.Settings(1, Duration.ofMillis(1), "dot"));
+        try {
+            IOException failure = assertThrows(IOException.class, () -> graphvizService.render("digraph g { a -> b; }", "svg"));
+            assertTrue(failure.getMessage().contains("sfdp did not finish"));
+        } finally {
+            graphvizService.configure(defaults);
+        }
+    }
+}
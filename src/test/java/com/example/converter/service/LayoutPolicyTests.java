@@ -0,0 +1,103 @@
+package com.example.converter.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for choosing a layout from the size of the DOT
+ */
+class LayoutPolicyTests {
+
+    @Test
+    void measuresNodesEdgesAndCells() throws IOException {
+        String dot = """
+                digraph g {
+                  a [label=<<TABLE><TR><TD>a</TD><TD>b</TD></TR></TABLE>>];
+                  b [label=<<TABLE><TR><TD>c</TD></TR></TABLE>>];
+                  a -> b [label="one"];
+                }
+                """;
+        assertEquals(new LayoutPolicy.Complexity(2, 1, 3), LayoutPolicy.Complexity.measure(new BufferedReader(new StringReader(dot))));
+    }
+
+    @Test
+    void labelsAndCommentsDoNotChangeTheCounts() throws IOException {
+        String dot = """
+                // a -> b [label="commented out"];
+                digraph "model" {
+                  rankdir=LR;
+                  node [shape="none"];
+                  /* c -> d */
+                  a; b; c
+                  a -> b; b -> c [label="x -> y"]; c -> a
+                  "quoted id" -> a [label=<<TABLE><TR><TD>a -&gt; b</TD></TR></TABLE>>];
+                  {rank=same; a; c;}
+                }
+                """;
+        assertEquals(new LayoutPolicy.Complexity(4, 4, 1), LayoutPolicy.Complexity.measure(new BufferedReader(new StringReader(dot))));
+    }
+
+    @Test
+    void countsMatchTheModel() throws IOException {
+        JsonNode model = new ObjectMapper().readTree(Paths.get("schema-file/contact/schema.json").toFile());
+        // Graphviz adds a node for every relationship end, including ones that are not entities
+        Set<String> nodes = new HashSet<>();
+        model.path("entities").forEach(entity -> nodes.add(entity.path("id").asText()));
+        model.path("relationships").forEach(relationship -> {
+            nodes.add(relationship.path("from_entity").asText());
+            nodes.add(relationship.path("to_entity").asText());
+        });
+
+        LayoutPolicy.Complexity complexity = measure("schema-file/contact/schema.dot");
+        assertEquals(nodes.size(), complexity.nodes());
+        assertEquals(model.path("relationships").size(), complexity.edges());
+    }
+
+    @Test
+    void smallDiagramsGetAFullDotLayout() throws IOException {
+        LayoutPolicy.Layout layout = LayoutPolicy.choose(measure("schema-file/contact/schema.dot"), LayoutPolicy.AUTO);
+        assertEquals(List.of("-Kdot"), layout.arguments());
+        assertEquals("sfdp", layout.fallback().engine());
+    }
+
+    @Test
+    void largerDiagramsGetCheaperLayouts() throws IOException {
+        LayoutPolicy.Layout medium = LayoutPolicy.choose(measure("schema-file/dy/schema.dot"), LayoutPolicy.AUTO);
+        assertEquals("dot", medium.engine());
+        assertTrue(medium.arguments().contains("-Gsplines=polyline"));
+
+        LayoutPolicy.Layout large = LayoutPolicy.choose(new LayoutPolicy.Complexity(2_000, 8_000, 60_000), LayoutPolicy.AUTO);
+        assertEquals("sfdp", large.engine());
+        assertNull(large.fallback());
+    }
+
+    @Test
+    void explicitEngineOverridesTheSize() {
+        LayoutPolicy.Complexity tiny = new LayoutPolicy.Complexity(2, 1, 3);
+        assertEquals("sfdp", LayoutPolicy.choose(tiny, "sfdp").engine());
+        assertEquals("neato", LayoutPolicy.choose(tiny, LayoutPolicy.validateEngine("NEATO")).engine());
+        assertThrows(IllegalArgumentException.class, () -> LayoutPolicy.validateEngine("circo"));
+    }
+
+    private static LayoutPolicy.Complexity measure(String dotFile) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(dotFile), StandardCharsets.UTF_8)) {
+            return LayoutPolicy.Complexity.measure(reader);
+        }
+    }
+}
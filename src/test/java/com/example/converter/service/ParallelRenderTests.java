@@ -0,0 +1,69 @@
+package com.example.converter.service;
+
+import com.example.converter.config.DiagramProperties;
+import com.example.converter.util.SyntheticSchemaGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Parallel entity rendering must give exactly the output of the sequential template pass
+ */
+@SpringBootTest
+class ParallelRenderTests {
+
+    @Autowired
+    private DiagramService diagramService;
+
+    @Autowired
+    private DiagramProperties diagramProperties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    static Stream<Path> schemaFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(Paths.get("schema-file"))) {
+            return files.filter(file -> file.toString().endsWith(".json")).sorted().toList().stream();
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("schemaFiles")
+    void parallelRenderMatchesSequentialRender(Path schemaFile) throws Exception {
+        JsonNode jsonData = objectMapper.readTree(schemaFile.toFile());
+
+        String sequential = diagramService.generateDotContent(jsonData, diagramProperties, RenderEngine.VELOCITY);
+        // Chunks of three entities, so even small schemas are split across several tasks
+        String parallel = diagramService.generateDotContent(jsonData, parallelConfig(3), RenderEngine.VELOCITY);
+        assertEquals(sequential, parallel);
+    }
+
+    @Test
+    void parallelRenderMatchesSequentialRenderOnLargeModels() throws Exception {
+        JsonNode jsonData = SyntheticSchemaGenerator.generate(5000, 8, 2, 42L);
+
+        String sequential = diagramService.generateDotContent(jsonData, diagramProperties, RenderEngine.VELOCITY);
+        assertEquals(sequential, diagramService.generateDotContent(jsonData, parallelConfig(64), RenderEngine.VELOCITY));
+        // A last chunk shorter than the others
+        assertEquals(sequential, diagramService.generateDotContent(jsonData, parallelConfig(37), RenderEngine.VELOCITY));
+    }
+
+    private DiagramProperties parallelConfig(int chunkSize) {
+        DiagramProperties config = objectMapper.convertValue(diagramProperties, DiagramProperties.class);
+        config.getRendering().setParallel(true);
+        config.getRendering().setChunkSize(chunkSize);
+        return config;
+    }
+}
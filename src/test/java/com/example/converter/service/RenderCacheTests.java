@@ -0,0 +1,112 @@
+package com.example.converter.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the on-disk render cache
+ */
+class RenderCacheTests {
+
+    private static final byte[] DOT_HASH = RenderCache.newDigest().digest("digraph g { a -> b; }".getBytes(StandardCharsets.UTF_8));
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void keyDependsOnEverythingThatChangesTheImage() {
+        String key = RenderCache.key(DOT_HASH, "png", List.of("-Kdot"), "dot - graphviz version 2.43.0 (0)");
+        assertTrue(key.endsWith(".png"));
+        assertEquals(key, RenderCache.key(DOT_HASH, "png", List.of("-Kdot"), "dot - graphviz version 2.43.0 (0)"));
+        assertNotEquals(key, RenderCache.key(DOT_HASH, "png", List.of("-Ksfdp"), "dot - graphviz version 2.43.0 (0)"));
+        assertNotEquals(key, RenderCache.key(DOT_HASH, "png", List.of("-Kdot"), "dot - graphviz version 9.0.0 (0)"));
+    }
+
+    @Test
+    void countsHitsAndMisses() throws Exception {
+        RenderCache cache = RenderCache.open(tempDir.resolve("cache"), 1024);
+        String key = RenderCache.key(DOT_HASH, "svg", List.of("-Kdot"), "test");
+        Path target = tempDir.resolve("schema.svg");
+
+        assertNull(cache.read(key));
+        assertFalse(cache.copyTo(key, target));
+        assertFalse(Files.exists(target));
+
+        cache.store(key, "<svg/>".getBytes(StandardCharsets.UTF_8));
+        assertTrue(cache.copyTo(key, target));
+        assertEquals("<svg/>", Files.readString(target));
+        assertArrayEquals(Files.readAllBytes(target), cache.read(key));
+
+        assertEquals(new RenderCache.Statistics(2, 2, 0, 1, 6), cache.getStatistics());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedImagesAcrossRuns() throws Exception {
+        Path directory = tempDir.resolve("cache");
+        RenderCache cache = RenderCache.open(directory, 25);
+        List<String> keys = List.of("a", "b", "c").stream()
+                .map(name -> RenderCache.key(DOT_HASH, "png", List.of(name), "test"))
+                .toList();
+
+        cache.store(keys.get(0), new byte[10]);
+        cache.store(keys.get(1), new byte[10]);
+        assertNotNull(cache.read(keys.get(0)));
+        cache.store(keys.get(2), new byte[10]);
+
+        // b was used least recently
+        assertNull(cache.read(keys.get(1)));
+        assertEquals(1, cache.getStatistics().evictions());
+        assertEquals(20, cache.getStatistics().bytes());
+
+        // The order on disk comes from modification times
+        String oldest = keys.get(0);
+        Files.setLastModifiedTime(directory.resolve(oldest.substring(0, 2)).resolve(oldest), FileTime.fromMillis(0));
+        RenderCache reopened = RenderCache.open(directory, 15);
+        assertEquals(1, reopened.getStatistics().entries());
+        assertNotNull(reopened.read(keys.get(2)));
+    }
+
+    @Test
+    void openingDeletesTemporaryFilesOfCrashedWrites() throws Exception {
+        Path directory = tempDir.resolve("cache");
+        String key = RenderCache.key(DOT_HASH, "png", List.of("-Kdot"), "test");
+        Path fanOut = Files.createDirectories(directory.resolve(key.substring(0, 2)));
+        Path crashed = Files.write(fanOut.resolve(key + "123.tmp"), new byte[10]);
+        Files.setLastModifiedTime(crashed, FileTime.fromMillis(0));
+        // A write in progress in another process is left alone
+        Path inProgress = Files.write(fanOut.resolve(key + "456.tmp"), new byte[10]);
+
+        RenderCache cache = RenderCache.open(directory, 1024);
+
+        assertFalse(Files.exists(crashed));
+        assertTrue(Files.exists(inProgress));
+        assertEquals(0, cache.getStatistics().entries());
+    }
+
+    @Test
+    void missLeavesNoTemporaryFileNextToTheTarget() throws Exception {
+        RenderCache cache = RenderCache.open(tempDir.resolve("cache"), 1024);
+        Path output = Files.createDirectories(tempDir.resolve("output"));
+
+        assertFalse(cache.copyTo(RenderCache.key(DOT_HASH, "svg", List.of("-Kdot"), "test"), output.resolve("schema.svg")));
+
+        try (Stream<Path> files = Files.list(output)) {
+            assertEquals(0, files.count());
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.converter.service;
+
+import com.example.converter.util.SyntheticSchemaGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Scaling tests for generateDotContent on synthetic models.
+ * Excluded from the default build; run with {@code ./mvnw test -Pscaling}, which fixes the heap size.
+ * Wall time and peak heap are fitted over all sizes as {@code cost ~ entities^k}; linear scaling
+ * gives k close to 1 and a quadratic pass gives 2, so the test fails once k exceeds the allowed
+ * exponent. Sizes and the exponent can be changed with
+ * {@code -Dscaling.sizes=1000,10000,100000} and {@code -Dscaling.max-exponent=1.15}.
+ */
+@SpringBootTest
+@Tag("scaling")
+class ScalingTests {
+
+    private static final Path REPORT_FILE = Paths.get("target", "scaling-report.csv");
+
+    @Autowired
+    private DiagramService diagramService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @TempDir
+    private Path tempDir;
+
+    record Measurement(int entities, long wallMillis, long peakHeapBytes, long outputChars) {
+    }
+
+    @Test
+    void generateDotContentScalesLinearly() throws Exception {
+        int[] sizes = Arrays.stream(System.getProperty("scaling.sizes", "1000,10000,100000").split(","))
+                .mapToInt(size -> Integer.parseInt(size.trim()))
+                .sorted()
+                .toArray();
+        double maxExponent = Double.parseDouble(System.getProperty("scaling.max-exponent", "1.15"));
+
+        // Warm up the JIT and template cache so the smallest size is not penalised
+        measure(sizes[0]);
+
+        List<Measurement> measurements = new ArrayList<>();
+        for (int size : sizes) {
+            measurements.add(measure(size));
+        }
+        writeReport(measurements);
+
+        double timeExponent = exponent(measurements, Measurement::wallMillis);
+        double heapExponent = exponent(measurements, Measurement::peakHeapBytes);
+        System.out.printf("Fitted exponents: wall time %.2f, peak heap %.2f (allowed %.2f)%n", timeExponent, heapExponent, maxExponent);
+        assertTrue(timeExponent <= maxExponent,
+                "Wall time grows as entities^" + String.format("%.2f", timeExponent) + " over " + measurements);
+        assertTrue(heapExponent <= maxExponent,
+                "Peak heap grows as entities^" + String.format("%.2f", heapExponent) + " over " + measurements);
+    }
+
+    /**
+     * Least-squares slope of log(cost) against log(entities)
+     */
+    static double exponent(List<Measurement> measurements, ToLongFunction<Measurement> cost) {
+        if (measurements.size() < 2) {
+            return 1.0;
+        }
+        double meanX = 0;
+        double meanY = 0;
+        for (Measurement measurement : measurements) {
+            meanX += Math.log(measurement.entities());
+            meanY += Math.log(Math.max(1, cost.applyAsLong(measurement)));
+        }
+        meanX /= measurements.size();
+        meanY /= measurements.size();
+
+        double covariance = 0;
+        double variance = 0;
+        for (Measurement measurement : measurements) {
+            double dx = Math.log(measurement.entities()) - meanX;
+            covariance += dx * (Math.log(Math.max(1, cost.applyAsLong(measurement))) - meanY);
+            variance += dx * dx;
+        }
+        return covariance / variance;
+    }
+
+    /**
+     * Convert a generated model the way the CLI does, from file to DOT text
+     */
+    private Measurement measure(int entities) throws Exception {
+        Path inputFile = tempDir.resolve("synthetic-" + entities + ".json");
+        if (!Files.exists(inputFile)) {
+            SyntheticSchemaGenerator.write(SyntheticSchemaGenerator.Parameters.of(entities), inputFile);
+        }
+
+        System.gc();
+        long baseline = usedHeap();
+        List<MemoryPoolMXBean> heapPools = heapPools();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+        long start = System.nanoTime();
+        String dotContent;
+        try {
+            JsonNode jsonData = objectMapper.readTree(inputFile.toFile());
+            dotContent = diagramService.generateDotContent(jsonData, null);
+        } catch (OutOfMemoryError e) {
+            return fail(entities + " entities do not fit in a " + Runtime.getRuntime().maxMemory() / (1024 * 1024) + " MB heap");
+        }
+        long wallMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Sum of per-pool peaks: an upper bound on the peak heap during the conversion
+        long peak = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        return new Measurement(entities, wallMillis, Math.max(0, peak - baseline), dotContent.length());
+    }
+
+    private void writeReport(List<Measurement> measurements) throws Exception {
+        long maxHeap = Runtime.getRuntime().maxMemory();
+        StringBuilder report = new StringBuilder("entities,wall_ms,peak_heap_bytes,output_chars,max_heap_bytes\n");
+        System.out.printf("%n%10s %10s %14s %14s (max heap %d MB)%n", "entities", "wall ms", "peak heap MB", "output chars",
+                maxHeap / (1024 * 1024));
+        for (Measurement measurement : measurements) {
+            report.append(measurement.entities()).append(',')
+                    .append(measurement.wallMillis()).append(',')
+                    .append(measurement.peakHeapBytes()).append(',')
+                    .append(measurement.outputChars()).append(',')
+                    .append(maxHeap).append('\n');
+            System.out.printf("%10d %10d %14d %14d%n", measurement.entities(), measurement.wallMillis(),
+                    measurement.peakHeapBytes() / (1024 * 1024), measurement.outputChars());
+        }
+        Files.createDirectories(REPORT_FILE.getParent());
+        Files.writeString(REPORT_FILE, report);
+    }
+
+    private static List<MemoryPoolMXBean> heapPools() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+    }
+
+    private static long usedHeap() {
+        return heapPools().stream().mapToLong(pool -> pool.getUsage().getUsed()).sum();
+    }
+}
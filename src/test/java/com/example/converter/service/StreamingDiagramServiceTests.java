@@ -0,0 +1,104 @@
+package com.example.converter.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Streaming with the Velocity templates must match a render of the fully parsed model.
+ * The context is discarded afterwards, since its template cache now holds a test template.
+ */
+@SpringBootTest
+@DirtiesContext
+class StreamingDiagramServiceTests {
+
+    @Autowired
+    private DiagramService diagramService;
+
+    @Autowired
+    private StreamingDiagramService streamingDiagramService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    static Stream<Path> schemaFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(Paths.get("schema-file"))) {
+            return files.filter(file -> file.toString().endsWith(".json")).sorted().toList().stream();
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("schemaFiles")
+    void velocityStreamMatchesNonStreamingOutput(Path schemaFile) throws Exception {
+        String expected = diagramService.generateDotContent(objectMapper.readTree(schemaFile.toFile()), (String) null, RenderEngine.VELOCITY);
+
+        assertEquals(expected, streamFile(schemaFile, null));
+        assertEquals(expected, streamStandardInput(schemaFile, null));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            // Header first: entities are streamed in one pass
+            """
+            {"metadata": {"title": "Orders"}, "diagram_settings": {"rankdir": "LR"},
+             "entities": [{"id": "order", "name": "Order"}, {"id": "line", "name": "Line"}],
+             "relationships": [{"from_entity": "line", "to_entity": "order", "label": "BELONGS_TO"}]}
+            """,
+            // Header last: a file is read twice, standard input is held in memory
+            """
+            {"entities": [{"id": "order", "name": "Order"}, {"id": "line", "name": "Line"}],
+             "relationships": [{"from_entity": "line", "to_entity": "order", "label": "BELONGS_TO"}],
+             "metadata": {"title": "Orders"}, "diagram_settings": {"rankdir": "LR"}}
+            """,
+            // No entities at all
+            """
+            {"metadata": {"title": "Empty"}, "diagram_settings": {"rankdir": "LR"}, "entities": []}
+            """
+    })
+    void customTemplatesCanAskForTheEntityCount(String json, @TempDir Path tempDir) throws Exception {
+        Path schemaFile = Files.writeString(tempDir.resolve("schema.json"), json);
+        Path configFile = Files.writeString(tempDir.resolve("config.yaml"), """
+                diagram:
+                  templates:
+                    main-template: templates/counted-diagram.vm
+                """);
+        int entities = objectMapper.readTree(json).path("entities").size();
+
+        String expected = diagramService.generateDotContent(objectMapper.readTree(json), configFile.toString(), RenderEngine.VELOCITY);
+        assertTrue(expected.contains("// Entities: " + entities + "\n"));
+        assertEquals(entities == 0, expected.contains("// No entities"));
+
+        assertEquals(expected, streamFile(schemaFile, configFile.toString()));
+        assertEquals(expected, streamStandardInput(schemaFile, configFile.toString()));
+    }
+
+    private String streamFile(Path schemaFile, String configFile) throws Exception {
+        StringWriter streamed = new StringWriter();
+        streamingDiagramService.streamDotContent(schemaFile, configFile, streamed, RenderEngine.VELOCITY);
+        return streamed.toString();
+    }
+
+    private String streamStandardInput(Path schemaFile, String configFile) throws Exception {
+        StringWriter streamed = new StringWriter();
+        try (InputStream input = Files.newInputStream(schemaFile)) {
+            streamingDiagramService.streamDotContent(input, configFile, streamed, RenderEngine.VELOCITY);
+        }
+        return streamed.toString();
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.converter.template;
+
+import com.example.converter.service.DiagramService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.File;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class TemplateCacheTests {
+
+    @Autowired
+    private TemplateCache templateCache;
+
+    @Autowired
+    private DiagramService diagramService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void templatesAreParsedOnceAcrossRenders() throws Exception {
+        JsonNode jsonData = objectMapper.readTree(new File("schema-file/mdm/schema.json"));
+
+        diagramService.generateDotContent(jsonData, null);
+        TemplateCache.Statistics afterFirst = templateCache.getStatistics();
+        diagramService.generateDotContent(jsonData, null);
+        TemplateCache.Statistics afterSecond = templateCache.getStatistics();
+
+        // Main, entity and relationship templates were parsed at startup
+        assertEquals(3, afterFirst.templates());
+        assertEquals(afterFirst.misses(), afterSecond.misses());
+        assertTrue(afterSecond.hits() > afterFirst.hits());
+    }
+}
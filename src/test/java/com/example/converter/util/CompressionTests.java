@@ -0,0 +1,62 @@
+package com.example.converter.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for choosing and writing compressed output
+ */
+class CompressionTests {
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void choosesCompressionFromTheExtension() {
+        assertEquals(Compression.NONE, Compression.fromFileName("schema.dot"));
+        assertEquals(Compression.NONE, Compression.fromFileName("-"));
+        assertEquals(Compression.GZIP, Compression.fromFileName("schema.dot.gz"));
+        assertEquals(Compression.GZIP, Compression.fromFileName("SCHEMA.DOT.GZ"));
+        assertEquals(Compression.ZSTD, Compression.fromFileName("schema.dot.zst"));
+        assertEquals(Compression.ZSTD, Compression.fromFileName("schema.dot.zstd"));
+    }
+
+    @Test
+    void writesGzipWhileWriting() throws Exception {
+        Path file = tempDir.resolve("schema.dot.gz");
+        StringBuilder expected = new StringBuilder();
+        try (Writer writer = new OutputStreamWriter(Compression.GZIP.open(file.toString()), StandardCharsets.UTF_8)) {
+            for (int i = 0; i < 10_000; i++) {
+                String line = "    entity_" + i + " [label=<<TABLE></TABLE>>];\n";
+                writer.write(line);
+                expected.append(line);
+            }
+        }
+
+        try (InputStream input = new GZIPInputStream(Files.newInputStream(file))) {
+            assertEquals(expected.toString(), new String(input.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        assertTrue(Files.size(file) < expected.length() / 10);
+    }
+
+    @Test
+    void writesPlainFilesUnchanged() throws Exception {
+        Path file = tempDir.resolve("schema.dot");
+        try (OutputStream output = Compression.NONE.open(file.toString())) {
+            output.write("digraph g {}\n".getBytes(StandardCharsets.UTF_8));
+        }
+        assertEquals("digraph g {}\n", Files.readString(file));
+    }
+}
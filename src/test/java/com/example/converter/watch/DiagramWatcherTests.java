@@ -0,0 +1,120 @@
+package com.example.converter.watch;
+
+import com.example.converter.service.BatchConversionService;
+import com.example.converter.service.BatchConversionService.FileTask;
+import com.example.converter.service.RenderEngine;
+import com.example.converter.template.TemplateCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class DiagramWatcherTests {
+
+    @Autowired
+    private DiagramWatcher diagramWatcher;
+
+    @Autowired
+    private TemplateCache templateCache;
+
+    @Test
+    void changedInputIsRebuilt(@TempDir Path tempDir) throws Exception {
+        Path input = Files.copy(Paths.get("schema-file/contact/schema.json"), tempDir.resolve("contact.json"));
+        Path other = Files.copy(Paths.get("schema-file/contact/schema.json"), tempDir.resolve("other.json"));
+        Path outputDir = tempDir.resolve("out");
+        List<FileTask> tasks = List.of(
+                new FileTask(input, outputDir.resolve("contact.dot")),
+                new FileTask(other, outputDir.resolve("other.dot")));
+
+        BlockingQueue<DiagramWatcher.Rebuild> rebuilds = new LinkedBlockingQueue<>();
+        Thread watcher = new Thread(() -> {
+            try {
+                diagramWatcher.watch(() -> tasks,
+                        new BatchConversionService.Options(null, false, RenderEngine.VELOCITY, null, null),
+                        100, 1, rebuilds::add);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        watcher.start();
+        try {
+            DiagramWatcher.Rebuild initial = rebuilds.poll(30, TimeUnit.SECONDS);
+            assertNotNull(initial);
+            assertEquals(2, initial.results().size());
+
+            // Several quick saves are rebuilt once, and only the changed input is converted
+            String json = Files.readString(input);
+            for (int i = 0; i < 3; i++) {
+                Files.writeString(input, json.replace("\"title\": \"", "\"title\": \"Edited " + i + " "));
+            }
+            DiagramWatcher.Rebuild rebuild = rebuilds.poll(30, TimeUnit.SECONDS);
+            assertNotNull(rebuild);
+            assertEquals(1, rebuild.results().size());
+            assertEquals(input, rebuild.results().get(0).task().input());
+            assertTrue(Files.readString(outputDir.resolve("contact.dot")).contains("Edited 2"));
+        } finally {
+            watcher.interrupt();
+            watcher.join(10_000);
+        }
+    }
+
+    @Test
+    void templateChangeInASubdirectoryRebuildsEverything(@TempDir Path tempDir) throws Exception {
+        Path templateDir = Files.createDirectories(tempDir.resolve("templates/partials"));
+        String diagramTemplate;
+        try (InputStream bundled = getClass().getClassLoader().getResourceAsStream("templates/diagram.vm")) {
+            diagramTemplate = new String(bundled.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        Files.writeString(templateDir.resolveSibling("diagram.vm"), "#parse(\"partials/banner.vm\")\n" + diagramTemplate);
+        Path banner = Files.writeString(templateDir.resolve("banner.vm"), "// Banner 1\n");
+
+        Path input = Files.copy(Paths.get("schema-file/contact/schema.json"), tempDir.resolve("contact.json"));
+        Path other = Files.copy(Paths.get("schema-file/contact/schema.json"), tempDir.resolve("other.json"));
+        Path outputDir = tempDir.resolve("out");
+        List<FileTask> tasks = List.of(
+                new FileTask(input, outputDir.resolve("contact.dot")),
+                new FileTask(other, outputDir.resolve("other.dot")));
+
+        templateCache.setTemplateDirectory(templateDir.getParent());
+        BlockingQueue<DiagramWatcher.Rebuild> rebuilds = new LinkedBlockingQueue<>();
+        Thread watcher = new Thread(() -> {
+            try {
+                diagramWatcher.watch(() -> tasks,
+                        new BatchConversionService.Options(null, false, RenderEngine.VELOCITY, null, null),
+                        100, 1, rebuilds::add);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        watcher.start();
+        try {
+            assertNotNull(rebuilds.poll(30, TimeUnit.SECONDS));
+            assertTrue(Files.readString(outputDir.resolve("other.dot")).startsWith("// Banner 1"));
+
+            Files.writeString(banner, "// Banner 2\n");
+            DiagramWatcher.Rebuild rebuild = rebuilds.poll(30, TimeUnit.SECONDS);
+            assertNotNull(rebuild);
+            assertEquals(2, rebuild.results().size());
+            assertTrue(Files.readString(outputDir.resolve("other.dot")).startsWith("// Banner 2"));
+        } finally {
+            watcher.interrupt();
+            watcher.join(10_000);
+            templateCache.setTemplateDirectory(null);
+        }
+    }
+}